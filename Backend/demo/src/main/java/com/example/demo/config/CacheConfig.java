@@ -0,0 +1,13 @@
+package com.example.demo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Cache manager (Caffeine) được cấu hình qua spring.cache.* trong application.properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_BY_ID = "categoryById";
+    public static final String ROLE_BY_NAME = "roleByName";
+}
@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import com.example.demo.service.PasswordHashingExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Chỉ phần tốn CPU (BCrypt encode/matches) chạy trên PasswordHashingExecutor; phần còn lại của login (đọc user,
+// UPDATE hash khi nâng cấp) vẫn ở request thread nên pool BCrypt không bị chiếm trong lúc chờ database.
+// Không gọi encoder này từ bên trong PasswordHashingExecutor: pool sẽ tự chờ chính nó.
+class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor hashingExecutor;
+
+    OffloadingPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashingExecutor) {
+        this.delegate = delegate;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashingExecutor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashingExecutor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Chỉ đọc prefix/cost của hash, không cần qua pool
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Ghi số câu SQL và tổng thời gian SQL của mỗi request, gắn tag theo method + URI pattern giống http.server.requests,
+// để tìm endpoint bị N+1 hoặc tốn thời gian ở database.
+// Request vượt ngân sách số câu SQL (hoặc lặp một câu quá nhiều lần) bị log WARN và đếm vào VIOLATIONS;
+// số câu SQL cũng được gắn vào request attribute STATEMENTS_ATTRIBUTE để test đọc lại
+@Component
+public class RequestSqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENTS = "http.server.requests.sql.statements";
+    public static final String DURATION = "http.server.requests.sql.duration";
+    public static final String VIOLATIONS = "http.server.requests.sql.violations";
+    public static final String STATEMENTS_ATTRIBUTE = RequestSqlMetricsInterceptor.class.getName() + ".statements";
+    public static final String MAX_REPEATS_ATTRIBUTE = RequestSqlMetricsInterceptor.class.getName() + ".maxRepeats";
+
+    private static final Logger log = LoggerFactory.getLogger(RequestSqlMetricsInterceptor.class);
+    private static final int LOGGED_SQL_LENGTH = 300;
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    public RequestSqlMetricsInterceptor(MeterRegistry meterRegistry,
+                                        @Value("${sql.budget.max-statements:30}") int maxStatements,
+                                        @Value("${sql.budget.max-repeats:10}") int maxRepeats) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementListener.open();
+        return true;
+    }
+
+    // Request async (SSE, export) trả thread lại cho container; phần chạy trên thread khác không đếm được,
+    // lần dispatch async sau đó sẽ mở bộ đếm mới
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementListener.close();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementListener.Tally tally = SqlStatementListener.close();
+        if (tally == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+        DistributionSummary.builder(STATEMENTS)
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tags(tags)
+                .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(tally.statements);
+        Timer.builder(DURATION)
+                .description("Time spent executing SQL per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(tally.nanos, TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> repeated = tally.mostRepeated();
+        int repeats = repeated != null ? repeated.getValue() : 0;
+        request.setAttribute(STATEMENTS_ATTRIBUTE, tally.statements);
+        request.setAttribute(MAX_REPEATS_ATTRIBUTE, repeats);
+
+        if (tally.statements > maxStatements) {
+            log.warn("{} {} ran {} SQL statements ({} ms), budget is {}", request.getMethod(), request.getRequestURI(),
+                    tally.statements, TimeUnit.NANOSECONDS.toMillis(tally.nanos), maxStatements);
+            meterRegistry.counter(VIOLATIONS, tags.and("type", "budget")).increment();
+        }
+        if (repeats >= maxRepeats) {
+            log.warn("Possible N+1 in {} {}: same SQL ran {} times: {}", request.getMethod(), request.getRequestURI(),
+                    repeats, abbreviate(repeated.getKey()));
+            meterRegistry.counter(VIOLATIONS, tags.and("type", "repeated")).increment();
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= LOGGED_SQL_LENGTH ? sql : sql.substring(0, LOGGED_SQL_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Rule theo chủ sở hữu cho SecurityConfig: username của principal là email (JwtService), so với user/giao dịch
+// trên path. Admin luôn được phép và không tốn câu query nào
+@Component
+public class ResourceAccess {
+
+    static final String ADMIN = "ROLE_Admin";
+    static final String WAREHOUSE_MANAGER = "ROLE_Warehouse Manager";
+
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+
+    public ResourceAccess(UserRepository userRepository, TransactionRepository transactionRepository) {
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+    }
+
+    // /api/users/{id}/wallet/**: chỉ chính user đó
+    public AuthorizationDecision isUser(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (!isAuthenticated(auth)) {
+            return new AuthorizationDecision(false);
+        }
+        if (hasAuthority(auth, ADMIN)) {
+            return new AuthorizationDecision(true);
+        }
+        String userId = context.getVariables().get("id");
+        return new AuthorizationDecision(userId != null && userRepository.existsByUserIdAndEmail(userId, auth.getName()));
+    }
+
+    // Hoàn tất giao dịch (ghi sổ cái ví): người mua xác nhận đã nhận hàng, hoặc nhân viên kho. Người bán không tự
+    // hoàn tất được vì sẽ tự ghi tiền bán cho mình
+    public AuthorizationDecision canComplete(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (!isAuthenticated(auth)) {
+            return new AuthorizationDecision(false);
+        }
+        if (hasAuthority(auth, ADMIN) || hasAuthority(auth, WAREHOUSE_MANAGER)) {
+            return new AuthorizationDecision(true);
+        }
+        String transactionId = context.getVariables().get("transactionId");
+        return new AuthorizationDecision(transactionId != null
+                && transactionRepository.existsByTransactionIdAndUserEmail(transactionId, auth.getName()));
+    }
+
+    private static boolean isAuthenticated(Authentication auth) {
+        return auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken);
+    }
+
+    private static boolean hasAuthority(Authentication auth, String authority) {
+        return auth.getAuthorities().stream().anyMatch(granted -> authority.equals(granted.getAuthority()));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Việc định kỳ (@Scheduled) chạy trên TaskScheduler chung do Spring Boot cấu hình (spring.task.scheduling.*),
+// không để mỗi service tự dựng executor trong constructor. Lịch chỉ bắt đầu sau khi context đã refresh xong;
+// với spring.threads.virtual.enabled=true Boot dùng scheduler chạy mỗi lượt trên một virtual thread
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,7 +1,12 @@
 package com.example.demo.config;
 
+import com.example.demo.service.PasswordHashingExecutor;
+import com.example.demo.webtoken.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -9,30 +14,56 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ResourceAccess resourceAccess;
 
-    public SecurityConfig(UserDetailsService userDetailsService) {
+    public SecurityConfig(UserDetailsService userDetailsService, JwtAuthenticationFilter jwtAuthenticationFilter,
+                          ResourceAccess resourceAccess) {
         this.userDetailsService = userDetailsService;
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.resourceAccess = resourceAccess;
     }
 
+    // Filter chỉ chạy trong security filter chain, không đăng ký thêm lần nữa ở servlet container
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    // Hash mới có dạng {bcrypt}$2a$<strength>$...; hash cũ không có prefix vẫn match được bằng BCrypt
+    // và sẽ được hash lại khi user login (CustomUserDetailsService.updatePassword).
+    // BCrypt chạy trên pool riêng (OffloadingPasswordEncoder); pool đầy sẽ trả 429
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadingPasswordEncoder(encoder, passwordHashingExecutor);
     }
 
     // AuthenticationManager sẽ được cấu hình tự động với Spring Security mới.
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder =
                 http.getSharedObject(AuthenticationManagerBuilder.class);
-        authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
         return authenticationManagerBuilder.build();
     }
 
@@ -41,10 +72,26 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable()) // Disable CSRF (trong trường hợp không dùng session)
                 .authorizeHttpRequests(auth -> auth
+                        // Endpoint quản trị (điều chỉnh ví, export giao dịch, chạy job...) phải đứng trước "/**" permitAll
+                        .requestMatchers("/api/admin/**").hasRole("Admin")
+                        // Actuator: chỉ health là công khai, metrics/prometheus lộ số liệu nội bộ nên cần Admin
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("Admin")
+                        // Chuyển trạng thái giao nhận (kể cả Completed, ghi sổ cái ví) là việc của quản lý kho
+                        .requestMatchers(HttpMethod.PATCH, "/api/transactions/{transactionId}/status")
+                        .hasAnyRole("Admin", "Warehouse Manager")
+                        .requestMatchers(HttpMethod.POST, "/api/transactions/status/bulk")
+                        .hasAnyRole("Admin", "Warehouse Manager")
+                        // Ghi/đọc sổ cái ví: người mua hoặc nhân viên kho hoàn tất giao dịch, chỉ chủ ví (hoặc Admin) xem ví
+                        .requestMatchers(HttpMethod.POST, "/api/transactions/{transactionId}/complete")
+                        .access(resourceAccess::canComplete)
+                        .requestMatchers("/api/users/{id}/wallet", "/api/users/{id}/wallet/**")
+                        .access(resourceAccess::isUser)
                         .requestMatchers("/api/auth/**", "/**", "/api/users/**", "/api/items/**").permitAll() // Đảm bảo các endpoint auth được phép truy cập
                         .anyRequest().authenticated()
                 )
-                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS)); // Cấu hình không dùng session (API Stateless)
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Cấu hình không dùng session (API Stateless)
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+// Gắn bộ đếm SQL theo request vào Hibernate: listener đo số câu và thời gian, inspector ghi text để phát hiện N+1.
+// Inspector khai báo qua spring.jpa.properties (ví dụ trong test) vẫn được giữ và gọi trước
+@Configuration
+public class SqlStatementConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlStatementListener.class.getName());
+            StatementInspector configured = resolve(properties.get(AvailableSettings.STATEMENT_INSPECTOR));
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector(configured));
+        };
+    }
+
+    private static StatementInspector resolve(Object configured) {
+        return switch (configured) {
+            case null -> null;
+            case StatementInspector inspector -> inspector;
+            case Class<?> type -> (StatementInspector) BeanUtils.instantiateClass(type);
+            default -> (StatementInspector) BeanUtils.instantiateClass(
+                    ClassUtils.resolveClassName(configured.toString(), SqlStatementConfig.class.getClassLoader()));
+        };
+    }
+}
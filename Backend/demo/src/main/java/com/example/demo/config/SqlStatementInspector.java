@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Ghi lại text của từng câu SQL cho request hiện tại rồi chuyển tiếp cho inspector đã cấu hình sẵn (nếu có)
+public class SqlStatementInspector implements StatementInspector {
+
+    private final StatementInspector delegate;
+
+    public SqlStatementInspector(StatementInspector delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String inspected = delegate != null ? delegate.inspect(sql) : sql;
+        SqlStatementListener.prepared(inspected);
+        return inspected;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.config;
+
+import org.hibernate.SessionEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Đếm số câu SQL và tổng thời gian chạy của chúng trên thread đang xử lý request.
+// SqlStatementConfig gắn listener vào mọi session qua hibernate.session.events.auto; chỉ đếm khi
+// RequestSqlMetricsInterceptor đã mở bộ đếm cho thread hiện tại, các thread nền bị bỏ qua
+public class SqlStatementListener implements SessionEventListener {
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    static void open() {
+        CURRENT.set(new Tally());
+    }
+
+    static Tally close() {
+        Tally tally = CURRENT.get();
+        CURRENT.remove();
+        return tally;
+    }
+
+    // Gọi từ SqlStatementInspector mỗi lần Hibernate chuẩn bị một câu SQL
+    static void prepared(String sql) {
+        Tally tally = CURRENT.get();
+        if (tally != null) {
+            tally.prepared.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startStatement();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        endStatement();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startStatement();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        endStatement();
+    }
+
+    private static void startStatement() {
+        Tally tally = CURRENT.get();
+        if (tally != null) {
+            tally.startedAt = System.nanoTime();
+        }
+    }
+
+    private static void endStatement() {
+        Tally tally = CURRENT.get();
+        if (tally != null && tally.startedAt != 0) {
+            tally.statements++;
+            tally.nanos += System.nanoTime() - tally.startedAt;
+            tally.startedAt = 0;
+        }
+    }
+
+    static final class Tally {
+        int statements;
+        long nanos;
+        private long startedAt;
+        // số lần mỗi câu SQL (cùng text, khác tham số) được chuẩn bị trong request
+        private final Map<String, Integer> prepared = new HashMap<>();
+
+        // Câu SQL lặp lại nhiều nhất, dấu hiệu của N+1 (load từng quan hệ một thay vì một query/IN (...))
+        Map.Entry<String, Integer> mostRepeated() {
+            return prepared.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        }
+    }
+}
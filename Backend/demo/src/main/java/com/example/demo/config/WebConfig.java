@@ -1,15 +1,41 @@
 package com.example.demo.config;
 
+import com.example.demo.service.LocalImageStorage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RequestSqlMetricsInterceptor requestSqlMetricsInterceptor;
+
+    @Autowired
+    private ObjectProvider<LocalImageStorage> localImageStorage;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:8000") // URL frontend
-                .allowedMethods("*");
+                .allowedMethods("*")
+                .exposedHeaders("X-Next-Cursor", "X-Total-Count", "ETag");
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestSqlMetricsInterceptor).addPathPatterns("/api/**");
+    }
+
+    // Với images.storage=local, phục vụ ảnh thu nhỏ từ thư mục local
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        localImageStorage.ifAvailable(storage -> registry
+                .addResourceHandler(storage.getBaseUrl() + "**")
+                .addResourceLocations(storage.getDirectory().toUri().toString()));
     }
-}
\ No newline at end of file
+}
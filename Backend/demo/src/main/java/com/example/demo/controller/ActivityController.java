@@ -1,17 +1,25 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.ActivityDTO;
+import com.example.demo.dto.ActivitySummaryDTO;
+import com.example.demo.dto.DonationDTO;
+import com.example.demo.dto.DonationResultDTO;
 import com.example.demo.enumpack.ActivityType;
 import com.example.demo.model.Activity;
 import com.example.demo.model.UserAccount;
 import com.example.demo.repository.ActivityRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.service.ActivityService;
+import com.example.demo.service.DonationService;
+import com.example.demo.service.LiveUpdateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -27,6 +35,12 @@ public class ActivityController {
     @Autowired
     private ActivityService activityService;
 
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -39,12 +53,20 @@ public class ActivityController {
         return activityService.getAllActivities();
     }
 
-    // Get activity by ID
+    // Danh sách rút gọn (không kèm danh sách bài đăng của từng hoạt động), luôn phân trang;
+    // cursor của trang tiếp theo trả về trong header X-Next-Cursor
+    @GetMapping("/summary")
+    public ResponseEntity<List<ActivitySummaryDTO>> getActivitySummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return CursorResponses.respond(() -> activityService.getActivitySummariesPage(cursor, limit));
+    }
+
+    // Get activity by ID (hỗ trợ If-None-Match, trả 304 khi không đổi)
     @GetMapping("/{id}")
-    public ResponseEntity<Activity> getActivityById(@PathVariable String id) {
-        Optional<Activity> activity = activityService.getActivityById(id);
-        return activity.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Activity> getActivityById(@PathVariable String id, WebRequest request) {
+        return ConditionalGet.respond(request, activityService.getActivityVersionTag(id), ConditionalGet.REVALIDATE,
+                () -> activityService.getActivityById(id));
     }
 
     // Create new activity
@@ -68,6 +90,7 @@ public class ActivityController {
     ) {
         Activity activity = activityRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Activity not found"));
+        String previousImage = activity.getImage();
 
         updates.forEach((key, value) -> {
             switch (key) {
@@ -90,10 +113,33 @@ public class ActivityController {
         });
 
         activity.setUpdatedAt(LocalDateTime.now());
-        activityRepository.save(activity);
+        activityService.saveActivity(activity, previousImage);
         return ResponseEntity.ok(activity);
     }
 
+    // Theo dõi tiến độ gây quỹ qua SSE: nhận ngay snapshot rồi một event "progress" mỗi khi số tiền thay đổi
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamActivityProgress(@PathVariable String id) {
+        return liveUpdateService.subscribeToActivity(id);
+    }
+
+    // Quyên góp: mặc định gom vào bộ đếm và ghi xuống database theo chu kỳ ngắn (202),
+    // immediate=true thì cộng ngay bằng một câu UPDATE và trả về tổng mới (200)
+    @PostMapping("/{id}/donations")
+    public ResponseEntity<DonationResultDTO> donate(
+            @PathVariable String id,
+            @RequestBody DonationDTO donation,
+            @RequestParam(defaultValue = "false") boolean immediate) {
+        try {
+            if (immediate) {
+                return ResponseEntity.ok(donationService.donateNow(id, donation.getAmount()));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(donationService.donate(id, donation.getAmount()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     // Delete activity
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteActivity(@PathVariable String id) {
@@ -1,15 +1,35 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.RecommendationModelDTO;
+import com.example.demo.dto.ScheduledJobResultDTO;
+import com.example.demo.dto.WalletAdjustmentDTO;
+import com.example.demo.dto.WalletDTO;
+import com.example.demo.enumpack.TransactionStatus;
 import com.example.demo.model.Transaction;
 import com.example.demo.model.UserAccount;
+import com.example.demo.service.RecommendationService;
+import com.example.demo.service.ScheduledJobService;
+import com.example.demo.service.TransactionExportService;
 import com.example.demo.service.TransactionService;
 import com.example.demo.service.UserService;
+import com.example.demo.service.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,14 +41,80 @@ public class AdminController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private ScheduledJobService scheduledJobService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
     @GetMapping("/users")
     public List<UserAccount> getAllUsers() {
         return userService.getAllUsers();
     }
 
+    // Chạy ngay một job định kỳ (close-ended-activities, expire-stale-posts); ran = false nếu node khác đang chạy nó
+    @PostMapping("/jobs/{job}/run")
+    public ScheduledJobResultDTO runJob(@PathVariable String job) {
+        return scheduledJobService.run(job);
+    }
+
+    // Dựng lại mô hình gợi ý trên node này ngay, không chờ lượt định kỳ
+    @PostMapping("/recommendations/rebuild")
+    public RecommendationModelDTO rebuildRecommendations() {
+        return recommendationService.rebuild();
+    }
+
+    @GetMapping("/recommendations/model")
+    public RecommendationModelDTO getRecommendationModel() {
+        return recommendationService.describe();
+    }
+
+    // Điều chỉnh số dư thủ công: thêm một dòng Adjustment vào sổ cái, không sửa trực tiếp số dư
+    @PostMapping("/users/{id}/wallet/adjustments")
+    public WalletDTO adjustWallet(@PathVariable String id, @RequestBody WalletAdjustmentDTO adjustment) {
+        try {
+            return walletService.adjust(id, adjustment);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @GetMapping("/transactions")
     public List<Transaction> getTransactionsByUserId() {
         return transactionService.getAll();
     }
 
+    // Tải toàn bộ giao dịch (có thể lọc theo khoảng ngày tạo [from, to) và status) dưới dạng CSV hoặc NDJSON.
+    // Dữ liệu được ghi dần ra response nên không giới hạn số dòng
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status) {
+        TransactionExportService.Format exportFormat;
+        TransactionStatus statusFilter;
+        try {
+            exportFormat = TransactionExportService.Format.from(format);
+            transactionExportService.validateRange(from, to);
+            statusFilter = transactionExportService.parseStatus(status);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        StreamingResponseBody body = out -> transactionExportService.export(exportFormat, from, to, statusFilter, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(transactionExportService.fileName(exportFormat))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
 }
@@ -3,7 +3,6 @@ package com.example.demo.controller;
 import com.example.demo.model.AuthResponse;
 import com.example.demo.model.LoginRequest;
 import com.example.demo.model.UserAccount;
-import com.example.demo.repository.UserRepository;
 import com.example.demo.webtoken.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -12,9 +11,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -30,24 +26,20 @@ public class AuthController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired
     private JwtService jwtService;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
         try {
+            // Chỉ bước so khớp BCrypt chạy trên pool riêng (PasswordEncoder của SecurityConfig); pool đầy sẽ trả 429
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
 
-            UserDetails user = (UserDetails) authentication.getPrincipal();
-            String token = jwtService.generateToken(user);
-            UserAccount userAccount = userRepository.findByEmail(user.getUsername())
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-//            System.out.println(userAccount.getRoles().toString());
+            // Principal chính là UserAccount do CustomUserDetailsService trả về
+            UserAccount userAccount = (UserAccount) authentication.getPrincipal();
+            String token = jwtService.generateToken(userAccount);
             return ResponseEntity.ok(new AuthResponse(token, userAccount.getUserId(), userAccount.getRolesName(), userAccount.getName(), userAccount.getAvatar()));
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
@@ -3,9 +3,12 @@ package com.example.demo.controller;
 import com.example.demo.model.Category;
 import com.example.demo.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,12 +16,18 @@ import java.util.Optional;
 @RequestMapping("/api/categories")
 public class CategoryController {
 
+    private static final CacheControl CATEGORY_CACHE = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+
     @Autowired
     private CategoryService categoryService;
 
+    // Danh sách lấy từ cache nên ETag tính từ version của các danh mục trong đó, không cần query;
+    // cho phép dùng lại bản đã tải trong 60 giây rồi mới hỏi lại server
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        List<Category> categories = categoryService.getAllCategories();
+        return ConditionalGet.respond(request, Optional.of(categoryService.versionTag(categories)),
+                CATEGORY_CACHE, () -> Optional.of(categories));
     }
 
     @GetMapping("/{categoryId}")
@@ -2,11 +2,15 @@ package com.example.demo.controller;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import com.example.demo.dto.ImageVariantDTO;
+import com.example.demo.enumpack.ImageOwnerType;
+import com.example.demo.service.ImageThumbnailService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,6 +20,9 @@ public class CloudinaryController {
     @Autowired
     private Cloudinary cloudinary;
 
+    @Autowired
+    private ImageThumbnailService imageThumbnailService;
+
     @Data
     static class SignatureRequest {
         private String timestamp;
@@ -47,4 +54,16 @@ public class CloudinaryController {
             return ResponseEntity.status(500).body(null);
         }
     }
-}
\ No newline at end of file
+
+    // Các kích thước thu nhỏ đã sinh cho ảnh của item/hoạt động (ownerType: Item | Activity), nhỏ tới lớn.
+    // Danh sách rỗng khi ảnh chưa xử lý xong hoặc ảnh gốc đã nhỏ hơn mọi kích thước
+    @GetMapping("/variants/{ownerType}/{ownerId}")
+    public ResponseEntity<List<ImageVariantDTO>> getImageVariants(@PathVariable String ownerType,
+                                                                  @PathVariable String ownerId) {
+        ImageOwnerType type = ImageOwnerType.fromString(ownerType);
+        if (type == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(imageThumbnailService.getVariants(type, ownerId));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// GET có điều kiện dựa trên version: so ETag với If-None-Match trước, chỉ nạp entity (loader) khi client chưa có
+// bản mới nhất. ETag là weak (W/"...") vì JSON của cùng một version có thể khác thứ tự phần tử trong các Set.
+final class ConditionalGet {
+
+    // Trình duyệt giữ bản sao nhưng luôn hỏi lại server; lần hỏi lại chỉ tốn một câu tra version
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> respond(WebRequest request, Optional<String> versionTag, CacheControl cacheControl,
+                                         Supplier<Optional<T>> loader) {
+        if (versionTag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "W/\"" + versionTag.get() + "\"";
+        if (matches(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return loader.get()
+                .map(body -> ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // So sánh weak theo RFC 9110: bỏ tiền tố W/ ở cả hai phía
+    private static boolean matches(WebRequest request, String etag) {
+        String[] headers = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (headers == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String header : headers) {
+            for (String candidate : header.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.equals("*") || stripWeak(trimmed).equals(opaque)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
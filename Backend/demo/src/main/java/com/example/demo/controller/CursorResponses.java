@@ -0,0 +1,31 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CursorPage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// Trả một trang của danh sách phân trang keyset: body là danh sách, cursor của trang tiếp theo nằm trong header
+// X-Next-Cursor. Cursor không hợp lệ (IllegalArgumentException từ service) trả 400
+final class CursorResponses {
+
+    private CursorResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> respond(Supplier<CursorPage<T>> loader) {
+        CursorPage<T> page;
+        try {
+            page = loader.get();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(PostController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -1,12 +1,21 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BulkImportResultDTO;
 import com.example.demo.dto.ItemDTO;
+import com.example.demo.dto.ItemSummaryDTO;
 import com.example.demo.dto.PostDTO;
 import com.example.demo.model.Item;
+import com.example.demo.service.BulkImportService;
 import com.example.demo.service.ItemService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,6 +24,9 @@ public class ItemController {
 
     private final ItemService itemService;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
     public ItemController(ItemService itemService) {
         this.itemService = itemService;
     }
@@ -24,11 +36,19 @@ public class ItemController {
         return itemService.getAllItems();
     }
 
+    // Luôn phân trang; cursor của trang tiếp theo trả về trong header X-Next-Cursor
+    @GetMapping("/summary")
+    public ResponseEntity<List<ItemSummaryDTO>> getItemSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return CursorResponses.respond(() -> itemService.getItemSummariesPage(cursor, limit));
+    }
+
+    // Hỗ trợ If-None-Match: khi version không đổi trả 304 mà không nạp item
     @GetMapping("/{id}")
-    public ResponseEntity<Item> getItemById(@PathVariable String id) {
-        return itemService.getItemById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Item> getItemById(@PathVariable String id, WebRequest request) {
+        return ConditionalGet.respond(request, itemService.getItemVersionTag(id), ConditionalGet.REVALIDATE,
+                () -> itemService.getItemById(id));
     }
 
     @PostMapping
@@ -37,6 +57,16 @@ public class ItemController {
         return ResponseEntity.ok(itemService.createItem(item));
     }
 
+    // Nhận JSON array hoặc NDJSON; dòng lỗi được bỏ qua và báo lại trong errors
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportResultDTO importItems(InputStream body) {
+        try {
+            return bulkImportService.importItems(bulkImportService.readRows(body, ItemDTO.class));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Item> updateItem(@PathVariable String id, @RequestBody Item item) {
         return ResponseEntity.ok(itemService.updateItem(id, item));
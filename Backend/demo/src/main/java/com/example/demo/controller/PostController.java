@@ -1,27 +1,102 @@
 package com.example.demo.controller;
+import com.example.demo.dto.BulkImportResultDTO;
 import com.example.demo.dto.ItemDTO;
 import com.example.demo.dto.PostDTO;
+import com.example.demo.dto.PostQueryFilter;
+import com.example.demo.dto.PostSearchResultDTO;
+import com.example.demo.dto.PostSummaryDTO;
 import com.example.demo.enumpack.PostStateType;
 import com.example.demo.enumpack.PostStatusType;
 import com.example.demo.enumpack.PostType;
 import com.example.demo.model.SellExchangePost;
+import com.example.demo.service.BulkImportService;
+import com.example.demo.service.LiveUpdateService;
+import com.example.demo.service.PostSearchService;
 import com.example.demo.service.SellExchangePostService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     @Autowired
     private SellExchangePostService postService;
 
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
+    // Luôn phân trang; cursor của trang tiếp theo trả về trong header X-Next-Cursor
     @GetMapping
-    public List<SellExchangePost> getAllPosts() {
-        return postService.getAllPosts();
+    public ResponseEntity<List<SellExchangePost>> getAllPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(null, null, null, null, cursor, limit);
+    }
+
+    // Danh sách rút gọn cho trang browse: một câu query, không trả về entity seller/item
+    @GetMapping("/summary")
+    public ResponseEntity<List<PostSummaryDTO>> getPostSummaries(
+            @RequestParam(required = false) PostType type,
+            @RequestParam(required = false) PostStatusType status,
+            @RequestParam(required = false) PostStateType state,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return CursorResponses.respond(
+                () -> postService.getPostSummariesPage(type, status, state, categoryId, cursor, limit));
+    }
+
+    // Kết hợp tự do type, status, state, categoryId, sellerId, khoảng giá và khoảng ngày tạo trong một câu query.
+    // Phân trang theo page/size, tổng số bài trả về trong header X-Total-Count
+    @GetMapping("/query")
+    public ResponseEntity<List<SellExchangePost>> queryPosts(
+            PostQueryFilter filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        Page<SellExchangePost> result;
+        try {
+            result = postService.queryPosts(filter, page, size, sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(result.getTotalElements()))
+                .body(result.getContent());
+    }
+
+    // Tìm kiếm full-text trên tiêu đề, mô tả, tên item và tên danh mục, kèm facet theo type/category
+    @GetMapping("/search")
+    public PostSearchResultDTO searchPosts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) PostType type,
+            @RequestParam(required = false) PostStatusType status,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer limit) {
+        return postSearchService.search(q, type, status, categoryId, minPrice, maxPrice, limit);
     }
 
     @PostMapping
@@ -29,6 +104,16 @@ public class PostController {
         return ResponseEntity.ok(postService.createPost(post));
     }
 
+    // Import hàng loạt (JSON array hoặc NDJSON), tối đa BulkImportService.MAX_ROWS dòng mỗi request
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportResultDTO importPosts(InputStream body) {
+        try {
+            return bulkImportService.importPosts(bulkImportService.readRows(body, PostDTO.class));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @PutMapping("/{postId}")
     public ResponseEntity<SellExchangePost> updatePost(@PathVariable String postId, @RequestBody PostDTO updatedPost) {
         Optional<SellExchangePost> updated = postService.updatePost(postId, updatedPost);
@@ -47,11 +132,18 @@ public class PostController {
     }
 
 
+    // Hỗ trợ If-None-Match: khi version không đổi trả 304 mà không nạp bài đăng
     @GetMapping("/{postId}")
-    public ResponseEntity<SellExchangePost> getPostById(@PathVariable String postId) {
-        Optional<SellExchangePost> SellExchangePost = postService.getPostById(postId);
-        return SellExchangePost.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<SellExchangePost> getPostById(@PathVariable String postId, WebRequest request) {
+        return ConditionalGet.respond(request, postService.getPostVersionTag(postId), ConditionalGet.REVALIDATE,
+                () -> postService.getPostById(postId));
+    }
+
+    // Theo dõi trạng thái bài đăng qua SSE (status/state của quá trình trao đổi): nhận ngay snapshot,
+    // sau đó một event "status" mỗi lần cập nhật và "deleted" khi bài bị xóa
+    @GetMapping(value = "/{postId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPostStatus(@PathVariable String postId) {
+        return liveUpdateService.subscribeToPost(postId);
     }
 
     @GetMapping("/seller/{sellerId}")
@@ -59,25 +151,57 @@ public class PostController {
         return postService.getPostsBySellerId(sellerId);
     }
 
+    // Các endpoint filter chỉ phân trang khi client truyền cursor hoặc limit
     @GetMapping("/type/{type}")
-    public List<SellExchangePost> getPostsByType(@PathVariable PostType type) {
-        return postService.getPostsByType(type);
+    public ResponseEntity<List<SellExchangePost>> getPostsByType(
+            @PathVariable PostType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(postService.getPostsByType(type));
+        }
+        return toPageResponse(type, null, null, null, cursor, limit);
     }
 
     @GetMapping("/status/{status}")
-    public List<SellExchangePost> getPostsByStatus(@PathVariable PostStatusType status) {
-        return postService.getPostsByStatus(status);
+    public ResponseEntity<List<SellExchangePost>> getPostsByStatus(
+            @PathVariable PostStatusType status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(postService.getPostsByStatus(status));
+        }
+        return toPageResponse(null, status, null, null, cursor, limit);
     }
 
     @GetMapping("/states/{state}")
-    public List<SellExchangePost> getPostsByStatus(@PathVariable PostStateType state) {
-        return postService.getPostsByState(state);
+    public ResponseEntity<List<SellExchangePost>> getPostsByStatus(
+            @PathVariable PostStateType state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(postService.getPostsByState(state));
+        }
+        return toPageResponse(null, null, state, null, cursor, limit);
     }
 
 
     @GetMapping("/category/{categoryId}")
-    public List<SellExchangePost> getPostsByCategoryId(@PathVariable String categoryId) {
-        return postService.getPostsByCategoryId(categoryId);
+    public ResponseEntity<List<SellExchangePost>> getPostsByCategoryId(
+            @PathVariable String categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(postService.getPostsByCategoryId(categoryId));
+        }
+        return toPageResponse(null, null, null, categoryId, cursor, limit);
+    }
+
+    private ResponseEntity<List<SellExchangePost>> toPageResponse(PostType type, PostStatusType status,
+                                                                  PostStateType state, String categoryId,
+                                                                  String cursor, Integer limit) {
+        return CursorResponses.respond(
+                () -> postService.getPostsPage(type, status, state, categoryId, cursor, limit));
     }
 
 }
\ No newline at end of file
@@ -1,26 +1,74 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.TransactionTransitionDTO;
+import com.example.demo.dto.TransitionResultDTO;
+import com.example.demo.enumpack.TransactionStatus;
 import com.example.demo.model.Transaction;
+import com.example.demo.service.TransactionStateService;
 import com.example.demo.service.TransactionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
 public class TransactionController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
     private final TransactionService transactionService;
+    private final TransactionStateService transactionStateService;
 
+    // Mua bài đăng: 409 nếu bài đã được người khác giữ/bán. Client nên gửi Idempotency-Key để bấm lại hoặc
+    // retry không tạo thêm giao dịch
     @PostMapping("/create")
     public ResponseEntity<Transaction> createTransaction(
             @RequestParam String postId,
             @RequestParam String userId,
-            @RequestParam String type) {
-        Transaction transaction = transactionService.createTransaction(postId, userId, type);
+            @RequestParam String type,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        Transaction transaction = transactionService.createTransaction(postId, userId, type, idempotencyKey);
         return ResponseEntity.ok(transaction);
     }
 
+    // Hoàn tất giao dịch và ghi sổ cái ví cho người bán/người mua; gọi lại nhiều lần vẫn chỉ ghi một lần
+    @PostMapping("/{transactionId}/complete")
+    public ResponseEntity<Transaction> completeTransaction(@PathVariable String transactionId) {
+        return ResponseEntity.ok(transactionService.completeTransaction(transactionId));
+    }
+
+    // Chuyển một giao dịch (và bài đăng của nó) sang bước tiếp theo, ví dụ ?status=SellerSent; 409 nếu không hợp lệ
+    @PatchMapping("/{transactionId}/status")
+    public ResponseEntity<Transaction> changeStatus(@PathVariable String transactionId, @RequestParam String status) {
+        return ResponseEntity.ok(transactionService.changeStatus(transactionId, parseStatus(status)));
+    }
+
+    // Xác nhận giao nhận cho nhiều giao dịch cùng lúc (quản lý kho). Giao dịch không hợp lệ được trả trong errors,
+    // các giao dịch còn lại vẫn được chuyển
+    @PostMapping("/status/bulk")
+    public ResponseEntity<TransitionResultDTO> changeStatuses(@RequestBody TransactionTransitionDTO request) {
+        try {
+            return ResponseEntity.ok(transactionStateService.transition(request.getTransactionIds(),
+                    parseStatus(request.getStatus())));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static TransactionStatus parseStatus(String status) {
+        TransactionStatus parsed = TransactionStatus.fromString(status);
+        if (parsed == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown transaction status: " + status);
+        }
+        return parsed;
+    }
 
 }
\ No newline at end of file
@@ -1,18 +1,24 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.RecommendationDTO;
 import com.example.demo.dto.UserDTO;
+import com.example.demo.dto.WalletDTO;
+import com.example.demo.dto.WalletEntryDTO;
 import com.example.demo.enumpack.UserStatus;
 import com.example.demo.model.Role;
 import com.example.demo.model.SellExchangePost;
 import com.example.demo.model.Transaction;
 import com.example.demo.model.UserAccount;
 import com.example.demo.repository.RoleRepository;
+import com.example.demo.service.RecommendationService;
 import com.example.demo.service.TransactionService;
 import com.example.demo.service.UserService;
+import com.example.demo.service.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +39,12 @@ public class UserController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
     // Lấy danh sách tất cả users
     @GetMapping
     public List<UserAccount> getAllUsers() {
@@ -54,6 +66,33 @@ public class UserController {
         return ResponseEntity.ok(transactions);
     }
 
+    // Số dư ví tính từ sổ cái (snapshot + các dòng mới hơn)
+    @GetMapping("/{id}/wallet")
+    public WalletDTO getWallet(@PathVariable String id) {
+        return walletService.getWallet(id);
+    }
+
+    // Các dòng sổ cái mới nhất của user
+    @GetMapping("/{id}/wallet/entries")
+    public List<WalletEntryDTO> getWalletEntries(@PathVariable String id, @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return walletService.getEntries(id, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Bài đăng gợi ý theo danh mục user từng mua và danh mục hay được mua cùng
+    @GetMapping("/{id}/recommendations")
+    public List<RecommendationDTO> getRecommendations(@PathVariable String id,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return recommendationService.recommend(id, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     // Tạo user mới
     @PostMapping
     public ResponseEntity<UserAccount> createUser(@RequestBody UserDTO userDTO) {
@@ -18,6 +18,7 @@ public class ActivityDTO {
     private String activityType; // "Donation" or "Fundraiser"
     private LocalDateTime startDate;
     private LocalDateTime endDate;
+    private LocalDateTime closedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<ActivityPostDTO> items; // For related items
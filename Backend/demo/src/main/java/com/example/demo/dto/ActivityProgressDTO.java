@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Tiến độ gây quỹ được đẩy qua SSE (GET /api/activities/{id}/events)
+@Data
+@AllArgsConstructor
+public class ActivityProgressDTO {
+    private String activityId;
+    private BigDecimal amountRaised;
+    private BigDecimal goalAmount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import com.example.demo.enumpack.ActivityType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Dữ liệu rút gọn cho danh sách hoạt động
+@Data
+@AllArgsConstructor
+public class ActivitySummaryDTO {
+    private String activityId;
+    private String title;
+    private BigDecimal goalAmount;
+    private BigDecimal amountRaised;
+    private String image;
+    // Ảnh thu nhỏ cho danh sách (ảnh gốc nếu chưa sinh xong)
+    private String thumbnailUrl;
+    private ActivityType activityType;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private String organizerId;
+    private String organizerName;
+    private int postCount;
+}
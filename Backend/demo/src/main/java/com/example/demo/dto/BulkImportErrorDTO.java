@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkImportErrorDTO {
+    private int row; // vị trí dòng trong request, bắt đầu từ 0
+    private String message;
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkImportResultDTO {
+    private int received;
+    private int imported;
+    private List<String> ids; // id của các dòng đã import, theo thứ tự trong request
+    private List<BulkImportErrorDTO> errors; // các dòng bị bỏ qua và lý do
+}
@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class DonationDTO {
+    private BigDecimal amount; // số tiền quyên góp, > 0 và tối đa 2 chữ số thập phân
+}
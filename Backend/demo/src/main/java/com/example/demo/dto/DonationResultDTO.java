@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class DonationResultDTO {
+    private String activityId;
+    private BigDecimal amount;
+    private BigDecimal amountRaised; // tổng sau khi cộng, null khi khoản này còn chờ ghi xuống database
+    private boolean pending;
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Một kích thước ảnh thu nhỏ, dùng để dựng srcset ở client
+@Data
+@AllArgsConstructor
+public class ImageVariantDTO {
+    private int width;
+    private int height;
+    private String url;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Dữ liệu rút gọn cho danh sách item
+@Data
+@AllArgsConstructor
+public class ItemSummaryDTO {
+    private String itemId;
+    private String itemName;
+    private String imageUrl;
+    // Ảnh thu nhỏ cho danh sách (ảnh gốc nếu chưa sinh xong)
+    private String thumbnailUrl;
+    private String ownerId;
+    private String ownerName;
+    private String categoryId;
+    private String categoryName;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,43 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.SellExchangePost;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Keyset cursor (created_at, post_id) của bài đăng cuối cùng trong trang trước
+@Data
+@AllArgsConstructor
+public class PostCursor {
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime createdAt;
+    private String postId;
+
+    public static PostCursor of(SellExchangePost post) {
+        return new PostCursor(post.getCreatedAt(), post.getPostId());
+    }
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt.toString() : "") + SEPARATOR + postId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            if (idx < 0 || idx == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            String createdAt = raw.substring(0, idx);
+            return new PostCursor(createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt), raw.substring(idx + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Các filter của GET /api/posts/query; trường nào null thì bỏ qua
+@Data
+public class PostQueryFilter {
+    private PostType type;
+    private PostStatusType status;
+    private PostStateType state;
+    private String categoryId;
+    private String sellerId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
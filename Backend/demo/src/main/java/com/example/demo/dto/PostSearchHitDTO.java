@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class PostSearchHitDTO {
+    private String postId;
+    private String title;
+    private BigDecimal price;
+    private String type;
+    private String status;
+    private String categoryId;
+    private String categoryName;
+    private String sellerName;
+    private String thumbnailUrl;
+    private Float score; // null khi không có từ khóa (sắp xếp theo ngày tạo)
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class PostSearchResultDTO {
+    private long total;
+    private List<PostSearchHitDTO> hits;
+    // facet -> (giá trị -> số bài), vd. {"type": {"Liquidation": 12}, "category": {"Books": 5}}
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Trạng thái bài đăng được đẩy qua SSE (GET /api/posts/{id}/events)
+@Data
+@AllArgsConstructor
+public class PostStatusDTO {
+    private String postId;
+    private PostType type;
+    private PostStatusType status;
+    private PostStateType state;
+    private BigDecimal price;
+    private LocalDateTime updatedAt;
+}
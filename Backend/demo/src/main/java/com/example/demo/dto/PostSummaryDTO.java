@@ -0,0 +1,30 @@
+package com.example.demo.dto;
+
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Dữ liệu rút gọn cho danh sách bài đăng, được lấy bằng một câu JOIN duy nhất
+@Data
+@AllArgsConstructor
+public class PostSummaryDTO {
+    private String postId;
+    private String title;
+    private BigDecimal price;
+    private PostType type;
+    private PostStatusType status;
+    private PostStateType state;
+    private String productType;
+    private LocalDateTime createdAt;
+    private String sellerId;
+    private String sellerName;
+    private String sellerAvatar;
+    private String categoryId;
+    private String categoryName;
+    private String thumbnailUrl;
+}
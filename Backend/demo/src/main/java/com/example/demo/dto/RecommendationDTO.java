@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Một bài đăng được gợi ý, kèm điểm của RecommendationModel (chỉ dùng để so sánh trong cùng một danh sách)
+@Data
+@AllArgsConstructor
+public class RecommendationDTO {
+    private PostSummaryDTO post;
+    private float score;
+}
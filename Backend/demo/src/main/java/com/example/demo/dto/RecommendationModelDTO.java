@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Kích thước và thời điểm dựng của mô hình gợi ý đang dùng
+@Data
+@AllArgsConstructor
+public class RecommendationModelDTO {
+    private int users;
+    private int categories;
+    private int candidates;
+    private LocalDateTime builtAt;
+    private long buildMillis;
+}
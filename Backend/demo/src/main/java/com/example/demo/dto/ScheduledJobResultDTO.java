@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Kết quả một lượt chạy job: ran = false khi node khác đang giữ lease
+@Data
+@AllArgsConstructor
+public class ScheduledJobResultDTO {
+    private String job;
+    private boolean ran;
+    private int rows;
+    private long durationMillis;
+}
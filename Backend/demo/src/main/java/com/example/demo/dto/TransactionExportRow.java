@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import com.example.demo.enumpack.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Một dòng export giao dịch: chỉ các cột phẳng cần cho báo cáo, không load entity post/activity/item/user
+@Data
+@AllArgsConstructor
+public class TransactionExportRow {
+    private String transactionId;
+    private String type;
+    private TransactionStatus status;
+    private LocalDateTime createdAt;
+    private String userId;
+    private String userName;
+    private String userEmail;
+    private String postId;
+    private String postTitle;
+    private BigDecimal postPrice;
+    private String activityId;
+    private String activityTitle;
+    private String itemId;
+    private String itemName;
+}
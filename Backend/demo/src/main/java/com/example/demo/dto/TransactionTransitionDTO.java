@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Body của POST /api/transactions/status/bulk
+@Data
+public class TransactionTransitionDTO {
+    private List<String> transactionIds;
+    private String status;
+}
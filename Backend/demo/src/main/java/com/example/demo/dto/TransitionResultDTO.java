@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import com.example.demo.enumpack.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TransitionResultDTO {
+    private TransactionStatus status;
+    private List<String> transitioned; // đã chuyển sang status trong lần gọi này
+    private List<String> unchanged; // đã ở sẵn status đó (gọi lại không sao)
+    private List<TransitionErrorDTO> errors; // không tồn tại hoặc không được phép chuyển
+}
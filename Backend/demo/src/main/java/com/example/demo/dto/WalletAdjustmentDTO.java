@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// Admin cộng/trừ ví (amount âm là trừ)
+@Data
+public class WalletAdjustmentDTO {
+    private BigDecimal amount;
+    private String note;
+}
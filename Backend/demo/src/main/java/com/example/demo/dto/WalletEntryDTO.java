@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.example.demo.enumpack.WalletEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class WalletEntryDTO {
+    private Long entryId;
+    private BigDecimal amount;
+    private WalletEntryType entryType;
+    private String transactionId;
+    private String note;
+    private LocalDateTime createdAt;
+}
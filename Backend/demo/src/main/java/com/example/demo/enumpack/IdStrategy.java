@@ -0,0 +1,20 @@
+package com.example.demo.enumpack;
+
+// Cách sinh khóa chính dạng chuỗi cho các entity (IdGenerator)
+public enum IdStrategy {
+    // UUID v4 ngẫu nhiên như trước: chèn rải khắp clustered index
+    Random,
+    // UUID v7 (RFC 9562): 48 bit thời gian ms ở đầu nên chuỗi tăng dần theo thời gian, vẫn 36 ký tự
+    Uuid7,
+    // 64 bit kiểu Snowflake (thời gian | node | bộ đếm), mã hóa Crockford base32 độ dài cố định 13 ký tự
+    Snowflake;
+
+    public static IdStrategy fromString(String strategy) {
+        for (IdStrategy value : values()) {
+            if (value.name().equalsIgnoreCase(strategy)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.enumpack;
+
+public enum ImageOwnerType {
+    Item, Activity;
+    public static ImageOwnerType fromString(String type) {
+        try {
+            return ImageOwnerType.valueOf(type);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.enumpack;
 
 public enum PostStatusType {
-    Pending, Approved, Rejected, Completed;
+    Pending, Approved, Rejected, Completed,
+    // Chờ duyệt quá posts.stale-after-days, do ScheduledJobService đánh dấu
+    Expired;
 
     public static PostStatusType fromString(String state) {
         try {
@@ -0,0 +1,39 @@
+package com.example.demo.enumpack;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Vòng đời của một giao dịch. Các bước giao nhận trùng tên với PostStateType của bài đăng tương ứng
+public enum TransactionStatus {
+    Pending, SellerSent, BuyerSent, BothSent, SellerReceived, BuyerReceived, Completed, Cancelled;
+
+    // Không phân biệt hoa thường: dữ liệu cũ có cả "Pending" lẫn "PENDING"
+    public static TransactionStatus fromString(String status) {
+        for (TransactionStatus value : values()) {
+            if (value.name().equalsIgnoreCase(status)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    // Các trạng thái được phép chuyển tới. Pending -> Completed cho giao dịch thanh lý không cần giao nhận qua kho
+    public Set<TransactionStatus> next() {
+        return switch (this) {
+            case Pending -> EnumSet.of(SellerSent, BuyerSent, Completed, Cancelled);
+            case SellerSent, BuyerSent -> EnumSet.of(BothSent, Cancelled);
+            case BothSent -> EnumSet.of(SellerReceived, BuyerReceived, Completed);
+            case SellerReceived, BuyerReceived -> EnumSet.of(Completed);
+            case Completed, Cancelled -> EnumSet.noneOf(TransactionStatus.class);
+        };
+    }
+
+    public boolean canMoveTo(TransactionStatus target) {
+        return next().contains(target);
+    }
+
+    // Giao dịch bị hủy thì bài đăng quay lại Pending
+    public PostStateType toPostState() {
+        return this == Cancelled ? PostStateType.Pending : PostStateType.valueOf(name());
+    }
+}
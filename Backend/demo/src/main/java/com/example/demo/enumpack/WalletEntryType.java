@@ -0,0 +1,8 @@
+package com.example.demo.enumpack;
+
+public enum WalletEntryType {
+    Opening,    // số dư có sẵn khi tạo tài khoản / chuyển sang sổ cái
+    Sale,       // người bán nhận tiền khi giao dịch hoàn tất
+    Purchase,   // người mua trả tiền khi giao dịch hoàn tất
+    Adjustment  // admin điều chỉnh
+}
@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Phát ra sau khi thông tin hoặc số tiền đã quyên góp của một hoạt động thay đổi
+@Data
+@AllArgsConstructor
+public class ActivityChangedEvent {
+    private String activityId;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.event;
+
+import com.example.demo.enumpack.ImageOwnerType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Phát ra khi item/hoạt động được tạo hoặc đổi ảnh; ImageThumbnailService sinh ảnh thu nhỏ sau commit
+@Data
+@AllArgsConstructor
+public class ImageChangedEvent {
+    private ImageOwnerType ownerType;
+    private String ownerId;
+    private String sourceUrl;
+}
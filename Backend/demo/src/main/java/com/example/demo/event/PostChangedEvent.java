@@ -0,0 +1,15 @@
+package com.example.demo.event;
+
+import com.example.demo.model.SellExchangePost;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Phát ra sau khi một bài đăng được tạo/cập nhật/xóa (sau commit nếu có transaction)
+@Data
+@AllArgsConstructor
+public class PostChangedEvent {
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    private SellExchangePost post;
+    private ChangeType changeType;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.event;
+
+import com.example.demo.model.SellExchangePost;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Phát ra một lần cho cả lô bài đăng import qua /api/posts/bulk, thay vì một PostChangedEvent cho mỗi bài
+@Data
+@AllArgsConstructor
+public class PostsImportedEvent {
+    private List<SellExchangePost> posts;
+}
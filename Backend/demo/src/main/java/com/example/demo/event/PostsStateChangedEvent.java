@@ -0,0 +1,13 @@
+package com.example.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Phát ra một lần sau khi trạng thái giao nhận của cả lô bài đăng được cập nhật bằng một câu UPDATE
+@Data
+@AllArgsConstructor
+public class PostsStateChangedEvent {
+    private List<String> postIds;
+}
@@ -1,22 +1,34 @@
 package com.example.demo.model;
 
 import com.example.demo.enumpack.ActivityType;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "Activities")
+@Table(name = "Activities", indexes = {
+        @Index(name = "idx_activities_closed_end", columnList = "closed_at, end_date"),
+        @Index(name = "idx_activities_end", columnList = "end_date")
+})
 @Data
+// Chỉ ghi các cột thay đổi: sửa tiêu đề/mô tả không ghi đè amount_raised đã được DonationService cộng dồn
+@DynamicUpdate
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Activity {
     @Id
+    @TimeOrderedId
     @Column(name = "activity_id", length = 36)
     private String activityId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "organizer_id", nullable = false)
     private UserAccount organizer;
 
@@ -35,6 +47,10 @@ public class Activity {
     @Column(name = "image", nullable = false)
     private String image;
 
+    // Ảnh thu nhỏ cho trang danh sách, do ImageThumbnailService ghi sau khi tạo/đổi ảnh; null khi chưa xử lý xong
+    @Column(name = "thumbnail_url", length = 512)
+    private String thumbnailUrl;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "activity_type", nullable = false)
     private ActivityType activityType;
@@ -45,13 +61,26 @@ public class Activity {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime endDate;
 
+    // Do job close-ended-activities ghi khi đã qua endDate; hoạt động đã đóng không nhận thêm quyên góp
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Tăng mỗi lần sửa qua entity (không tăng khi DonationService cộng amount_raised), dùng cho ETag
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // LAZY: danh sách dùng ActivityRepository.fetchPostsFor, chi tiết dùng findWithPostsByActivityId
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @JoinTable(
             name = "Activity_Post",
             joinColumns = @JoinColumn(name = "activity_id"),
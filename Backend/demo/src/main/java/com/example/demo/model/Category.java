@@ -1,4 +1,5 @@
 package com.example.demo.model;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -8,10 +9,12 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "categories")
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Access(AccessType.FIELD) // Enforce field-based access to avoid getter/setter inference
 public class Category {
 
     @Id
+    @TimeOrderedId
     @Column(name = "category_id", length = 36)
     private String categoryId;
 
@@ -27,6 +30,11 @@ public class Category {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Tăng mỗi lần cập nhật, dùng cho ETag của GET /api/categories
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Getters and setters
 
 
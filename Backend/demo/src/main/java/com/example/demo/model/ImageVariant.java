@@ -0,0 +1,43 @@
+package com.example.demo.model;
+
+import com.example.demo.enumpack.ImageOwnerType;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Một kích thước thu nhỏ của ảnh item/hoạt động, khóa theo (loại, id, chiều rộng)
+@Entity
+@Table(name = "image_variants")
+@IdClass(ImageVariantId.class)
+@Data
+public class ImageVariant {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "owner_type", length = 20)
+    private ImageOwnerType ownerType;
+
+    @Id
+    @Column(name = "owner_id", length = 36)
+    private String ownerId;
+
+    @Id
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height", nullable = false)
+    private int height;
+
+    @Column(name = "bytes", nullable = false)
+    private int bytes;
+
+    @Column(name = "url", nullable = false, length = 512)
+    private String url;
+
+    // Ảnh gốc lúc sinh variant, để bỏ qua kết quả cũ nếu ảnh đã bị đổi trong lúc xử lý
+    @Column(name = "source_url", nullable = false, length = 512)
+    private String sourceUrl;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.model;
+
+import com.example.demo.enumpack.ImageOwnerType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariantId implements Serializable {
+    private ImageOwnerType ownerType;
+    private String ownerId;
+    private Integer width;
+}
@@ -1,6 +1,7 @@
 package com.example.demo.model;
 
 import jakarta.persistence.Entity;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -9,10 +10,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        @Index(name = "idx_items_category", columnList = "category_id"),
+        @Index(name = "idx_items_created", columnList = "created_at"),
+        @Index(name = "idx_items_owner", columnList = "owner_id")
+})
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Item {
     @Id
+    @TimeOrderedId
     @Column(name = "item_id", length = 36)
     private String itemId;
 
@@ -25,6 +32,10 @@ public class Item {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Ảnh thu nhỏ cho trang danh sách, do ImageThumbnailService ghi sau khi tạo/đổi ảnh; null khi chưa xử lý xong
+    @Column(name = "thumbnail_url", length = 512)
+    private String thumbnailUrl;
+
     @ManyToOne
     @JoinColumn(name = "owner_id")
     private UserAccount owner;
@@ -36,6 +47,11 @@ public class Item {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Tăng mỗi lần cập nhật, dùng cho ETag của GET /api/items/{id}
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 
     // Getters and setter
 }
@@ -3,6 +3,8 @@ package com.example.demo.model;
 import com.example.demo.enumpack.PostStateType;
 import com.example.demo.enumpack.PostStatusType;
 import com.example.demo.enumpack.PostType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -10,10 +12,22 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "Sell_Exchange_Posts")
+// Index được tạo bởi Flyway (db/migration/V2, V3), khai báo ở đây để đồng bộ với entity
+@Table(name = "Sell_Exchange_Posts", indexes = {
+        @Index(name = "idx_posts_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_posts_state_created", columnList = "state, created_at"),
+        @Index(name = "idx_posts_type_created", columnList = "type, created_at"),
+        @Index(name = "idx_posts_created", columnList = "created_at"),
+        @Index(name = "idx_posts_seller_created", columnList = "seller_id, created_at"),
+        @Index(name = "idx_posts_price", columnList = "price"),
+        @Index(name = "idx_posts_title", columnList = "title"),
+        @Index(name = "idx_posts_updated", columnList = "updated_at")
+})
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class SellExchangePost {
     @Id
+    @TimeOrderedId
     @Column(name = "post_id")
     private String postId;
 
@@ -54,4 +68,18 @@ public class SellExchangePost {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Giao dịch đang giữ bài đăng (TransactionService.createTransaction); không trả id giao dịch của người khác ra JSON
+    @JsonIgnore
+    @Column(name = "reserved_transaction_id", length = 36)
+    private String reservedTransactionId;
+
+    // Chỉ có tác dụng khi state còn Pending: quá thời điểm này thì người mua khác được đặt
+    @Column(name = "reserved_until")
+    private LocalDateTime reservedUntil;
+
+    // Tăng mỗi lần cập nhật, dùng cho ETag của GET /api/posts/{postId}
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
\ No newline at end of file
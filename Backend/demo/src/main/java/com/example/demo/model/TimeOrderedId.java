@@ -0,0 +1,16 @@
+package com.example.demo.model;
+
+import com.example.demo.config.TimeOrderedIdGenerator;
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Khóa chính chuỗi sinh bởi IdGenerator khi entity được persist mà chưa có id; id đã gán sẵn thì giữ nguyên
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -1,15 +1,23 @@
 package com.example.demo.model;
 
+import com.example.demo.enumpack.TransactionStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_transactions_created", columnList = "created_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transactions_user_idempotency", columnNames = {"user_id", "idempotency_key"})
+})
 @Data
 public class Transaction {
     @Id
+    @TimeOrderedId
     private String transactionId;
 
     @ManyToOne
@@ -29,9 +37,17 @@ public class Transaction {
     private UserAccount user;
 
     private String type;
-    private String status;
+
+    // Chỉ đổi qua TransactionStateService để kiểm tra bước chuyển hợp lệ
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Header Idempotency-Key của request tạo giao dịch
+    @JsonIgnore
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
 }
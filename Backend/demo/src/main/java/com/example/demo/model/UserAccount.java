@@ -1,6 +1,9 @@
 package com.example.demo.model;
 
 import com.example.demo.enumpack.UserStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
@@ -17,8 +20,10 @@ import java.util.stream.Collectors;
     @Entity
     @Table(name = "Users")
     @Data
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     public class UserAccount implements UserDetails, Serializable {
         @Id
+        @TimeOrderedId
         @Column(name = "user_id") // Explicitly map to user_id column
         private String userId;
 
@@ -28,6 +33,8 @@ import java.util.stream.Collectors;
         @Column(nullable = false, unique = true)
         private String email;
 
+        // Chỉ nhận khi ghi, không bao giờ trả password hash ra JSON
+        @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
         @Column(name = "password_hash", nullable = false)
         private String passwordHash;
 
@@ -37,7 +44,9 @@ import java.util.stream.Collectors;
         @Column(name = "violation_count", nullable = false)
         private int violationCount = 0;
 
-        @Column(name = "wallet_balance", nullable = false)
+        // Bản sao số dư do WalletService cập nhật từ sổ cái; JPA chỉ ghi khi tạo user để save() với entity cũ
+        // không ghi đè số dư mới hơn
+        @Column(name = "wallet_balance", nullable = false, updatable = false)
         private BigDecimal walletBalance = BigDecimal.ZERO;
 
         @Column(nullable = false)
@@ -112,6 +121,7 @@ import java.util.stream.Collectors;
         }
 
         @Override
+        @JsonIgnore
         public String getPassword() {
             return this.passwordHash;
         }
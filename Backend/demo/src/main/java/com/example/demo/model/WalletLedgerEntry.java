@@ -0,0 +1,42 @@
+package com.example.demo.model;
+
+import com.example.demo.enumpack.WalletEntryType;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Một dòng của sổ cái ví, chỉ thêm mới; amount dương là cộng, âm là trừ
+@Entity
+@Table(name = "wallet_ledger", indexes = {
+        @Index(name = "idx_wallet_ledger_user_entry", columnList = "user_id, entry_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_ledger_transaction", columnNames = {"transaction_id", "user_id", "entry_type"})
+})
+@Data
+public class WalletLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "entry_id")
+    private Long entryId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "amount", nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private WalletEntryType entryType;
+
+    @Column(name = "transaction_id", length = 36)
+    private String transactionId;
+
+    @Column(name = "note")
+    private String note;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
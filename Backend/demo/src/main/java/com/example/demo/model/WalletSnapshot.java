@@ -0,0 +1,33 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Số dư đã cộng dồn tới dòng sổ cái last_entry_id (bao gồm)
+@Entity
+@Table(name = "wallet_snapshots", indexes = {
+        @Index(name = "idx_wallet_snapshots_last_entry", columnList = "last_entry_id")
+})
+@Data
+public class WalletSnapshot {
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "balance", nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Hai lần cộng dồn chạy song song (nhiều instance) trên cùng user: lần sau bị optimistic lock và rollback
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
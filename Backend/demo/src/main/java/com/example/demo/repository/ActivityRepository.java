@@ -1,9 +1,125 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ActivityProgressDTO;
+import com.example.demo.dto.ActivitySummaryDTO;
 import com.example.demo.model.Activity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ActivityRepository extends JpaRepository<Activity, String> {
-}
\ No newline at end of file
+
+    String SUMMARY_SELECT =
+            "SELECT new com.example.demo.dto.ActivitySummaryDTO(" +
+            "a.activityId, a.title, a.goalAmount, a.amountRaised, a.image, COALESCE(a.thumbnailUrl, a.image), " +
+            "a.activityType, " +
+            "a.startDate, a.endDate, o.userId, o.name, SIZE(a.posts)) " +
+            "FROM Activity a JOIN a.organizer o ";
+    String SUMMARY_ORDER = "ORDER BY a.endDate DESC, a.activityId DESC";
+
+    // Keyset pagination theo (end_date DESC, activity_id DESC), Pageable chỉ để giới hạn số dòng
+    @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+    List<ActivitySummaryDTO> findSummaryFirstPage(Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+            "WHERE a.endDate < :endDate OR (a.endDate = :endDate AND a.activityId < :activityId) " + SUMMARY_ORDER)
+    List<ActivitySummaryDTO> findSummaryPageAfter(@Param("endDate") LocalDateTime endDate,
+                                                  @Param("activityId") String activityId,
+                                                  Pageable pageable);
+
+    // Trang chi tiết: lấy hoạt động cùng organizer và toàn bộ bài đăng trong một câu query
+    @EntityGraph(attributePaths = {"organizer", "posts", "posts.seller", "posts.item"})
+    Optional<Activity> findWithPostsByActivityId(String activityId);
+
+    // Trang danh sách, bước 1: hoạt động + organizer (không join posts để tránh tích Descartes)
+    @EntityGraph(attributePaths = {"organizer"})
+    @Query("SELECT a FROM Activity a")
+    List<Activity> findAllWithOrganizer();
+
+    // Trang danh sách, bước 2: nạp posts cho một lô hoạt động bằng IN (...)
+    @Query("SELECT DISTINCT a FROM Activity a " +
+            "LEFT JOIN FETCH a.posts p " +
+            "LEFT JOIN FETCH p.seller " +
+            "LEFT JOIN FETCH p.item " +
+            "WHERE a.activityId IN :activityIds")
+    List<Activity> fetchPostsFor(@Param("activityIds") Collection<String> activityIds);
+
+    // Cộng dồn ngay trong database (không đọc-sửa-ghi cả entity), nên các lượt cộng đồng thời không ghi đè nhau
+    // và khóa dòng chỉ giữ trong một câu UPDATE. Trả về số dòng cập nhật (0 khi không có hoạt động)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Activity a SET a.amountRaised = a.amountRaised + :delta, a.updatedAt = :now " +
+            "WHERE a.activityId = :activityId")
+    int incrementAmountRaised(@Param("activityId") String activityId,
+                              @Param("delta") BigDecimal delta,
+                              @Param("now") LocalDateTime now);
+
+    // [closedAt, endDate]; rỗng khi không có hoạt động
+    @Query("SELECT a.closedAt, a.endDate FROM Activity a WHERE a.activityId = :activityId")
+    List<Object[]> findOpenState(@Param("activityId") String activityId);
+
+    // Một chunk hoạt động đã qua endDate mà chưa đóng, sau khóa (afterEnd, afterId), theo idx_activities_closed_end.
+    // Trả về [activityId, endDate]
+    @Query("SELECT a.activityId, a.endDate FROM Activity a " +
+            "WHERE a.closedAt IS NULL AND a.endDate < :now " +
+            "AND (a.endDate > :afterEnd OR (a.endDate = :afterEnd AND a.activityId > :afterId)) " +
+            "ORDER BY a.endDate, a.activityId")
+    List<Object[]> findEndedChunk(@Param("now") LocalDateTime now,
+                                  @Param("afterEnd") LocalDateTime afterEnd,
+                                  @Param("afterId") String afterId,
+                                  Pageable page);
+
+    // Tăng version để ETag của hoạt động đổi theo
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Activity a SET a.closedAt = :now, a.updatedAt = :now, a.version = a.version + 1 " +
+            "WHERE a.activityId IN :activityIds AND a.closedAt IS NULL")
+    int close(@Param("activityIds") Collection<String> activityIds, @Param("now") LocalDateTime now);
+
+    // Như incrementAmountRaised nhưng bỏ qua hoạt động đã đóng hoặc đã qua endDate (0 dòng)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Activity a SET a.amountRaised = a.amountRaised + :delta, a.updatedAt = :now " +
+            "WHERE a.activityId = :activityId AND a.closedAt IS NULL AND a.endDate > :now")
+    int incrementAmountRaisedIfOpen(@Param("activityId") String activityId,
+                                    @Param("delta") BigDecimal delta,
+                                    @Param("now") LocalDateTime now);
+
+    @Query("SELECT a.amountRaised FROM Activity a WHERE a.activityId = :activityId")
+    Optional<BigDecimal> findAmountRaised(@Param("activityId") String activityId);
+
+    @Query("SELECT new com.example.demo.dto.ActivityProgressDTO(a.activityId, a.amountRaised, a.goalAmount, a.updatedAt) " +
+            "FROM Activity a WHERE a.activityId = :activityId")
+    Optional<ActivityProgressDTO> findProgress(@Param("activityId") String activityId);
+
+    // ETag của GET /api/activities/{id}: version và số tiền đã quyên góp (được cộng bằng UPDATE riêng, không tăng
+    // version), cùng số bài đăng và tổng version của bài đăng, item và category lồng trong posts (mỗi bài một item
+    // nên JOIN không nhân dòng)
+    @Query("SELECT CONCAT(CAST(a.version AS String), '.', CAST(a.amountRaised AS String), '.', " +
+            "CAST(COUNT(p) AS String), '.', CAST(COALESCE(SUM(p.version), 0) AS String), '.', " +
+            "CAST(COALESCE(SUM(i.version), 0) AS String), '.', CAST(COALESCE(SUM(c.version), 0) AS String)) " +
+            "FROM Activity a LEFT JOIN a.posts p LEFT JOIN p.item i LEFT JOIN i.category c " +
+            "WHERE a.activityId = :activityId " +
+            "GROUP BY a.activityId, a.version, a.amountRaised")
+    Optional<String> findVersionTag(@Param("activityId") String activityId);
+
+    // Tăng version để ETag của hoạt động đổi theo thumbnail; không ghi nếu ảnh gốc đã bị đổi trong lúc xử lý
+    @Transactional
+    @Modifying
+    @Query("UPDATE Activity a SET a.thumbnailUrl = :thumbnailUrl, a.version = a.version + 1 " +
+            "WHERE a.activityId = :activityId AND a.image = :sourceUrl")
+    int updateThumbnailUrl(@Param("activityId") String activityId,
+                           @Param("sourceUrl") String sourceUrl,
+                           @Param("thumbnailUrl") String thumbnailUrl);
+}
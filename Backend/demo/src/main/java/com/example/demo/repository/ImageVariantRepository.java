@@ -0,0 +1,24 @@
+package com.example.demo.repository;
+
+import com.example.demo.enumpack.ImageOwnerType;
+import com.example.demo.model.ImageVariant;
+import com.example.demo.model.ImageVariantId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, ImageVariantId> {
+
+    List<ImageVariant> findByOwnerTypeAndOwnerIdOrderByWidth(ImageOwnerType ownerType, String ownerId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageVariant v WHERE v.ownerType = :ownerType AND v.ownerId = :ownerId")
+    int deleteByOwner(@Param("ownerType") ImageOwnerType ownerType, @Param("ownerId") String ownerId);
+}
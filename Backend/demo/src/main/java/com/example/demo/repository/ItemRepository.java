@@ -1,6 +1,54 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ItemSummaryDTO;
 import com.example.demo.model.Item;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ItemRepository extends JpaRepository<Item, String> {}
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemRepository extends JpaRepository<Item, String> {
+
+    String SUMMARY_SELECT =
+            "SELECT new com.example.demo.dto.ItemSummaryDTO(" +
+            "i.itemId, i.itemName, i.imageUrl, COALESCE(i.thumbnailUrl, i.imageUrl), " +
+            "o.userId, o.name, c.categoryId, c.name, i.createdAt) " +
+            "FROM Item i LEFT JOIN i.owner o LEFT JOIN i.category c ";
+    String SUMMARY_ORDER = "ORDER BY i.createdAt DESC, i.itemId DESC";
+
+    // Keyset pagination theo (created_at DESC, item_id DESC), Pageable chỉ để giới hạn số dòng.
+    // Item cũ chưa có created_at nằm cuối danh sách, chỉ phân trang theo item_id
+    @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+    List<ItemSummaryDTO> findSummaryFirstPage(Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+            "WHERE i.createdAt < :createdAt " +
+            "OR (i.createdAt = :createdAt AND i.itemId < :itemId) " +
+            "OR i.createdAt IS NULL " + SUMMARY_ORDER)
+    List<ItemSummaryDTO> findSummaryPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                              @Param("itemId") String itemId,
+                                              Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE i.createdAt IS NULL AND i.itemId < :itemId " + SUMMARY_ORDER)
+    List<ItemSummaryDTO> findSummaryUndatedPageAfter(@Param("itemId") String itemId, Pageable pageable);
+
+    // ETag của GET /api/items/{id}: version của item và category
+    @Query("SELECT CONCAT(CAST(i.version AS String), '.', CAST(COALESCE(c.version, -1) AS String)) " +
+            "FROM Item i LEFT JOIN i.category c WHERE i.itemId = :itemId")
+    Optional<String> findVersionTag(@Param("itemId") String itemId);
+
+    // Tăng version để ETag của item đổi theo thumbnail; không ghi nếu ảnh gốc đã bị đổi trong lúc xử lý
+    @Transactional
+    @Modifying
+    @Query("UPDATE Item i SET i.thumbnailUrl = :thumbnailUrl, i.version = i.version + 1 " +
+            "WHERE i.itemId = :itemId AND i.imageUrl = :sourceUrl")
+    int updateThumbnailUrl(@Param("itemId") String itemId,
+                           @Param("sourceUrl") String sourceUrl,
+                           @Param("thumbnailUrl") String thumbnailUrl);
+}
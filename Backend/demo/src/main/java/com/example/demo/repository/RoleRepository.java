@@ -1,6 +1,8 @@
 package com.example.demo.repository;
 
+import com.example.demo.config.CacheConfig;
 import com.example.demo.model.Role;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,5 +10,7 @@ import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Integer> {
+    // Bảng Roles gần như không đổi, cache theo tên để tránh query mỗi lần gán role; tên chưa có thì không cache
+    @Cacheable(cacheNames = CacheConfig.ROLE_BY_NAME, key = "#p0", unless = "#result == null")
     Optional<Role> findByRoleName(String roleName);
 }
\ No newline at end of file
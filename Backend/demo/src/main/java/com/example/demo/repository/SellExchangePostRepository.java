@@ -1,18 +1,199 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.PostSummaryDTO;
 import com.example.demo.enumpack.PostStateType;
 import com.example.demo.enumpack.PostStatusType;
 import com.example.demo.enumpack.PostType;
 import com.example.demo.model.SellExchangePost;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SellExchangePostRepository extends JpaRepository<SellExchangePost, String> {
+public interface SellExchangePostRepository extends JpaRepository<SellExchangePost, String>,
+        JpaSpecificationExecutor<SellExchangePost> {
+    String OPTIONAL_FILTERS =
+            "(:type IS NULL OR p.type = :type) " +
+            "AND (:status IS NULL OR p.status = :status) " +
+            "AND (:state IS NULL OR p.state = :state) " +
+            "AND (:categoryId IS NULL OR p.item.category.categoryId = :categoryId) ";
+    String AFTER_CURSOR =
+            "AND (p.createdAt < :createdAt " +
+            "  OR (p.createdAt = :createdAt AND p.postId < :postId) " +
+            "  OR p.createdAt IS NULL) ";
+    String UNDATED_AFTER_CURSOR = "AND p.createdAt IS NULL AND p.postId < :postId ";
+    String KEYSET_ORDER = "ORDER BY p.createdAt DESC, p.postId DESC";
+
+    String SUMMARY_SELECT =
+            "SELECT new com.example.demo.dto.PostSummaryDTO(" +
+            "p.postId, p.title, p.price, p.type, p.status, p.state, p.productType, p.createdAt, " +
+            "s.userId, s.name, s.avatar, c.categoryId, c.name, COALESCE(i.thumbnailUrl, i.imageUrl)) " +
+            "FROM SellExchangePost p JOIN p.seller s JOIN p.item i LEFT JOIN i.category c ";
+
+    // Bỏ qua bài đang được giữ chỗ (cùng điều kiện với reserve): gợi ý chúng thì người dùng mua sẽ nhận 409
+    @Query(SUMMARY_SELECT + "WHERE p.postId IN :postIds AND (p.reservedUntil IS NULL OR p.reservedUntil < :now)")
+    List<PostSummaryDTO> findUnreservedSummariesByIds(@Param("postIds") Collection<String> postIds,
+                                                      @Param("now") LocalDateTime now);
+
+    // Bài có thể gợi ý (đã duyệt, chưa giao nhận): [postId, sellerId, categoryId, createdAt]
+    @Query("SELECT p.postId, p.seller.userId, c.categoryId, p.createdAt " +
+            "FROM SellExchangePost p JOIN p.item i LEFT JOIN i.category c " +
+            "WHERE p.status = com.example.demo.enumpack.PostStatusType.Approved " +
+            "AND p.state = com.example.demo.enumpack.PostStateType.Pending")
+    List<Object[]> findRecommendationCandidates();
+
+    // Dùng idx_posts_seller_created cho cả lọc lẫn sắp xếp
+    @Query("SELECT p FROM SellExchangePost p WHERE p.seller.userId = :sellerId ORDER BY p.createdAt DESC, p.postId DESC")
+    List<SellExchangePost> findBySellerId(@Param("sellerId") String sellerId);
+
     List<SellExchangePost> findByType(PostType type);
     List<SellExchangePost> findByStatus(PostStatusType status);
     List<SellExchangePost> findByState(PostStateType status);
-    List<SellExchangePost> findByItem_Category_CategoryId(String categoryId);
-}
\ No newline at end of file
+    // Lọc thẳng trên items.category_id (INNER JOIN) để dùng được idx_items_category;
+    // query sinh từ tên method LEFT JOIN sang categories nên phải quét cả bảng posts
+    @Query("SELECT p FROM SellExchangePost p WHERE p.item.category.categoryId = :categoryId")
+    List<SellExchangePost> findByItem_Category_CategoryId(@Param("categoryId") String categoryId);
+
+    // Keyset pagination theo (created_at DESC, post_id DESC); các filter null sẽ bị bỏ qua.
+    // Pageable chỉ dùng để giới hạn số dòng (LIMIT), không chạy câu COUNT.
+    @Query("SELECT p FROM SellExchangePost p WHERE " + OPTIONAL_FILTERS + KEYSET_ORDER)
+    List<SellExchangePost> findFirstPage(@Param("type") PostType type,
+                                         @Param("status") PostStatusType status,
+                                         @Param("state") PostStateType state,
+                                         @Param("categoryId") String categoryId,
+                                         Pageable pageable);
+
+    @Query("SELECT p FROM SellExchangePost p WHERE " + OPTIONAL_FILTERS + AFTER_CURSOR + KEYSET_ORDER)
+    List<SellExchangePost> findPageAfter(@Param("type") PostType type,
+                                         @Param("status") PostStatusType status,
+                                         @Param("state") PostStateType state,
+                                         @Param("categoryId") String categoryId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("postId") String postId,
+                                         Pageable pageable);
+
+    // Các bài cũ chưa có created_at nằm cuối danh sách, chỉ phân trang theo post_id
+    @Query("SELECT p FROM SellExchangePost p WHERE " + OPTIONAL_FILTERS + UNDATED_AFTER_CURSOR + KEYSET_ORDER)
+    List<SellExchangePost> findUndatedPageAfter(@Param("type") PostType type,
+                                                @Param("status") PostStatusType status,
+                                                @Param("state") PostStateType state,
+                                                @Param("categoryId") String categoryId,
+                                                @Param("postId") String postId,
+                                                Pageable pageable);
+
+    // Các biến thể projection: chỉ lấy đúng các cột cần cho trang danh sách trong một câu JOIN
+    @Query(SUMMARY_SELECT + "WHERE " + OPTIONAL_FILTERS + KEYSET_ORDER)
+    List<PostSummaryDTO> findSummaryFirstPage(@Param("type") PostType type,
+                                              @Param("status") PostStatusType status,
+                                              @Param("state") PostStateType state,
+                                              @Param("categoryId") String categoryId,
+                                              Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE " + OPTIONAL_FILTERS + AFTER_CURSOR + KEYSET_ORDER)
+    List<PostSummaryDTO> findSummaryPageAfter(@Param("type") PostType type,
+                                              @Param("status") PostStatusType status,
+                                              @Param("state") PostStateType state,
+                                              @Param("categoryId") String categoryId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("postId") String postId,
+                                              Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE " + OPTIONAL_FILTERS + UNDATED_AFTER_CURSOR + KEYSET_ORDER)
+    List<PostSummaryDTO> findSummaryUndatedPageAfter(@Param("type") PostType type,
+                                                     @Param("status") PostStatusType status,
+                                                     @Param("state") PostStateType state,
+                                                     @Param("categoryId") String categoryId,
+                                                     @Param("postId") String postId,
+                                                     Pageable pageable);
+
+    // GET /api/posts/query: seller, item và category được lấy cùng câu SELECT; câu COUNT không bị ảnh hưởng
+    @Override
+    @EntityGraph(attributePaths = {"seller", "item", "item.category"})
+    Page<SellExchangePost> findAll(Specification<SellExchangePost> spec, Pageable pageable);
+
+    // ETag của GET /api/posts/{postId}: version của bài đăng, item và category trong một lần tra theo khóa chính
+    @Query("SELECT CONCAT(CAST(p.version AS String), '.', CAST(i.version AS String), '.', " +
+            "CAST(COALESCE(c.version, -1) AS String)) " +
+            "FROM SellExchangePost p JOIN p.item i LEFT JOIN i.category c WHERE p.postId = :postId")
+    Optional<String> findVersionTag(@Param("postId") String postId);
+
+    @EntityGraph(attributePaths = {"seller", "item", "item.category"})
+    List<SellExchangePost> findByPostIdIn(Collection<String> postIds);
+
+    // Giữ bài đăng cho transactionId nếu còn mở: đã duyệt (không phải chờ duyệt, bị từ chối, hết hạn hay đã bán),
+    // chưa giao nhận và không có ai giữ (hoặc đã hết hạn).
+    // Chỉ khóa đúng dòng này; request đến sau chờ khóa rồi thấy điều kiện không còn đúng nên nhận 0
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SellExchangePost p SET p.reservedTransactionId = :transactionId, p.reservedUntil = :until, " +
+            "p.version = p.version + 1 " +
+            "WHERE p.postId = :postId " +
+            "AND p.status = com.example.demo.enumpack.PostStatusType.Approved " +
+            "AND p.state = com.example.demo.enumpack.PostStateType.Pending " +
+            "AND (p.reservedUntil IS NULL OR p.reservedUntil < :now)")
+    int reserve(@Param("postId") String postId,
+                @Param("transactionId") String transactionId,
+                @Param("until") LocalDateTime until,
+                @Param("now") LocalDateTime now);
+
+    // Giao dịch bị hủy: trả bài đăng về Pending và bỏ giữ chỗ, trừ khi bài đang được giao dịch khác giữ
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SellExchangePost p SET p.state = com.example.demo.enumpack.PostStateType.Pending, " +
+            "p.reservedTransactionId = NULL, p.reservedUntil = NULL, p.updatedAt = :now, p.version = p.version + 1 " +
+            "WHERE p.postId IN :postIds " +
+            "AND (p.reservedTransactionId IS NULL OR p.reservedTransactionId IN :transactionIds)")
+    int release(@Param("postIds") Collection<String> postIds,
+                @Param("transactionIds") Collection<String> transactionIds,
+                @Param("now") LocalDateTime now);
+
+    // Một chunk bài đăng chờ duyệt tạo trước cutoff (chưa có giao nhận), sau khóa (afterCreated, afterId), theo
+    // idx_posts_status_created. Trả về [postId, createdAt]
+    @Query("SELECT p.postId, p.createdAt FROM SellExchangePost p " +
+            "WHERE p.status = com.example.demo.enumpack.PostStatusType.Pending " +
+            "AND p.state = com.example.demo.enumpack.PostStateType.Pending " +
+            "AND p.createdAt < :cutoff " +
+            "AND (p.createdAt > :afterCreated OR (p.createdAt = :afterCreated AND p.postId > :afterId)) " +
+            "ORDER BY p.createdAt, p.postId")
+    List<Object[]> findStaleChunk(@Param("cutoff") LocalDateTime cutoff,
+                                  @Param("afterCreated") LocalDateTime afterCreated,
+                                  @Param("afterId") String afterId,
+                                  Pageable page);
+
+    // Bài chờ duyệt chưa có created_at, theo post_id sau afterId; idx_posts_status_created vẫn dùng được
+    // (status = 'Pending' AND created_at IS NULL là một khoảng của index)
+    @Query("SELECT p.postId FROM SellExchangePost p " +
+            "WHERE p.status = com.example.demo.enumpack.PostStatusType.Pending " +
+            "AND p.state = com.example.demo.enumpack.PostStateType.Pending " +
+            "AND p.createdAt IS NULL AND p.postId > :afterId " +
+            "ORDER BY p.postId")
+    List<String> findUndatedStaleChunk(@Param("afterId") String afterId, Pageable page);
+
+    // Điều kiện lặp lại để không ghi đè bài vừa được duyệt giữa lúc đọc chunk và lúc UPDATE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SellExchangePost p SET p.status = com.example.demo.enumpack.PostStatusType.Expired, " +
+            "p.updatedAt = :now, p.version = p.version + 1 " +
+            "WHERE p.postId IN :postIds " +
+            "AND p.status = com.example.demo.enumpack.PostStatusType.Pending " +
+            "AND p.state = com.example.demo.enumpack.PostStateType.Pending")
+    int expire(@Param("postIds") Collection<String> postIds, @Param("now") LocalDateTime now);
+
+    // Cập nhật trạng thái giao nhận của cả lô trong một câu; status null thì giữ nguyên. Tăng version để ETag đổi
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SellExchangePost p SET p.state = :state, p.status = COALESCE(:status, p.status), " +
+            "p.updatedAt = :now, p.version = p.version + 1 WHERE p.postId IN :postIds")
+    int updateState(@Param("postIds") Collection<String> postIds,
+                    @Param("state") PostStateType state,
+                    @Param("status") PostStatusType status,
+                    @Param("now") LocalDateTime now);
+}
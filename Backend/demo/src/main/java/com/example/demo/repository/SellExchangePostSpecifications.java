@@ -0,0 +1,51 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.PostQueryFilter;
+import com.example.demo.model.SellExchangePost;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SellExchangePostSpecifications {
+
+    private SellExchangePostSpecifications() {
+    }
+
+    // Ghép mọi filter khác null thành một mệnh đề WHERE; category/seller so sánh trên cột khóa ngoại
+    // (items.category_id, seller_id) nên không join thêm bảng categories/users
+    public static Specification<SellExchangePost> matching(PostQueryFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getType() != null) {
+                predicates.add(cb.equal(root.get("type"), filter.getType()));
+            }
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getState() != null) {
+                predicates.add(cb.equal(root.get("state"), filter.getState()));
+            }
+            if (filter.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("item").get("category").get("categoryId"), filter.getCategoryId()));
+            }
+            if (filter.getSellerId() != null) {
+                predicates.add(cb.equal(root.get("seller").get("userId"), filter.getSellerId()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getCreatedFrom()));
+            }
+            if (filter.getCreatedTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.getCreatedTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -1,9 +1,86 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.TransactionExportRow;
+import com.example.demo.enumpack.TransactionStatus;
 import com.example.demo.model.Transaction;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface TransactionRepository extends JpaRepository<Transaction, String> {
-    List<Transaction> findByUserUserId(String userId);
-}
\ No newline at end of file
+    // So sánh trực tiếp cột user_id (không LEFT JOIN sang users); idx_transactions_user_created phục vụ cả lọc và sắp xếp
+    @Query("SELECT t FROM Transaction t WHERE t.user.userId = :userId ORDER BY t.createdAt DESC")
+    List<Transaction> findByUserUserId(@Param("userId") String userId);
+
+    // [transactionId, status, postId] của cả lô, khóa các dòng tới hết transaction; t.post.postId đọc thẳng cột
+    // post_id nên không join sang bài đăng
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.transactionId, t.status, t.post.postId FROM Transaction t WHERE t.transactionId IN :ids")
+    List<Object[]> lockStatuses(@Param("ids") Collection<String> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = :status WHERE t.transactionId IN :ids")
+    int updateStatus(@Param("ids") Collection<String> ids, @Param("status") TransactionStatus status);
+
+    Optional<Transaction> findByUserUserIdAndIdempotencyKey(String userId, String idempotencyKey);
+
+    // Người gọi có phải người mua của giao dịch không (ResourceAccess)
+    boolean existsByTransactionIdAndUserEmail(String transactionId, String email);
+
+    // Người giữ chỗ trước đã hết hạn: hủy các giao dịch còn Pending của bài đăng trước khi tạo giao dịch mới
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = com.example.demo.enumpack.TransactionStatus.Cancelled " +
+            "WHERE t.post.postId = :postId AND t.status = com.example.demo.enumpack.TransactionStatus.Pending")
+    int cancelPendingForPost(@Param("postId") String postId);
+
+    // [transactionId, sellerId, buyerId, price, postType] để ghi sổ cái ví khi hoàn tất cả lô
+    @Query("SELECT t.transactionId, p.seller.userId, t.user.userId, p.price, p.type " +
+            "FROM Transaction t JOIN t.post p WHERE t.transactionId IN :ids")
+    List<Object[]> findSettlements(@Param("ids") Collection<String> ids);
+
+    // Lịch sử mua theo danh mục để dựng mô hình gợi ý: [userId, categoryId, createdAt], bỏ giao dịch đã hủy.
+    // Đọc dần như export, phải dùng trong transaction và đóng Stream sau khi đọc xong
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + TransactionRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.user.userId, c.categoryId, t.createdAt FROM Transaction t JOIN t.item i JOIN i.category c " +
+            "WHERE t.status IS NULL OR t.status <> com.example.demo.enumpack.TransactionStatus.Cancelled")
+    Stream<Object[]> streamPurchaseCategories();
+
+    // Đọc dần theo từng lô EXPORT_FETCH_SIZE dòng (MySQL cần useCursorFetch=true); phải dùng trong transaction
+    // và đóng Stream sau khi đọc xong. Filter null sẽ bị bỏ qua, "to" không bao gồm.
+    int EXPORT_FETCH_SIZE = 1000;
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.example.demo.dto.TransactionExportRow(" +
+            "t.transactionId, t.type, t.status, t.createdAt, u.userId, u.name, u.email, " +
+            "p.postId, p.title, p.price, a.activityId, a.title, i.itemId, i.itemName) " +
+            "FROM Transaction t LEFT JOIN t.user u LEFT JOIN t.post p LEFT JOIN t.activity a LEFT JOIN t.item i " +
+            "WHERE (:from IS NULL OR t.createdAt >= :from) " +
+            "AND (:to IS NULL OR t.createdAt < :to) " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "ORDER BY t.createdAt, t.transactionId")
+    Stream<TransactionExportRow> streamForExport(@Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to,
+                                                 @Param("status") TransactionStatus status);
+}
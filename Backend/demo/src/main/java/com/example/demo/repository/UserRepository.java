@@ -5,6 +5,9 @@ import com.example.demo.model.UserAccount;
 import com.example.demo.model.UserRole;
 import com.example.demo.model.UserRoleId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,6 +15,13 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<UserAccount, String> {
     Optional<UserAccount> findByEmail(String email);
+
+    // Kiểm tra quyền sở hữu (ResourceAccess): tra theo khóa chính, không load entity
+    boolean existsByUserIdAndEmail(String userId, String email);
+
+    @Modifying
+    @Query("UPDATE UserAccount u SET u.passwordHash = :passwordHash WHERE u.email = :email")
+    int updatePasswordHash(@Param("email") String email, @Param("passwordHash") String passwordHash);
 }
 
 
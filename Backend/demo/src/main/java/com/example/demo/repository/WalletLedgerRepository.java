@@ -0,0 +1,35 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.WalletLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WalletLedgerRepository extends JpaRepository<WalletLedgerEntry, Long> {
+
+    // Phần số dư chưa vào snapshot; đọc theo idx_wallet_ledger_user_entry nên chỉ chạm các dòng mới
+    @Query("SELECT COALESCE(SUM(l.amount), 0) FROM WalletLedgerEntry l " +
+            "WHERE l.userId = :userId AND l.entryId > :afterEntryId")
+    BigDecimal sumAfter(@Param("userId") String userId, @Param("afterEntryId") long afterEntryId);
+
+    // Tổng chênh lệch theo user trong khoảng (fromEntryId, toEntryId]: [userId, sum]
+    @Query("SELECT l.userId, SUM(l.amount) FROM WalletLedgerEntry l " +
+            "WHERE l.entryId > :fromEntryId AND l.entryId <= :toEntryId GROUP BY l.userId")
+    List<Object[]> sumByUserBetween(@Param("fromEntryId") long fromEntryId, @Param("toEntryId") long toEntryId);
+
+    @Query("SELECT MAX(l.entryId) FROM WalletLedgerEntry l")
+    Long findLatestEntryId();
+
+    // Dòng mới nhất tạo trước cutoff; đi ngược theo khóa chính nên chỉ đọc qua các dòng mới hơn cutoff
+    Optional<WalletLedgerEntry> findFirstByCreatedAtBeforeOrderByEntryIdDesc(LocalDateTime cutoff);
+
+    List<WalletLedgerEntry> findByUserIdOrderByEntryIdDesc(String userId, Pageable pageable);
+}
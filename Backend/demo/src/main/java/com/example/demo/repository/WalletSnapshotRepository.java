@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.WalletSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WalletSnapshotRepository extends JpaRepository<WalletSnapshot, String> {
+
+    // Mỗi lần cộng dồn đưa mọi user có thay đổi lên cùng last_entry_id, nên giá trị lớn nhất là mốc đã cộng tới
+    @Query("SELECT COALESCE(MAX(s.lastEntryId), 0) FROM WalletSnapshot s")
+    long findWatermark();
+}
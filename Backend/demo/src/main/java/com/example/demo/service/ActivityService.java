@@ -1,43 +1,100 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.ActivityDTO;
+import com.example.demo.dto.ActivitySummaryDTO;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.KeysetCursor;
 import com.example.demo.enumpack.ActivityType;
+import com.example.demo.enumpack.ImageOwnerType;
+import com.example.demo.event.ActivityChangedEvent;
+import com.example.demo.event.ImageChangedEvent;
 import com.example.demo.model.Activity;
 import com.example.demo.model.UserAccount;
 import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.ImageVariantRepository;
 import com.example.demo.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class ActivityService {
 
+    // Số hoạt động mỗi lần nạp posts bằng IN (...)
+    private static final int POST_FETCH_BATCH_SIZE = 50;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
     @Autowired
     private ActivityRepository activityRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
     public List<Activity> getAllActivities() {
-        return activityRepository.findAll();
+        List<Activity> activities = activityRepository.findAllWithOrganizer();
+        List<String> ids = activities.stream().map(Activity::getActivityId).toList();
+        // Các entity trả về trùng với danh sách trên trong persistence context,
+        // nên sau bước này posts của mọi hoạt động đã được khởi tạo
+        for (int from = 0; from < ids.size(); from += POST_FETCH_BATCH_SIZE) {
+            activityRepository.fetchPostsFor(new ArrayList<>(ids.subList(from, Math.min(from + POST_FETCH_BATCH_SIZE, ids.size()))));
+        }
+        return activities;
+    }
+
+    // Luôn phân trang (mặc định 50, tối đa 200 dòng); cursor là KeysetCursor (end_date, activity_id) của dòng cuối
+    public CursorPage<ActivitySummaryDTO> getActivitySummariesPage(String cursor, Integer limit) {
+        int pageSize = CursorPage.resolveLimit(limit);
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<ActivitySummaryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = activityRepository.findSummaryFirstPage(pageable);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            if (after.getAt() == null) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            rows = activityRepository.findSummaryPageAfter(after.getAt(), after.getId(), pageable);
+        }
+        return CursorPage.of(rows, pageSize,
+                summary -> new KeysetCursor(summary.getEndDate(), summary.getActivityId()).encode());
     }
 
+    public Optional<String> getActivityVersionTag(String id) {
+        return activityRepository.findVersionTag(id);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Activity> getActivityById(String id) {
-        return activityRepository.findById(id);
+        return activityRepository.findWithPostsByActivityId(id);
     }
 
     public Activity createActivity(ActivityDTO activityDTO) {
         Activity activity = new Activity();
-        activity.setActivityId(UUID.randomUUID().toString());
+        activity.setActivityId(idGenerator.next());
         activity.setTitle(activityDTO.getTitle());
         activity.setDescription(activityDTO.getDescription());
         activity.setGoalAmount(activityDTO.getGoalAmount());
@@ -53,7 +110,9 @@ public class ActivityService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Organizer not found"));
         activity.setOrganizer(organizer);
 
-        return activityRepository.save(activity);
+        Activity saved = activityRepository.save(activity);
+        publishImageChanged(saved);
+        return saved;
     }
 
     public Optional<Activity> updateActivity(String id, ActivityDTO activityDTO) {
@@ -61,19 +120,55 @@ public class ActivityService {
             existingActivity.setTitle(activityDTO.getTitle());
             existingActivity.setDescription(activityDTO.getDescription());
             existingActivity.setGoalAmount(activityDTO.getGoalAmount());
-            existingActivity.setAmountRaised(activityDTO.getAmountRaised());
+            // amountRaised do quyên góp cộng dồn, chỉ ghi đè khi client gửi giá trị mới
+            if (activityDTO.getAmountRaised() != null) {
+                existingActivity.setAmountRaised(activityDTO.getAmountRaised());
+            }
+            String previousImage = existingActivity.getImage();
             existingActivity.setImage(activityDTO.getImage());
             existingActivity.setActivityType(ActivityType.valueOf(activityDTO.getActivityType()));
             existingActivity.setEndDate(activityDTO.getEndDate());
+            // gia hạn hoạt động đã bị job đóng thì mở lại
+            if (activityDTO.getEndDate() != null && activityDTO.getEndDate().isAfter(LocalDateTime.now())) {
+                existingActivity.setClosedAt(null);
+            }
             existingActivity.setUpdatedAt(LocalDateTime.now());
-            return activityRepository.save(existingActivity);
+            return saveActivity(existingActivity, previousImage);
         });
     }
 
+    // Lưu thay đổi và báo cho các client đang theo dõi hoạt động (SSE)
+    public Activity saveActivity(Activity activity) {
+        Activity saved = activityRepository.save(activity);
+        eventPublisher.publishEvent(new ActivityChangedEvent(saved.getActivityId()));
+        return saved;
+    }
+
+    // Như saveActivity, và nếu ảnh khác previousImage thì bỏ thumbnail cũ (danh sách dùng ảnh gốc cho tới khi
+    // sinh xong) rồi sinh lại ảnh thu nhỏ
+    public Activity saveActivity(Activity activity, String previousImage) {
+        boolean imageChanged = !Objects.equals(previousImage, activity.getImage());
+        if (imageChanged) {
+            activity.setThumbnailUrl(null);
+        }
+        Activity saved = saveActivity(activity);
+        if (imageChanged) {
+            publishImageChanged(saved);
+        }
+        return saved;
+    }
+
+    private void publishImageChanged(Activity activity) {
+        if (activity.getImage() != null) {
+            eventPublisher.publishEvent(new ImageChangedEvent(ImageOwnerType.Activity, activity.getActivityId(), activity.getImage()));
+        }
+    }
+
     public boolean deleteActivity(String id) {
         Optional<Activity> existingActivity = activityRepository.findById(id);
         if (existingActivity.isPresent()) {
             activityRepository.deleteById(id);
+            imageVariantRepository.deleteByOwner(ImageOwnerType.Activity, id);
             return true;
         }
         return false;
@@ -84,7 +179,7 @@ public class ActivityService {
                 .orElseThrow(() -> new EntityNotFoundException("Seller not found with ID: " + dto.getOrganizerId()));
 
         Activity activity = new Activity();
-        activity.setActivityId(dto.getActivityId() != null ? dto.getActivityId() : UUID.randomUUID().toString());
+        activity.setActivityId(dto.getActivityId() != null ? dto.getActivityId() : idGenerator.next());
         activity.setOrganizer(organizer);
         activity.setTitle(dto.getTitle());
         activity.setDescription(dto.getDescription());
@@ -112,6 +207,7 @@ public class ActivityService {
         dto.setActivityType(activity.getActivityType().toString());
         dto.setStartDate(activity.getStartDate());
         dto.setEndDate(activity.getEndDate());
+        dto.setClosedAt(activity.getClosedAt());
         dto.setCreatedAt(activity.getCreatedAt());
         dto.setUpdatedAt(activity.getUpdatedAt());
         return dto;
@@ -0,0 +1,268 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BulkImportErrorDTO;
+import com.example.demo.dto.BulkImportResultDTO;
+import com.example.demo.dto.ItemDTO;
+import com.example.demo.dto.PostDTO;
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.event.PostsImportedEvent;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Import hàng loạt item/bài đăng cho các đợt quyên góp:
+// - user và category được tra một lần bằng IN (...) cho cả lô
+// - dòng không hợp lệ bị bỏ qua và báo lỗi theo vị trí, các dòng còn lại được ghi bằng JDBC batch insert
+//   trong cùng một transaction (lỗi database thì rollback cả lô)
+@Service
+public class BulkImportService {
+
+    public static final int MAX_ROWS = 20_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO items (item_id, item_name, description, image_url, owner_id, category_id, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_POST =
+            "INSERT INTO sell_exchange_posts (post_id, seller_id, item_id, title, price, description, type, " +
+            "product_type, status, state, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Đọc body là một JSON array hoặc NDJSON (mỗi dòng một object) theo kiểu streaming, dừng ngay khi vượt MAX_ROWS
+    public <T> List<T> readRows(InputStream body, Class<T> type) {
+        List<T> rows = new ArrayList<>();
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                rows.add(iterator.nextValue());
+                checkSize(rows);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed row " + rows.size() + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    @Transactional
+    public BulkImportResultDTO importItems(List<ItemDTO> rows) {
+        checkSize(rows);
+        Map<String, UserAccount> owners = loadUsers(rows.stream().map(ItemDTO::getOwner_id).collect(Collectors.toCollection(HashSet::new)));
+        Map<String, Category> categories = loadCategories(rows.stream().map(ItemDTO::getCategory_id).collect(Collectors.toCollection(HashSet::new)));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Item> items = new ArrayList<>();
+        List<BulkImportErrorDTO> errors = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ItemDTO row = rows.get(i);
+            String error = firstError(
+                    requireText("itemName", row.getItemName()),
+                    maxLength("description", row.getDescription()),
+                    maxLength("imageUrl", row.getImageUrl()),
+                    exists("owner_id", row.getOwner_id(), owners),
+                    exists("category_id", row.getCategory_id(), categories));
+            if (error != null) {
+                errors.add(new BulkImportErrorDTO(i, error));
+                continue;
+            }
+            items.add(newItem(row.getItemName(), row.getDescription(), row.getImageUrl(),
+                    owners.get(row.getOwner_id()), categories.get(row.getCategory_id()), now));
+        }
+
+        insertItems(items);
+        return new BulkImportResultDTO(rows.size(), items.size(),
+                items.stream().map(Item::getItemId).toList(), errors);
+    }
+
+    // Mỗi bài đăng kèm một item mới (giống SellExchangePostService.createPost), trạng thái ban đầu Pending
+    @Transactional
+    public BulkImportResultDTO importPosts(List<PostDTO> rows) {
+        checkSize(rows);
+        Map<String, UserAccount> sellers = loadUsers(rows.stream().map(PostDTO::getSellerId).collect(Collectors.toCollection(HashSet::new)));
+        Map<String, Category> categories = loadCategories(rows.stream().map(PostDTO::getCategoryId).collect(Collectors.toCollection(HashSet::new)));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<SellExchangePost> posts = new ArrayList<>();
+        List<BulkImportErrorDTO> errors = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            PostDTO row = rows.get(i);
+            PostType type = PostType.fromString(row.getType());
+            String error = firstError(
+                    requireText("title", row.getTitle()),
+                    requireText("description", row.getDescription()),
+                    maxLength("imageUrl", row.getImageUrl()),
+                    validPrice(row.getPrice()),
+                    type == null ? "type must be one of " + List.of(PostType.values()) : null,
+                    exists("sellerId", row.getSellerId(), sellers),
+                    exists("categoryId", row.getCategoryId(), categories));
+            if (error != null) {
+                errors.add(new BulkImportErrorDTO(i, error));
+                continue;
+            }
+            UserAccount seller = sellers.get(row.getSellerId());
+            Category category = categories.get(row.getCategoryId());
+
+            SellExchangePost post = new SellExchangePost();
+            post.setPostId(idGenerator.next());
+            post.setSeller(seller);
+            post.setItem(newItem(row.getTitle(), row.getDescription(), row.getImageUrl(), seller, category, now));
+            post.setTitle(row.getTitle());
+            post.setPrice(row.getPrice());
+            post.setDescription(row.getDescription());
+            post.setType(type);
+            post.setProductType(category.getName());
+            post.setStatus(PostStatusType.Pending);
+            post.setState(PostStateType.Pending);
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            posts.add(post);
+        }
+
+        insertItems(posts.stream().map(SellExchangePost::getItem).toList());
+        jdbcTemplate.batchUpdate(INSERT_POST, posts, BATCH_SIZE, (ps, post) -> {
+            ps.setString(1, post.getPostId());
+            ps.setString(2, post.getSeller().getUserId());
+            ps.setString(3, post.getItem().getItemId());
+            ps.setString(4, post.getTitle());
+            ps.setBigDecimal(5, post.getPrice());
+            ps.setString(6, post.getDescription());
+            ps.setString(7, post.getType().name());
+            ps.setString(8, post.getProductType());
+            ps.setString(9, post.getStatus().name());
+            ps.setString(10, post.getState().name());
+            ps.setTimestamp(11, Timestamp.valueOf(post.getCreatedAt()));
+            ps.setTimestamp(12, Timestamp.valueOf(post.getUpdatedAt()));
+        });
+
+        if (!posts.isEmpty()) {
+            eventPublisher.publishEvent(new PostsImportedEvent(posts));
+        }
+        return new BulkImportResultDTO(rows.size(), posts.size(),
+                posts.stream().map(SellExchangePost::getPostId).toList(), errors);
+    }
+
+    private void insertItems(List<Item> items) {
+        jdbcTemplate.batchUpdate(INSERT_ITEM, items, BATCH_SIZE, (ps, item) -> {
+            ps.setString(1, item.getItemId());
+            ps.setString(2, item.getItemName());
+            ps.setString(3, item.getDescription());
+            ps.setString(4, item.getImageUrl());
+            ps.setString(5, item.getOwner().getUserId());
+            ps.setString(6, item.getCategory().getCategoryId());
+            ps.setTimestamp(7, Timestamp.valueOf(item.getCreatedAt()));
+        });
+    }
+
+    private Item newItem(String name, String description, String imageUrl, UserAccount owner,
+                                Category category, LocalDateTime createdAt) {
+        Item item = new Item();
+        item.setItemId(idGenerator.next());
+        item.setItemName(name);
+        item.setDescription(description);
+        item.setImageUrl(imageUrl);
+        item.setOwner(owner);
+        item.setCategory(category);
+        item.setCreatedAt(createdAt);
+        return item;
+    }
+
+    private static void checkSize(List<?> rows) {
+        if (rows.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("At most " + MAX_ROWS + " rows per request, got " + rows.size());
+        }
+    }
+
+    private Map<String, UserAccount> loadUsers(Set<String> ids) {
+        ids.remove(null);
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(UserAccount::getUserId, Function.identity()));
+    }
+
+    private Map<String, Category> loadCategories(Set<String> ids) {
+        ids.remove(null);
+        return categoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Category::getCategoryId, Function.identity()));
+    }
+
+    private static String firstError(String... checks) {
+        for (String check : checks) {
+            if (check != null) {
+                return check;
+            }
+        }
+        return null;
+    }
+
+    private static String requireText(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return field + " is required";
+        }
+        return maxLength(field, value);
+    }
+
+    private static String maxLength(String field, String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH
+                ? field + " must be at most " + MAX_TEXT_LENGTH + " characters"
+                : null;
+    }
+
+    private static String validPrice(BigDecimal price) {
+        if (price == null || price.signum() < 0) {
+            return "price must be zero or positive";
+        }
+        // Cột price là decimal(10,2)
+        return price.precision() - price.scale() > 8 || price.scale() > 2 ? "price must fit decimal(10,2)" : null;
+    }
+
+    private static String exists(String field, String id, Map<String, ?> known) {
+        if (id == null || id.isBlank()) {
+            return field + " is required";
+        }
+        return known.containsKey(id) ? null : field + " not found: " + id;
+    }
+}
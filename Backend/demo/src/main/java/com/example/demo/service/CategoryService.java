@@ -1,35 +1,60 @@
 package com.example.demo.service;
 
+import com.example.demo.config.CacheConfig;
 import com.example.demo.model.Category;
 import com.example.demo.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class CategoryService {
+    @Autowired
+    private IdGenerator idGenerator;
+
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public Category createCategory(Category category) {
         if (categoryRepository.existsByName(category.getName())) {
             throw new IllegalArgumentException("Category with name " + category.getName() + " already exists");
         }
-        category.setCategoryId(UUID.randomUUID().toString());
+        category.setCategoryId(idGenerator.next());
         return categoryRepository.save(category);
     }
 
+    // #result là giá trị bên trong Optional: không cache "không tìm thấy", để danh mục vừa tạo (ở node khác,
+    // hoặc ngay sau lần tra hụt) không bị trả 404 tới khi entry hết hạn
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_BY_ID, key = "#categoryId", unless = "#result == null")
     public Optional<Category> getCategoryById(String categoryId) {
         return categoryRepository.findById(categoryId);
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES)
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
+    // ETag của danh sách: đổi khi thêm, xóa hoặc sửa bất kỳ danh mục nào
+    public String versionTag(List<Category> categories) {
+        int hash = 1;
+        for (Category category : categories) {
+            hash = 31 * hash + Objects.hash(category.getCategoryId(), category.getVersion());
+        }
+        return categories.size() + "-" + Integer.toHexString(hash);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_BY_ID, key = "#categoryId")
+    })
     public Category updateCategory(String categoryId, Category updatedCategory) {
         Optional<Category> existingCategory = categoryRepository.findById(categoryId);
         if (existingCategory.isEmpty()) {
@@ -39,10 +64,17 @@ public class CategoryService {
                 categoryRepository.existsByName(updatedCategory.getName())) {
             throw new IllegalArgumentException("Category with name " + updatedCategory.getName() + " already exists");
         }
-        updatedCategory.setCategoryId(categoryId);
-        return categoryRepository.save(updatedCategory);
+        // Sửa trên entity đã nạp để giữ version (và created_at) thay vì ghi đè bằng body của request
+        Category category = existingCategory.get();
+        category.setName(updatedCategory.getName());
+        category.setDescription(updatedCategory.getDescription());
+        return categoryRepository.save(category);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_BY_ID, key = "#categoryId")
+    })
     public void deleteCategory(String categoryId) {
         if (!categoryRepository.existsById(categoryId)) {
             throw new IllegalArgumentException("Category with ID " + categoryId + " not found");
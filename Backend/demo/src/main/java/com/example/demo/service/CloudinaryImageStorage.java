@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Mặc định: upload ảnh thu nhỏ lên cùng tài khoản Cloudinary với ảnh gốc
+@Component
+@ConditionalOnProperty(name = "images.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStorage implements ImageStorage {
+
+    private static final String FOLDER = "educycle/thumbnails/";
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryImageStorage(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    @Override
+    public String store(String key, byte[] content, String contentType) throws IOException {
+        Map<?, ?> result = cloudinary.uploader().upload(content, ObjectUtils.asMap(
+                "public_id", FOLDER + stripExtension(key),
+                "resource_type", "image",
+                "overwrite", true));
+        return (String) result.get("secure_url");
+    }
+
+    private static String stripExtension(String key) {
+        int dot = key.lastIndexOf('.');
+        return dot > key.lastIndexOf('/') ? key.substring(0, dot) : key;
+    }
+}
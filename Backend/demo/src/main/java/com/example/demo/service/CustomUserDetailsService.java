@@ -2,20 +2,16 @@ package com.example.demo.service;
 import com.example.demo.model.UserAccount;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;  // Giả sử bạn có một UserRepository để lấy dữ liệu người dùng
@@ -23,16 +19,20 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        // Fetch user by email from the repository
-        UserAccount userAccount = userRepository.findByEmail(email)
+        // Trả về chính UserAccount (đã implement UserDetails) để AuthController dùng lại, không query thêm lần nữa
+        return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    }
 
-        // Convert roles to granted authorities
-        List<SimpleGrantedAuthority> authorities = userAccount.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getRoleName()))  // Assuming roles are mapped with Role entity
-                .collect(Collectors.toList());
-
-        // Return Spring Security's User object, which implements UserDetails
-        return new User(userAccount.getEmail(), userAccount.getPassword(), authorities);
+    // Được DaoAuthenticationProvider gọi sau khi login thành công nếu hash cần nâng cấp
+    // (hash cũ không có prefix {bcrypt} hoặc cost thấp hơn cấu hình hiện tại)
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordHash(user.getUsername(), newPassword);
+        if (user instanceof UserAccount userAccount) {
+            userAccount.setPasswordHash(newPassword);
+        }
+        return user;
     }
-}
\ No newline at end of file
+}
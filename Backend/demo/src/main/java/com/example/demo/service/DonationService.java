@@ -0,0 +1,195 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DonationResultDTO;
+import com.example.demo.event.ActivityChangedEvent;
+import com.example.demo.repository.ActivityRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Quyên góp cho hoạt động gây quỹ. Hai cách ghi, đều không mất lượt cộng khi chạy đồng thời:
+// - donateNow: một câu UPDATE amount_raised = amount_raised + ? cho mỗi khoản
+// - donate: cộng vào bộ đếm trong bộ nhớ (LongAdder theo hoạt động, tính bằng xu), một tác vụ định kỳ (@Scheduled)
+//   ghi tổng chênh lệch của mỗi hoạt động bằng đúng một câu UPDATE, nên lúc cao điểm database chỉ nhận
+//   một câu mỗi hoạt động mỗi chu kỳ. Các khoản chưa ghi sẽ mất nếu process chết đột ngột.
+@Service
+public class DonationService {
+
+    private static final Logger log = LoggerFactory.getLogger(DonationService.class);
+    private static final int AMOUNT_SCALE = 2; // amount_raised là decimal(38,2)
+
+    private final ActivityRepository activityRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Không xóa entry sau khi flush: donate có thể đang giữ adder đó, xóa đi sẽ làm mất khoản cộng vào
+    private final Map<String, LongAdder> pendingCents = new ConcurrentHashMap<>();
+    // Kết quả kiểm tra hoạt động còn mở, dùng lại tới validUntilNanos để donate không phải đọc database mỗi lượt.
+    // Bị xóa khi có ActivityChangedEvent trên node này (job đóng hoạt động, sửa hoạt động); node khác thấy thay đổi
+    // sau tối đa openCheckTtl. Hết hạn sớm hơn nếu endDate tới trước
+    private final Map<String, OpenCheck> openChecks = new ConcurrentHashMap<>();
+    private final long openCheckTtlNanos;
+    // Lock thay vì synchronized: flush gọi database, synchronized sẽ ghim virtual thread gọi nó
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public DonationService(ActivityRepository activityRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${donations.open-check-ttl-ms:1000}") long openCheckTtlMillis) {
+        this.activityRepository = activityRepository;
+        this.eventPublisher = eventPublisher;
+        this.openCheckTtlNanos = TimeUnit.MILLISECONDS.toNanos(openCheckTtlMillis);
+    }
+
+    public DonationResultDTO donate(String activityId, BigDecimal amount) {
+        long cents = toCents(amount);
+        // kiểm tra mỗi lượt (qua openChecks): entry trong pendingCents không bao giờ bị xóa nên không dùng nó
+        // để bỏ qua bước này
+        requireOpen(activityId);
+        pendingCents.computeIfAbsent(activityId, id -> new LongAdder()).add(cents);
+        return new DonationResultDTO(activityId, amount, null, true);
+    }
+
+    public DonationResultDTO donateNow(String activityId, BigDecimal amount) {
+        toCents(amount);
+        // kiểm tra đóng ngay trong câu UPDATE, job đóng hoạt động không chen vào giữa được
+        if (activityRepository.incrementAmountRaisedIfOpen(activityId, amount, LocalDateTime.now()) == 0) {
+            openChecks.remove(activityId);
+            requireOpen(activityId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Activity is closed");
+        }
+        eventPublisher.publishEvent(new ActivityChangedEvent(activityId));
+        BigDecimal amountRaised = activityRepository.findAmountRaised(activityId).orElse(null);
+        return new DonationResultDTO(activityId, amount, amountRaised, false);
+    }
+
+    // Hoạt động nhận quyên góp khi chưa bị đóng và chưa qua endDate. Khoản đã nhận trước khi đóng vẫn được flush
+    private void requireOpen(String activityId) {
+        long nowNanos = System.nanoTime();
+        OpenCheck check = openChecks.get(activityId);
+        if (check == null || nowNanos - check.validUntilNanos() >= 0) {
+            check = loadOpenCheck(activityId, nowNanos);
+            openChecks.put(activityId, check);
+        }
+        if (!check.open()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Activity is closed");
+        }
+    }
+
+    private OpenCheck loadOpenCheck(String activityId, long nowNanos) {
+        List<Object[]> rows = activityRepository.findOpenState(activityId);
+        if (rows.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Activity not found");
+        }
+        LocalDateTime closedAt = (LocalDateTime) rows.get(0)[0];
+        LocalDateTime endDate = (LocalDateTime) rows.get(0)[1];
+        LocalDateTime now = LocalDateTime.now();
+        boolean open = closedAt == null && endDate.isAfter(now);
+        long ttl = open ? Math.min(openCheckTtlNanos, Duration.between(now, endDate).toNanos()) : openCheckTtlNanos;
+        return new OpenCheck(open, nowNanos + ttl);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        openChecks.remove(event.getActivityId());
+    }
+
+    // Tổng các khoản đã nhận nhưng chưa ghi xuống database
+    public BigDecimal getPendingAmount(String activityId) {
+        LongAdder adder = pendingCents.get(activityId);
+        return BigDecimal.valueOf(adder == null ? 0 : adder.sum(), AMOUNT_SCALE);
+    }
+
+    // Ghi chênh lệch đã gom của từng hoạt động, mỗi hoạt động một transaction ngắn. Trả về số hoạt động đã cập nhật.
+    // sumThenReset lấy và đặt lại từng cell nguyên tử, khoản cộng chen vào giữa chỉ dời sang lần flush sau.
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Lỗi ở một hoạt động không chặn các hoạt động còn lại; lỗi đầu tiên được ném ra sau vòng lặp (các lỗi sau gắn
+    // vào dạng suppressed)
+    private int flushPending() {
+        int updated = 0;
+        RuntimeException failure = null;
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, LongAdder> entry : pendingCents.entrySet()) {
+            long cents = entry.getValue().sumThenReset();
+            if (cents == 0) {
+                continue;
+            }
+            try {
+                if (activityRepository.incrementAmountRaised(entry.getKey(), BigDecimal.valueOf(cents, AMOUNT_SCALE), now) == 0) {
+                    // hoạt động đã bị xóa sau khi nhận khoản quyên góp
+                    log.warn("Dropping {} cents donated to missing activity {}", cents, entry.getKey());
+                    pendingCents.remove(entry.getKey());
+                    continue;
+                }
+                updated++;
+                eventPublisher.publishEvent(new ActivityChangedEvent(entry.getKey()));
+            } catch (RuntimeException e) {
+                // trả lại bộ đếm để lần sau ghi lại
+                entry.getValue().add(cents);
+                log.warn("Donation flush failed for activity {}, keeping {} cents for retry: {}",
+                        entry.getKey(), cents, e.getMessage());
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return updated;
+    }
+
+    // Chạy trên TaskScheduler chung (SchedulingConfig)
+    @Scheduled(initialDelayString = "${donations.flush-interval-ms:500}", fixedDelayString = "${donations.flush-interval-ms:500}")
+    void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Donation flush failed, will retry", e);
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("amount must be greater than 0");
+        }
+        try {
+            return amount.setScale(AMOUNT_SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("amount must have at most " + AMOUNT_SCALE + " decimal places");
+        }
+    }
+
+    private record OpenCheck(boolean open, long validUntilNanos) {
+    }
+
+    // Lịch flush đã bị hủy khi context đóng; ghi nốt phần còn trong bộ đệm (flushLock chờ lượt đang chạy dở nếu có)
+    @PreDestroy
+    public void close() {
+        flushQuietly();
+    }
+}
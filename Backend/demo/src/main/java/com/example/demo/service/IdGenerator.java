@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.enumpack.IdStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+// Sinh khóa chính dạng chuỗi theo ids.strategy. Với Uuid7/Snowflake các khóa mới tăng dần theo thời gian nên
+// InnoDB chèn vào cuối clustered index thay vì tách trang ngẫu nhiên như UUID v4.
+// Cột vẫn là VARCHAR: khóa hiện có (và các khóa do client/test tự đặt) giữ nguyên, không cần đổi kiểu khóa ngoại.
+@Component
+public class IdGenerator {
+
+    private static final long SNOWFLAKE_EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int SNOWFLAKE_LENGTH = 13; // 13 * 5 bit >= 64 bit
+
+    // Instance do Spring tạo, để generator của Hibernate (không phải bean) dùng chung bộ đếm
+    private static volatile IdGenerator current;
+
+    private final IdStrategy strategy;
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final SecureRandom random = new SecureRandom();
+    private long lastMillis = -1;
+    private long sequence;
+
+    @Autowired
+    public IdGenerator(@Value("${ids.strategy:uuid7}") String strategy,
+                       @Value("${ids.node-id:0}") int nodeId) {
+        this(IdStrategy.fromString(strategy), nodeId, System::currentTimeMillis);
+        if (this.strategy == null) {
+            throw new IllegalArgumentException("ids.strategy must be one of " + Arrays.toString(IdStrategy.values()));
+        }
+        current = this;
+    }
+
+    IdGenerator(IdStrategy strategy, int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("ids.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.strategy = strategy;
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    // Ngoài Spring context (ví dụ benchmark) thì dùng một instance Uuid7 mặc định
+    public static IdGenerator current() {
+        IdGenerator generator = current;
+        if (generator == null) {
+            synchronized (IdGenerator.class) {
+                if (current == null) {
+                    current = new IdGenerator(IdStrategy.Uuid7, 0, System::currentTimeMillis);
+                }
+                generator = current;
+            }
+        }
+        return generator;
+    }
+
+    public IdStrategy getStrategy() {
+        return strategy;
+    }
+
+    public String next() {
+        return switch (strategy) {
+            case Random -> UUID.randomUUID().toString();
+            case Uuid7 -> nextUuid7();
+            case Snowflake -> nextSnowflake();
+        };
+    }
+
+    private String nextUuid7() {
+        long tick = tick();
+        long millis = tick >>> SEQUENCE_BITS;
+        // rand_a 12 bit là bộ đếm trong cùng ms để các khóa của một instance luôn tăng dần
+        long msb = (millis << 16) | 0x7000L | (tick & SEQUENCE_MASK);
+        long lsb = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    private String nextSnowflake() {
+        long tick = tick();
+        long millis = (tick >>> SEQUENCE_BITS) - SNOWFLAKE_EPOCH_MILLIS;
+        long id = (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (tick & SEQUENCE_MASK);
+        char[] chars = new char[SNOWFLAKE_LENGTH];
+        for (int i = SNOWFLAKE_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // (ms << SEQUENCE_BITS) | bộ đếm, tăng nghiêm ngặt. Đồng hồ lùi thì giữ mốc ms cũ; bộ đếm tràn trong một ms
+    // thì mượn ms kế tiếp, nên không bao giờ trả trùng
+    private synchronized long tick() {
+        long now = clock.getAsLong();
+        if (now > lastMillis) {
+            lastMillis = now;
+            sequence = 0;
+        } else if (++sequence > SEQUENCE_MASK) {
+            lastMillis++;
+            sequence = 0;
+        }
+        return (lastMillis << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+
+// Nơi lưu ảnh thu nhỏ do ImageThumbnailService sinh ra; chọn bằng images.storage (cloudinary | local)
+public interface ImageStorage {
+
+    // Lưu ảnh (ghi đè nếu key đã có) và trả về URL public để client tải
+    String store(String key, byte[] content, String contentType) throws IOException;
+}
@@ -0,0 +1,327 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImageVariantDTO;
+import com.example.demo.enumpack.ImageOwnerType;
+import com.example.demo.event.ImageChangedEvent;
+import com.example.demo.event.PostsImportedEvent;
+import com.example.demo.model.ImageVariant;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.ImageVariantRepository;
+import com.example.demo.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Sinh ảnh thu nhỏ (JPEG, nhiều chiều rộng) cho ảnh của item/hoạt động sau khi chúng được tạo hoặc đổi ảnh.
+// Chạy trên pool riêng để request ghi không phải chờ tải/resize ảnh; trang danh sách dùng thumbnail_url
+// (kích thước images.list-width) thay vì ảnh gốc, còn image_variants giữ mọi kích thước cho srcset
+@Service
+public class ImageThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageThumbnailService.class);
+    private static final String CONTENT_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.82f;
+    // Ảnh nén nhỏ nhưng kích thước cực lớn vẫn có thể làm tràn heap khi giải nén
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+
+    private final ImageStorage storage;
+    private final ImageVariantRepository variantRepository;
+    private final ItemRepository itemRepository;
+    private final ActivityRepository activityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Integer> widths;
+    private final int listWidth;
+    private final Set<String> allowedHosts;
+    private final int maxSourceBytes;
+    private final HttpClient httpClient;
+    private final ThreadPoolExecutor workers;
+
+    public ImageThumbnailService(ImageStorage storage,
+                                 ImageVariantRepository variantRepository,
+                                 ItemRepository itemRepository,
+                                 ActivityRepository activityRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${images.thumbnail-widths:160,320,640}") List<Integer> widths,
+                                 @Value("${images.list-width:320}") int listWidth,
+                                 @Value("${images.allowed-hosts:res.cloudinary.com}") Set<String> allowedHosts,
+                                 @Value("${images.max-source-bytes:20971520}") int maxSourceBytes,
+                                 @Value("${images.worker-threads:2}") int workerThreads,
+                                 @Value("${images.queue-size:1000}") int queueSize) {
+        this.storage = storage;
+        this.variantRepository = variantRepository;
+        this.itemRepository = itemRepository;
+        this.activityRepository = activityRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.widths = widths.stream().sorted().distinct().toList();
+        this.listWidth = listWidth;
+        this.allowedHosts = allowedHosts.stream().map(host -> host.trim().toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        this.maxSourceBytes = maxSourceBytes;
+        // Không theo redirect: chỉ tải từ các host đã cho phép (tránh bị dùng để gọi vào mạng nội bộ)
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "image-thumbnailer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        submit(event.getOwnerType(), event.getOwnerId(), event.getSourceUrl());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostsImported(PostsImportedEvent event) {
+        for (SellExchangePost post : event.getPosts()) {
+            Item item = post.getItem();
+            submit(ImageOwnerType.Item, item.getItemId(), item.getImageUrl());
+        }
+    }
+
+    public List<ImageVariantDTO> getVariants(ImageOwnerType ownerType, String ownerId) {
+        return variantRepository.findByOwnerTypeAndOwnerIdOrderByWidth(ownerType, ownerId).stream()
+                .map(variant -> new ImageVariantDTO(variant.getWidth(), variant.getHeight(), variant.getUrl()))
+                .toList();
+    }
+
+    private void submit(ImageOwnerType ownerType, String ownerId, String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isBlank()) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(ownerType, ownerId, sourceUrl);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Thumbnail generation failed for {} {} ({}): {}", ownerType, ownerId, sourceUrl, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Thumbnail queue is full, skipping {} {}", ownerType, ownerId);
+        }
+    }
+
+    // Tải ảnh gốc, sinh các kích thước nhỏ hơn ảnh gốc rồi ghi lại. Trả về các variant đã ghi; danh sách rỗng nếu
+    // ảnh gốc đã nhỏ sẵn, hoặc item/hoạt động đã bị xóa hay đổi sang ảnh khác trong lúc xử lý
+    public List<ImageVariant> generate(ImageOwnerType ownerType, String ownerId, String sourceUrl) throws IOException {
+        BufferedImage original = decode(fetch(sourceUrl));
+        String version = shortHash(sourceUrl);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ImageVariant> variants = new ArrayList<>();
+        for (int width : widths) {
+            if (width >= original.getWidth()) {
+                break; // không phóng to ảnh
+            }
+            BufferedImage scaled = scale(original, width);
+            byte[] jpeg = encodeJpeg(scaled);
+            String key = ownerType.name().toLowerCase(Locale.ROOT) + "/" + ownerId + "/w" + width + "-" + version + ".jpg";
+
+            ImageVariant variant = new ImageVariant();
+            variant.setOwnerType(ownerType);
+            variant.setOwnerId(ownerId);
+            variant.setWidth(width);
+            variant.setHeight(scaled.getHeight());
+            variant.setBytes(jpeg.length);
+            variant.setUrl(storage.store(key, jpeg, CONTENT_TYPE));
+            variant.setSourceUrl(sourceUrl);
+            variant.setCreatedAt(now);
+            variants.add(variant);
+        }
+
+        String thumbnailUrl = variants.isEmpty() ? null : listVariant(variants).getUrl();
+        Boolean recorded = transactionTemplate.execute(status -> {
+            if (updateThumbnail(ownerType, ownerId, sourceUrl, thumbnailUrl) == 0) {
+                return false;
+            }
+            variantRepository.deleteByOwner(ownerType, ownerId);
+            variantRepository.saveAll(variants);
+            return true;
+        });
+        return Boolean.TRUE.equals(recorded) ? variants : List.of();
+    }
+
+    // Chỉ ghi khi ảnh gốc vẫn là ảnh đã xử lý
+    private int updateThumbnail(ImageOwnerType ownerType, String ownerId, String sourceUrl, String thumbnailUrl) {
+        return switch (ownerType) {
+            case Item -> itemRepository.updateThumbnailUrl(ownerId, sourceUrl, thumbnailUrl);
+            case Activity -> activityRepository.updateThumbnailUrl(ownerId, sourceUrl, thumbnailUrl);
+        };
+    }
+
+    // Variant lớn nhất không vượt quá images.list-width, nếu không có thì lấy variant nhỏ nhất
+    private ImageVariant listVariant(List<ImageVariant> variants) {
+        ImageVariant chosen = variants.get(0);
+        for (ImageVariant variant : variants) {
+            if (variant.getWidth() <= listWidth) {
+                chosen = variant;
+            }
+        }
+        return chosen;
+    }
+
+    private byte[] fetch(String sourceUrl) throws IOException {
+        URI uri;
+        try {
+            uri = URI.create(sourceUrl);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid image URL: " + sourceUrl, e);
+        }
+        String scheme = uri.getScheme();
+        if (!"https".equalsIgnoreCase(scheme) && !"http".equalsIgnoreCase(scheme)) {
+            throw new IOException("Unsupported image URL scheme: " + sourceUrl);
+        }
+        if (uri.getHost() == null || !allowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT))) {
+            throw new IOException("Image host is not allowed: " + uri.getHost());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading " + sourceUrl);
+        }
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Image download failed with HTTP " + response.statusCode());
+            }
+            byte[] content = body.readNBytes(maxSourceBytes + 1);
+            if (content.length > maxSourceBytes) {
+                throw new IOException("Image is larger than " + maxSourceBytes + " bytes");
+            }
+            return content;
+        }
+    }
+
+    // Đọc kích thước từ header trước khi giải nén cả ảnh
+    private static BufferedImage decode(byte[] content) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image dimensions are too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Thu nhỏ mỗi bước tối đa một nửa: bilinear một bước từ ảnh rất lớn xuống nhỏ sẽ bị răng cưa
+    static BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                // JPEG không có kênh alpha: phần trong suốt của PNG thành nền trắng thay vì đen
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, currentWidth, currentHeight);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // Key đổi theo ảnh gốc để CDN/trình duyệt không dùng lại thumbnail của ảnh cũ
+    private static String shortHash(String sourceUrl) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sourceUrl.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,31 +1,48 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.dto.ItemDTO;
+import com.example.demo.dto.ItemSummaryDTO;
+import com.example.demo.dto.KeysetCursor;
 import com.example.demo.dto.PostDTO;
+import com.example.demo.enumpack.ImageOwnerType;
+import com.example.demo.event.ImageChangedEvent;
 import com.example.demo.model.Category;
 import com.example.demo.model.Item;
 import com.example.demo.model.UserAccount;
-import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ImageVariantRepository;
 import com.example.demo.repository.ItemRepository;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class ItemService {
 
     private final ItemRepository itemRepository;
 
+    @Autowired
+    private IdGenerator idGenerator;
+
     @Autowired
     private UserRepository userAccountRepository;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public ItemService(ItemRepository itemRepository) {
         this.itemRepository = itemRepository;
@@ -35,20 +52,43 @@ public class ItemService {
         return itemRepository.findAll();
     }
 
+    // Luôn phân trang (mặc định 50, tối đa 200 dòng); cursor là KeysetCursor (created_at, item_id) của dòng cuối
+    public CursorPage<ItemSummaryDTO> getItemSummariesPage(String cursor, Integer limit) {
+        int pageSize = CursorPage.resolveLimit(limit);
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<ItemSummaryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = itemRepository.findSummaryFirstPage(pageable);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = after.getAt() == null
+                    ? itemRepository.findSummaryUndatedPageAfter(after.getId(), pageable)
+                    : itemRepository.findSummaryPageAfter(after.getAt(), after.getId(), pageable);
+        }
+        return CursorPage.of(rows, pageSize,
+                summary -> new KeysetCursor(summary.getCreatedAt(), summary.getItemId()).encode());
+    }
+
+    public Optional<String> getItemVersionTag(String itemId) {
+        return itemRepository.findVersionTag(itemId);
+    }
+
     public Optional<Item> getItemById(String itemId) {
         return itemRepository.findById(itemId);
     }
 
     public Item createItem(ItemDTO itemDTO) {
-        // Generate random itemId
-        String itemId = UUID.randomUUID().toString();
+        // Generate itemId (tăng dần theo thời gian, xem IdGenerator)
+        String itemId = idGenerator.next();
 
         // Find owner
         UserAccount owner = userAccountRepository.findById(itemDTO.getOwner_id())
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + itemDTO.getOwner_id()));
 
         // Find category
-        Category category = categoryRepository.findById(itemDTO.getCategory_id())
+        Category category = categoryService.getCategoryById(itemDTO.getCategory_id())
                 .orElseThrow(() -> new IllegalArgumentException("Category not found: " + itemDTO.getCategory_id()));
 
         // Create Item entity
@@ -61,20 +101,19 @@ public class ItemService {
         item.setCategory(category);
         item.setCreatedAt(LocalDateTime.now());
 
-        // Save and return
-        return itemRepository.save(item);
+        return saveNewItem(item);
     }
 
     public Item createItem(PostDTO postDTO) {
-        // Generate random itemId
-        String itemId = UUID.randomUUID().toString();
+        // Generate itemId (tăng dần theo thời gian, xem IdGenerator)
+        String itemId = idGenerator.next();
 
         // Find owner
         UserAccount owner = userAccountRepository.findById(postDTO.getSellerId())
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + postDTO.getSellerId()));
 
         // Find category
-        Category category = categoryRepository.findById(postDTO.getCategoryId())
+        Category category = categoryService.getCategoryById(postDTO.getCategoryId())
                 .orElseThrow(() -> new IllegalArgumentException("Category not found: " + postDTO.getCategoryId()));
 
         // Create Item entity
@@ -87,24 +126,46 @@ public class ItemService {
         item.setCategory(category);
         item.setCreatedAt(LocalDateTime.now());
 
-        // Save and return
-        return itemRepository.save(item);
+        return saveNewItem(item);
     }
 
     public Item updateItem(String itemId, Item updatedItem) {
         return itemRepository.findById(itemId)
                 .map(existingItem -> {
+                    boolean imageChanged = !Objects.equals(existingItem.getImageUrl(), updatedItem.getImageUrl());
                     existingItem.setItemName(updatedItem.getItemName());
                     existingItem.setDescription(updatedItem.getDescription());
                     existingItem.setImageUrl(updatedItem.getImageUrl());
                     existingItem.setOwner(updatedItem.getOwner());
                     existingItem.setCategory(updatedItem.getCategory());
-                    return itemRepository.save(existingItem);
+                    if (imageChanged) {
+                        // thumbnail cũ thuộc ảnh trước, danh sách dùng ảnh gốc cho tới khi sinh xong
+                        existingItem.setThumbnailUrl(null);
+                    }
+                    Item saved = itemRepository.save(existingItem);
+                    if (imageChanged) {
+                        publishImageChanged(saved);
+                    }
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Item not found"));
     }
 
+    // Lưu item mới rồi sinh ảnh thu nhỏ ở nền (sau commit nếu đang trong transaction)
+    private Item saveNewItem(Item item) {
+        Item saved = itemRepository.save(item);
+        publishImageChanged(saved);
+        return saved;
+    }
+
+    private void publishImageChanged(Item item) {
+        if (item.getImageUrl() != null) {
+            eventPublisher.publishEvent(new ImageChangedEvent(ImageOwnerType.Item, item.getItemId(), item.getImageUrl()));
+        }
+    }
+
     public void deleteItem(String itemId) {
         itemRepository.deleteById(itemId);
+        imageVariantRepository.deleteByOwner(ImageOwnerType.Item, itemId);
     }
 }
@@ -0,0 +1,218 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Phân phát sự kiện SSE trong process theo topic (vd. "activity:<id>", "post:<id>").
+// - publish chỉ đưa message vào hàng đợi có giới hạn của từng subscriber, không bao giờ chờ mạng
+// - một pool nhỏ gửi dần từng hàng đợi, mỗi subscriber tối đa một thread gửi tại một thời điểm (giữ thứ tự);
+//   với virtual thread thì mỗi lượt gửi một thread ảo, số lượt gửi đồng thời vẫn không quá số subscriber
+// - subscriber đọc chậm làm đầy hàng đợi thì bị ngắt; EventSource phía client tự kết nối lại và nhận snapshot mới
+// - heartbeat định kỳ (@Scheduled trên TaskScheduler chung) để phát hiện kết nối đã chết
+@Component
+public class LiveUpdateHub {
+
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Map<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService sender;
+
+    public LiveUpdateHub(@Value("${live-updates.buffer-size:32}") int bufferSize,
+                         @Value("${live-updates.max-subscribers:10000}") int maxSubscribers,
+                         @Value("${live-updates.timeout-ms:1800000}") long timeoutMillis,
+                         @Value("${live-updates.sender-threads:4}") int senderThreads,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        if (virtualThreads) {
+            // gửi SSE là I/O chặn: không cần giới hạn theo pool khi thread rẻ
+            this.sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("live-update-sender-", 1).factory());
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+                Thread thread = new Thread(runnable, "live-update-sender-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Mở kết nối SSE cho topic, gửi snapshot hiện tại rồi tới các thay đổi sau đó. Snapshot được đọc sau khi đã
+    // đăng ký nên không lỡ thay đổi nào xảy ra giữa hai bước; snapshot null nghĩa là không tồn tại (404)
+    public SseEmitter subscribe(String topic, String eventName, Supplier<?> snapshot) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = add(topic, emitter);
+        Object current = snapshot.get();
+        if (current == null) {
+            remove(subscriber);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found");
+        }
+        offer(subscriber, new Message(eventName, current));
+        return emitter;
+    }
+
+    public boolean hasSubscribers(String topic) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        return subscribers != null && !subscribers.isEmpty();
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public void publish(String topic, String eventName, Object payload) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers == null) {
+            return;
+        }
+        Message message = new Message(eventName, payload);
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, message);
+        }
+    }
+
+    // Tách riêng để test có thể đăng ký emitter tự tạo
+    void register(String topic, SseEmitter emitter) {
+        add(topic, emitter);
+    }
+
+    private Subscriber add(String topic, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live update subscribers");
+        }
+        Subscriber subscriber = new Subscriber(topic, emitter, new ArrayBlockingQueue<>(bufferSize));
+        // thêm trong compute để không lọt vào một set vừa bị remove() gỡ khỏi map
+        topics.compute(topic, (key, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        return subscriber;
+    }
+
+    private void offer(Subscriber subscriber, Message message) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(message)) {
+            // đọc không kịp: ngắt thay vì giữ message không giới hạn
+            subscriber.dropped = true;
+            remove(subscriber);
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Message message;
+            while (!subscriber.dropped && (message = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(message.toEvent());
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client đã ngắt kết nối hoặc emitter đã đóng
+            subscriber.dropped = true;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.dropped) {
+            close(subscriber);
+        } else if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${live-updates.heartbeat-seconds:15}",
+            fixedRateString = "${live-updates.heartbeat-seconds:15}", timeUnit = TimeUnit.SECONDS)
+    void heartbeat() {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                offer(subscriber, HEARTBEAT);
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.queue.clear();
+        subscriber.emitter.complete();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscriberCount.decrementAndGet();
+            topics.computeIfPresent(subscriber.topic, (topic, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        topics.clear();
+    }
+
+    private record Message(String eventName, Object payload) {
+        SseEmitter.SseEventBuilder toEvent() {
+            if (eventName == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().name(eventName).data(payload, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private static final class Subscriber {
+        private final String topic;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean dropped;
+
+        private Subscriber(String topic, SseEmitter emitter, BlockingQueue<Message> queue) {
+            this.topic = topic;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
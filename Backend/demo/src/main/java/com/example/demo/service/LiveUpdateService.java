@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PostStatusDTO;
+import com.example.demo.event.ActivityChangedEvent;
+import com.example.demo.event.PostChangedEvent;
+import com.example.demo.event.PostsStateChangedEvent;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+// Đẩy tiến độ gây quỹ và trạng thái trao đổi của bài đăng tới client qua SSE thay cho việc poll
+// GET /api/activities/{id} và GET /api/posts/{id}. Mỗi message mang trạng thái đầy đủ (kèm updatedAt),
+// nên client chỉ cần giữ message mới nhất.
+@Service
+public class LiveUpdateService {
+
+    public static final String PROGRESS_EVENT = "progress";
+    public static final String STATUS_EVENT = "status";
+    public static final String DELETED_EVENT = "deleted";
+
+    @Autowired
+    private LiveUpdateHub hub;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    public SseEmitter subscribeToActivity(String activityId) {
+        return hub.subscribe(activityTopic(activityId), PROGRESS_EVENT,
+                () -> activityRepository.findProgress(activityId).orElse(null));
+    }
+
+    public SseEmitter subscribeToPost(String postId) {
+        return hub.subscribe(postTopic(postId), STATUS_EVENT,
+                () -> postRepository.findById(postId).map(LiveUpdateService::toStatus).orElse(null));
+    }
+
+    // Chỉ đọc lại tiến độ khi có người đang theo dõi hoạt động đó
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        String topic = activityTopic(event.getActivityId());
+        if (hub.hasSubscribers(topic)) {
+            activityRepository.findProgress(event.getActivityId())
+                    .ifPresent(progress -> hub.publish(topic, PROGRESS_EVENT, progress));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        SellExchangePost post = event.getPost();
+        String topic = postTopic(post.getPostId());
+        if (event.getChangeType() == PostChangedEvent.ChangeType.DELETED) {
+            hub.publish(topic, DELETED_EVENT, Map.of("postId", post.getPostId()));
+        } else {
+            hub.publish(topic, STATUS_EVENT, toStatus(post));
+        }
+    }
+
+    // Chỉ đọc lại (một câu cho cả lô) các bài đang có người theo dõi
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostsStateChanged(PostsStateChangedEvent event) {
+        List<String> watched = event.getPostIds().stream()
+                .filter(postId -> hub.hasSubscribers(postTopic(postId)))
+                .toList();
+        if (!watched.isEmpty()) {
+            postRepository.findAllById(watched)
+                    .forEach(post -> hub.publish(postTopic(post.getPostId()), STATUS_EVENT, toStatus(post)));
+        }
+    }
+
+    private static String activityTopic(String activityId) {
+        return "activity:" + activityId;
+    }
+
+    private static String postTopic(String postId) {
+        return "post:" + postId;
+    }
+
+    private static PostStatusDTO toStatus(SellExchangePost post) {
+        return new PostStatusDTO(post.getPostId(), post.getType(), post.getStatus(), post.getState(),
+                post.getPrice(), post.getUpdatedAt());
+    }
+}
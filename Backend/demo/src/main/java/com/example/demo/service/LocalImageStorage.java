@@ -0,0 +1,52 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Ghi ảnh ra thư mục local (test, chạy máy dev); WebConfig phục vụ thư mục này tại images.local.base-url
+@Component
+@ConditionalOnProperty(name = "images.storage", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private final Path directory;
+    private final String baseUrl;
+
+    public LocalImageStorage(@Value("${images.local.directory:${java.io.tmpdir}/educycle-images}") String directory,
+                             @Value("${images.local.base-url:/images/}") String baseUrl) {
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    @Override
+    public String store(String key, byte[] content, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Ghi ra file tạm rồi đổi tên để client không đọc được file đang ghi dở
+        Path temp = Files.createTempFile(target.getParent(), ".upload", ".tmp");
+        Files.write(temp, content);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return baseUrl + key;
+    }
+
+    public Path resolve(String key) {
+        Path target = directory.resolve(key).normalize();
+        if (!target.startsWith(directory)) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return target;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+}
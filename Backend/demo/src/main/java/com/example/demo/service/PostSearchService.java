@@ -0,0 +1,346 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.PostSearchHitDTO;
+import com.example.demo.dto.PostSearchResultDTO;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.event.PostChangedEvent;
+import com.example.demo.event.PostsImportedEvent;
+import com.example.demo.event.PostsStateChangedEvent;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Inverted index (Lucene, trong bộ nhớ) cho tìm kiếm bài đăng.
+// Được dựng lại từ DB khi khởi động và cập nhật theo PostChangedEvent.
+@Service
+public class PostSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    private static final int FACET_TOP_N = 50;
+
+    // Trọng số cho các trường văn bản khi tính điểm liên quan
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(
+            "title", 3.0f,
+            "itemName", 2.0f,
+            "categoryName", 1.5f,
+            "description", 1.0f,
+            "itemDescription", 1.0f
+    );
+
+    private final SellExchangePostService postService;
+    private final Analyzer analyzer;
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    // Cập nhật index từ event chạy trên một thread riêng: không làm chậm request ghi, và vẫn giữ đúng thứ tự
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // SortedSetDocValuesReaderState tốn chi phí dựng, chỉ tính lại khi reader thay đổi. Reader và state nằm chung
+    // một đối tượng để thread khác không bao giờ thấy reader mới đi cùng state của reader cũ
+    private volatile FacetCache facetCache;
+
+    public PostSearchService(SellExchangePostService postService) throws IOException {
+        this.postService = postService;
+        // Bỏ dấu tiếng Việt khi index và khi tìm: "sach" khớp với "sách"
+        this.analyzer = CustomAnalyzer.builder()
+                .withTokenizer(StandardTokenizerFactory.class)
+                .addTokenFilter(LowerCaseFilterFactory.class)
+                .addTokenFilter(ASCIIFoldingFilterFactory.class)
+                .build();
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        int indexed = 0;
+        try {
+            writer.deleteAll();
+            String cursor = null;
+            do {
+                CursorPage<SellExchangePost> page = postService.getPostsPage(null, null, null, null,
+                        cursor, SellExchangePostService.MAX_PAGE_SIZE);
+                for (SellExchangePost post : page.getItems()) {
+                    writer.updateDocument(new Term("postId", post.getPostId()), toDocument(post));
+                }
+                indexed += page.getItems().size();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Post search index rebuilt: {} posts in {} ms", indexed, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        submit(() -> {
+            if (event.getChangeType() == PostChangedEvent.ChangeType.DELETED) {
+                removePost(event.getPost().getPostId());
+            } else {
+                indexPost(event.getPost());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostsImported(PostsImportedEvent event) {
+        submit(() -> indexPosts(event.getPosts()));
+    }
+
+    // status của bài đăng (được index) đổi khi giao dịch hoàn tất
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostsStateChanged(PostsStateChangedEvent event) {
+        submit(() -> indexPosts(postService.getPostsByIds(event.getPostIds())));
+    }
+
+    private void submit(Runnable update) {
+        indexer.execute(() -> {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                log.error("Post search index update failed", e);
+            }
+        });
+    }
+
+    public void indexPost(SellExchangePost post) {
+        indexPosts(List.of(post));
+    }
+
+    // Refresh searcher một lần cho cả lô thay vì sau từng bài
+    public void indexPosts(Collection<SellExchangePost> posts) {
+        try {
+            for (SellExchangePost post : posts) {
+                writer.updateDocument(new Term("postId", post.getPostId()), toDocument(post));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void removePost(String postId) {
+        try {
+            writer.deleteDocuments(new Term("postId", postId));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public PostSearchResultDTO search(String text, PostType type, PostStatusType status, String categoryId,
+                                      BigDecimal minPrice, BigDecimal maxPrice, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        Query textQuery = null;
+        if (text != null && !text.isBlank()) {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            textQuery = parser.parse(text);
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(textQuery != null ? textQuery : new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        if (type != null) {
+            query.add(new TermQuery(new Term("type", type.name())), BooleanClause.Occur.FILTER);
+        }
+        if (status != null) {
+            query.add(new TermQuery(new Term("status", status.name())), BooleanClause.Occur.FILTER);
+        }
+        if (categoryId != null && !categoryId.isBlank()) {
+            query.add(new TermQuery(new Term("categoryId", categoryId)), BooleanClause.Occur.FILTER);
+        }
+        if (minPrice != null || maxPrice != null) {
+            query.add(DoublePoint.newRangeQuery("price",
+                    minPrice != null ? minPrice.doubleValue() : Double.NEGATIVE_INFINITY,
+                    maxPrice != null ? maxPrice.doubleValue() : Double.POSITIVE_INFINITY), BooleanClause.Occur.FILTER);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // Không có từ khóa: sắp theo bài mới nhất thay vì theo điểm
+                FacetsCollectorManager.FacetsResult result = textQuery != null
+                        ? FacetsCollectorManager.search(searcher, query.build(), size, new FacetsCollectorManager())
+                        : FacetsCollectorManager.search(searcher, query.build(), size,
+                                new Sort(new SortField("createdAt", SortField.Type.LONG, true)),
+                                new FacetsCollectorManager());
+
+                List<PostSearchHitDTO> hits = new ArrayList<>();
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc scoreDoc : result.topDocs().scoreDocs) {
+                    hits.add(toHit(storedFields.document(scoreDoc.doc), textQuery != null ? scoreDoc.score : null));
+                }
+                return new PostSearchResultDTO(result.topDocs().totalHits.value, hits,
+                        countFacets(searcher.getIndexReader(), result));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record FacetCache(IndexReader reader, SortedSetDocValuesReaderState state) {
+    }
+
+    private Map<String, Map<String, Integer>> countFacets(IndexReader reader, FacetsCollectorManager.FacetsResult result)
+            throws IOException {
+        if (result.topDocs().totalHits.value == 0) {
+            return Collections.emptyMap();
+        }
+        FacetCache cache = facetCache;
+        if (cache == null || cache.reader() != reader) {
+            cache = new FacetCache(reader, new DefaultSortedSetDocValuesReaderState(reader, facetsConfig));
+            facetCache = cache;
+        }
+        SortedSetDocValuesReaderState state = cache.state();
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (FacetResult facet : new SortedSetDocValuesFacetCounts(state, result.facetsCollector()).getAllDims(FACET_TOP_N)) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (LabelAndValue labelAndValue : facet.labelValues) {
+                counts.put(labelAndValue.label, labelAndValue.value.intValue());
+            }
+            facets.put(facet.dim, counts);
+        }
+        return facets;
+    }
+
+    private Document toDocument(SellExchangePost post) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField("postId", post.getPostId(), Field.Store.YES));
+        doc.add(new TextField("title", post.getTitle(), Field.Store.YES));
+        if (post.getDescription() != null) {
+            doc.add(new TextField("description", post.getDescription(), Field.Store.NO));
+        }
+        doc.add(new StringField("type", post.getType().name(), Field.Store.YES));
+        doc.add(new SortedSetDocValuesFacetField("type", post.getType().name()));
+        doc.add(new StringField("status", post.getStatus().name(), Field.Store.YES));
+
+        BigDecimal price = post.getPrice() != null ? post.getPrice() : BigDecimal.ZERO;
+        doc.add(new DoublePoint("price", price.doubleValue()));
+        doc.add(new StoredField("priceText", price.toPlainString()));
+        long createdAt = post.getCreatedAt() != null ? post.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        doc.add(new NumericDocValuesField("createdAt", createdAt));
+        if (post.getSeller() != null && post.getSeller().getName() != null) {
+            doc.add(new StoredField("sellerName", post.getSeller().getName()));
+        }
+
+        Item item = post.getItem();
+        if (item != null) {
+            doc.add(new TextField("itemName", item.getItemName(), Field.Store.NO));
+            if (item.getDescription() != null) {
+                doc.add(new TextField("itemDescription", item.getDescription(), Field.Store.NO));
+            }
+            String thumbnailUrl = item.getThumbnailUrl() != null ? item.getThumbnailUrl() : item.getImageUrl();
+            if (thumbnailUrl != null) {
+                doc.add(new StoredField("thumbnailUrl", thumbnailUrl));
+            }
+            Category category = item.getCategory();
+            if (category != null) {
+                doc.add(new StringField("categoryId", category.getCategoryId(), Field.Store.YES));
+                doc.add(new TextField("categoryName", category.getName(), Field.Store.YES));
+                doc.add(new SortedSetDocValuesFacetField("category", category.getName()));
+            }
+        }
+        return facetsConfig.build(doc);
+    }
+
+    private PostSearchHitDTO toHit(Document doc, Float score) {
+        return new PostSearchHitDTO(
+                doc.get("postId"),
+                doc.get("title"),
+                new BigDecimal(doc.get("priceText")),
+                doc.get("type"),
+                doc.get("status"),
+                doc.get("categoryId"),
+                doc.get("categoryName"),
+                doc.get("sellerName"),
+                doc.get("thumbnailUrl"),
+                score
+        );
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        indexer.shutdown();
+        try {
+            indexer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searcherManager.close();
+        writer.close();
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Mô hình gợi ý bài đăng dựng sẵn trong bộ nhớ, không đổi sau khi dựng (RecommendationService thay cả đối tượng).
+// Điểm của bài p với user u:
+//   AFFINITY_WEIGHT * Σ_a w_u[a] * sim[a][cat(p)] + POPULARITY_WEIGHT * pop[cat(p)] + FRESHNESS_WEIGHT * fresh(p)
+// - w_u: mức quan tâm của u tới từng danh mục, đếm giao dịch giảm dần theo tuổi rồi chuẩn hóa tổng bằng 1
+// - sim: độ tương tự cosine giữa hai danh mục theo số user đã mua ở cả hai (sim[a][a] = 1)
+// - pop: độ phổ biến của danh mục, fresh: độ mới của bài đăng
+// Danh mục, user và bài đăng được đánh chỉ số nguyên, mọi dữ liệu nằm trong mảng nguyên thủy: mỗi lần gợi ý tính
+// điểm theo danh mục một lần, sau đó mỗi bài chỉ tốn vài phép đọc mảng, top-k giữ bằng heap trên mảng
+public final class RecommendationModel {
+
+    static final float AFFINITY_WEIGHT = 1.0f;
+    static final float POPULARITY_WEIGHT = 0.2f;
+    static final float FRESHNESS_WEIGHT = 0.1f;
+    private static final double AFFINITY_HALF_LIFE_DAYS = 90;
+    private static final double FRESHNESS_HALF_LIFE_DAYS = 14;
+    private static final int[] NO_CATEGORIES = new int[0];
+    private static final float[] NO_WEIGHTS = new float[0];
+
+    // Một giao dịch mua (không tính giao dịch đã hủy) và danh mục của món đồ
+    public record Purchase(String userId, String categoryId, LocalDateTime createdAt) {
+    }
+
+    // Bài đăng có thể gợi ý: đã duyệt, chưa có giao nhận
+    public record Candidate(String postId, String sellerId, String categoryId, LocalDateTime createdAt) {
+    }
+
+    public record Scored(String postId, float score) {
+    }
+
+    private final int categoryCount;
+    private final float[] similarity; // categoryCount * categoryCount, theo hàng
+    private final float[] popularity;
+    private final Map<String, Integer> userIndex;
+    private final int[][] userCategories;
+    private final float[][] userWeights;
+    private final String[] postIds;
+    private final int[] postCategory; // -1: bài không có danh mục
+    private final int[] postSeller;
+    private final float[] postFreshness;
+    private final LocalDateTime builtAt;
+
+    private RecommendationModel(int categoryCount, float[] similarity, float[] popularity, Map<String, Integer> userIndex,
+                                int[][] userCategories, float[][] userWeights, String[] postIds, int[] postCategory,
+                                int[] postSeller, float[] postFreshness, LocalDateTime builtAt) {
+        this.categoryCount = categoryCount;
+        this.similarity = similarity;
+        this.popularity = popularity;
+        this.userIndex = userIndex;
+        this.userCategories = userCategories;
+        this.userWeights = userWeights;
+        this.postIds = postIds;
+        this.postCategory = postCategory;
+        this.postSeller = postSeller;
+        this.postFreshness = postFreshness;
+        this.builtAt = builtAt;
+    }
+
+    public static RecommendationModel build(Stream<Purchase> purchases, List<Candidate> candidates, LocalDateTime now) {
+        Map<String, Integer> categoryIndex = new HashMap<>();
+        Map<String, Integer> userIndex = new HashMap<>();
+        // danh mục -> trọng số đã giảm theo tuổi, theo từng user
+        List<Map<Integer, Double>> history = new ArrayList<>();
+        purchases.forEach(purchase -> {
+            int user = userIndex.computeIfAbsent(purchase.userId(), id -> {
+                history.add(new HashMap<>());
+                return history.size() - 1;
+            });
+            int category = categoryIndex.computeIfAbsent(purchase.categoryId(), id -> categoryIndex.size());
+            history.get(user).merge(category, decay(purchase.createdAt(), now, AFFINITY_HALF_LIFE_DAYS), Double::sum);
+        });
+
+        int candidateCount = candidates.size();
+        String[] postIds = new String[candidateCount];
+        int[] postCategory = new int[candidateCount];
+        int[] postSeller = new int[candidateCount];
+        float[] postFreshness = new float[candidateCount];
+        for (int i = 0; i < candidateCount; i++) {
+            Candidate candidate = candidates.get(i);
+            postIds[i] = candidate.postId();
+            postCategory[i] = candidate.categoryId() == null ? -1
+                    : categoryIndex.computeIfAbsent(candidate.categoryId(), id -> categoryIndex.size());
+            postSeller[i] = userIndex.computeIfAbsent(candidate.sellerId(), id -> {
+                history.add(Map.of());
+                return history.size() - 1;
+            });
+            postFreshness[i] = (float) decay(candidate.createdAt(), now, FRESHNESS_HALF_LIFE_DAYS);
+        }
+
+        int categories = categoryIndex.size();
+        int users = history.size();
+        int[][] userCategories = new int[users][];
+        float[][] userWeights = new float[users][];
+        int[] buyers = new int[categories];
+        int[] cooccurrence = new int[categories * categories];
+        double[] demand = new double[categories];
+        for (int u = 0; u < users; u++) {
+            Map<Integer, Double> counts = history.get(u);
+            if (counts.isEmpty()) {
+                userCategories[u] = NO_CATEGORIES;
+                userWeights[u] = NO_WEIGHTS;
+                continue;
+            }
+            int[] owned = new int[counts.size()];
+            float[] weights = new float[counts.size()];
+            double total = counts.values().stream().mapToDouble(Double::doubleValue).sum();
+            int k = 0;
+            for (Map.Entry<Integer, Double> entry : counts.entrySet()) {
+                owned[k] = entry.getKey();
+                weights[k] = (float) (entry.getValue() / total);
+                demand[entry.getKey()] += entry.getValue();
+                k++;
+            }
+            for (int a : owned) {
+                buyers[a]++;
+                for (int b : owned) {
+                    if (a != b) {
+                        cooccurrence[a * categories + b]++;
+                    }
+                }
+            }
+            userCategories[u] = owned;
+            userWeights[u] = weights;
+        }
+
+        float[] similarity = new float[categories * categories];
+        for (int a = 0; a < categories; a++) {
+            similarity[a * categories + a] = 1f;
+            for (int b = 0; b < categories; b++) {
+                int both = cooccurrence[a * categories + b];
+                if (both > 0) {
+                    similarity[a * categories + b] = (float) (both / Math.sqrt((double) buyers[a] * buyers[b]));
+                }
+            }
+        }
+        double maxDemand = Arrays.stream(demand).max().orElse(0);
+        float[] popularity = new float[categories];
+        for (int c = 0; c < categories; c++) {
+            popularity[c] = maxDemand > 0 ? (float) (demand[c] / maxDemand) : 0f;
+        }
+        return new RecommendationModel(categories, similarity, popularity, Map.copyOf(userIndex), userCategories,
+                userWeights, postIds, postCategory, postSeller, postFreshness, now);
+    }
+
+    // Tối đa limit bài điểm cao nhất, giảm dần; bỏ bài của chính user. User chưa có lịch sử nhận bài theo
+    // độ phổ biến của danh mục và độ mới
+    public List<Scored> recommend(String userId, int limit) {
+        Integer user = userIndex.get(userId);
+        int self = user != null ? user : -1;
+        float[] categoryScore = new float[categoryCount];
+        if (self >= 0) {
+            int[] owned = userCategories[self];
+            float[] weights = userWeights[self];
+            for (int k = 0; k < owned.length; k++) {
+                int row = owned[k] * categoryCount;
+                float weight = weights[k];
+                for (int c = 0; c < categoryCount; c++) {
+                    categoryScore[c] += weight * similarity[row + c];
+                }
+            }
+        }
+        for (int c = 0; c < categoryCount; c++) {
+            categoryScore[c] = AFFINITY_WEIGHT * categoryScore[c] + POPULARITY_WEIGHT * popularity[c];
+        }
+
+        // min-heap theo điểm: gốc là bài yếu nhất trong top-k hiện tại
+        int capacity = Math.min(limit, postIds.length);
+        int[] heap = new int[capacity];
+        float[] heapScore = new float[capacity];
+        int size = 0;
+        for (int i = 0; i < postIds.length; i++) {
+            if (postSeller[i] == self) {
+                continue;
+            }
+            int category = postCategory[i];
+            float score = (category >= 0 ? categoryScore[category] : 0f) + FRESHNESS_WEIGHT * postFreshness[i];
+            if (size < capacity) {
+                heap[size] = i;
+                heapScore[size] = score;
+                siftUp(heap, heapScore, size++);
+            } else if (capacity > 0 && score > heapScore[0]) {
+                heap[0] = i;
+                heapScore[0] = score;
+                siftDown(heap, heapScore, size);
+            }
+        }
+
+        Scored[] result = new Scored[size];
+        while (size > 0) {
+            result[size - 1] = new Scored(postIds[heap[0]], heapScore[0]);
+            size--;
+            heap[0] = heap[size];
+            heapScore[0] = heapScore[size];
+            siftDown(heap, heapScore, size);
+        }
+        return Arrays.asList(result);
+    }
+
+    public int userCount() {
+        return userCategories.length;
+    }
+
+    public int categoryCount() {
+        return categoryCount;
+    }
+
+    public int candidateCount() {
+        return postIds.length;
+    }
+
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    // 1 khi vừa xảy ra, còn một nửa sau mỗi halfLifeDays; không có thời điểm thì coi như rất cũ
+    private static double decay(LocalDateTime at, LocalDateTime now, double halfLifeDays) {
+        if (at == null) {
+            return 0;
+        }
+        double ageDays = Math.max(0, Duration.between(at, now).toMinutes() / (24.0 * 60));
+        return Math.pow(0.5, ageDays / halfLifeDays);
+    }
+
+    private static void siftUp(int[] heap, float[] score, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (score[parent] <= score[i]) {
+                return;
+            }
+            swap(heap, score, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, float[] score, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && score[left] < score[smallest]) {
+                smallest = left;
+            }
+            if (right < size && score[right] < score[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(heap, score, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, float[] score, int a, int b) {
+        int index = heap[a];
+        heap[a] = heap[b];
+        heap[b] = index;
+        float value = score[a];
+        score[a] = score[b];
+        score[b] = value;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PostSummaryDTO;
+import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.dto.RecommendationModelDTO;
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Gợi ý bài đăng theo lịch sử giao dịch. Mô hình (RecommendationModel) được dựng lại định kỳ (@Scheduled) từ
+// toàn bộ giao dịch và các bài đang mở, rồi thay nguyên đối tượng; request chỉ chấm điểm trên mô hình trong bộ nhớ
+// và đọc thông tin bài đăng bằng một câu IN (...). Mỗi node tự dựng mô hình của mình
+@Service
+public class RecommendationService {
+
+    public static final int MAX_LIMIT = 50;
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+    // Lấy dư vì bài trong mô hình có thể đã được duyệt lại, giữ chỗ hoặc bán sau lần dựng trước
+    private static final int OVERFETCH = 2;
+
+    private final TransactionRepository transactionRepository;
+    private final SellExchangePostRepository postRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Lock thay vì synchronized: dựng mô hình đọc database, synchronized sẽ ghim virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final TaskScheduler taskScheduler;
+    private final boolean rebuildEnabled;
+    private volatile RecommendationModel model;
+    private volatile long lastBuildMillis;
+
+    public RecommendationService(TransactionRepository transactionRepository,
+                                 SellExchangePostRepository postRepository,
+                                 UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 TaskScheduler taskScheduler,
+                                 @Value("${recommendations.rebuild-enabled:true}") boolean rebuildEnabled) {
+        this.transactionRepository = transactionRepository;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.taskScheduler = taskScheduler;
+        // false: không dựng định kỳ, mô hình được dựng ở request đầu tiên hoặc khi admin gọi rebuild
+        this.rebuildEnabled = rebuildEnabled;
+    }
+
+    // Lần dựng đầu chờ ứng dụng sẵn sàng (không đọc database lúc context còn đang khởi tạo) và chạy trên
+    // TaskScheduler chung để không làm chậm lúc khởi động
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInitialModel() {
+        if (rebuildEnabled) {
+            taskScheduler.schedule(this::rebuildQuietly, Instant.now());
+        }
+    }
+
+    public List<RecommendationDTO> recommend(String userId, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        RecommendationModel current = model;
+        if (current == null) {
+            rebuild();
+            current = model;
+        }
+        List<RecommendationModel.Scored> scored = current.recommend(userId, limit * OVERFETCH);
+        if (scored.isEmpty()) {
+            return List.of();
+        }
+        Map<String, PostSummaryDTO> posts = postRepository
+                .findUnreservedSummariesByIds(scored.stream().map(RecommendationModel.Scored::postId).toList(),
+                        LocalDateTime.now()).stream()
+                .collect(Collectors.toMap(PostSummaryDTO::getPostId, Function.identity()));
+        return scored.stream()
+                .filter(s -> isOpen(posts.get(s.postId())))
+                .limit(limit)
+                .map(s -> new RecommendationDTO(posts.get(s.postId()), s.score()))
+                .toList();
+    }
+
+    // Dựng lại mô hình ngay; các request trong lúc dựng vẫn dùng mô hình cũ
+    public RecommendationModelDTO rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            model = transactionTemplate.execute(status -> {
+                List<RecommendationModel.Candidate> candidates = postRepository.findRecommendationCandidates().stream()
+                        .map(row -> new RecommendationModel.Candidate((String) row[0], (String) row[1],
+                                (String) row[2], (LocalDateTime) row[3]))
+                        .toList();
+                try (Stream<Object[]> rows = transactionRepository.streamPurchaseCategories()) {
+                    return RecommendationModel.build(
+                            rows.map(row -> new RecommendationModel.Purchase((String) row[0], (String) row[1],
+                                    (LocalDateTime) row[2])),
+                            candidates, now);
+                }
+            });
+            lastBuildMillis = (System.nanoTime() - start) / 1_000_000;
+            return describe();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public RecommendationModelDTO describe() {
+        RecommendationModel current = model;
+        if (current == null) {
+            return new RecommendationModelDTO(0, 0, 0, null, 0);
+        }
+        return new RecommendationModelDTO(current.userCount(), current.categoryCount(), current.candidateCount(),
+                current.builtAt(), lastBuildMillis);
+    }
+
+    private static boolean isOpen(PostSummaryDTO post) {
+        return post != null && post.getStatus() == PostStatusType.Approved && post.getState() == PostStateType.Pending;
+    }
+
+    @Scheduled(initialDelayString = "${recommendations.rebuild-interval-ms:600000}",
+            fixedDelayString = "${recommendations.rebuild-interval-ms:600000}")
+    void rebuildPeriodically() {
+        if (rebuildEnabled) {
+            rebuildQuietly();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            RecommendationModelDTO built = rebuild();
+            log.debug("Recommendation model rebuilt: {}", built);
+        } catch (RuntimeException e) {
+            log.warn("Recommendation model rebuild failed", e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ScheduledJobResultDTO;
+import com.example.demo.event.ActivityChangedEvent;
+import com.example.demo.event.PostsStateChangedEvent;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Job dọn dẹp định kỳ: đóng hoạt động đã qua endDate và chuyển bài đăng chờ duyệt quá lâu sang Expired.
+// Lượt định kỳ chạy trên TaskScheduler chung (@Scheduled, SchedulingConfig). Mỗi lượt chỉ chạy trên node giữ được lease (SchedulerLease), đọc theo từng chunk bằng keyset (không OFFSET,
+// không quét lại từ đầu) và cập nhật mỗi chunk bằng một câu UPDATE trong transaction riêng, nên khóa dòng chỉ
+// giữ trong thời gian một chunk. Số dòng xử lý mỗi lượt ghi vào scheduler.job.rows, thời gian vào scheduler.job.duration
+@Service
+public class ScheduledJobService {
+
+    public static final String CLOSE_ENDED_ACTIVITIES = "close-ended-activities";
+    public static final String EXPIRE_STALE_POSTS = "expire-stale-posts";
+    public static final String ROWS = "scheduler.job.rows";
+    public static final String DURATION = "scheduler.job.duration";
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledJobService.class);
+    // Khóa bắt đầu của keyset, nhỏ hơn mọi end_date/created_at thực tế
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ActivityRepository activityRepository;
+    private final SellExchangePostRepository postRepository;
+    private final SchedulerLease lease;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration interval;
+    private final Duration lockAtMost;
+    private final Duration staleAfter;
+    private final boolean enabled;
+    private final Map<String, Supplier<Integer>> jobs = new LinkedHashMap<>();
+
+    public ScheduledJobService(ActivityRepository activityRepository,
+                               SellExchangePostRepository postRepository,
+                               SchedulerLease lease,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${scheduler.enabled:true}") boolean enabled,
+                               @Value("${scheduler.interval-ms:300000}") long intervalMillis,
+                               @Value("${scheduler.lock-at-most-ms:600000}") long lockAtMostMillis,
+                               @Value("${scheduler.chunk-size:500}") int chunkSize,
+                               @Value("${posts.stale-after-days:30}") long staleAfterDays) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("scheduler.chunk-size must be positive");
+        }
+        this.activityRepository = activityRepository;
+        this.postRepository = postRepository;
+        this.lease = lease;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.interval = Duration.ofMillis(intervalMillis);
+        this.lockAtMost = Duration.ofMillis(lockAtMostMillis);
+        this.staleAfter = Duration.ofDays(staleAfterDays);
+        this.enabled = enabled;
+        jobs.put(CLOSE_ENDED_ACTIVITIES, () -> closeEndedActivities(LocalDateTime.now()));
+        jobs.put(EXPIRE_STALE_POSTS, () -> expireStalePosts(LocalDateTime.now().minus(staleAfter)));
+    }
+
+    // Chạy một job ngay (admin). Vẫn đi qua lease nên không chạy chồng lên lượt của node khác; trả lease ngay khi xong
+    public ScheduledJobResultDTO run(String job) {
+        if (!jobs.containsKey(job)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job: " + job);
+        }
+        return runWithLease(job, Duration.ZERO);
+    }
+
+    // Lượt định kỳ giữ lease tới hết một chu kỳ: node khác tới lượt trong chu kỳ đó sẽ bỏ qua
+    @Scheduled(initialDelayString = "${scheduler.interval-ms:300000}", fixedDelayString = "${scheduler.interval-ms:300000}")
+    void runAllQuietly() {
+        if (!enabled) {
+            return;
+        }
+        for (String job : jobs.keySet()) {
+            try {
+                runWithLease(job, interval);
+            } catch (RuntimeException e) {
+                log.warn("Scheduled job {} failed", job, e);
+            }
+        }
+    }
+
+    private ScheduledJobResultDTO runWithLease(String job, Duration lockAtLeast) {
+        if (!lease.tryAcquire(job, lockAtMost)) {
+            meterRegistry.timer(DURATION, "job", job, "outcome", "skipped").record(Duration.ZERO);
+            return new ScheduledJobResultDTO(job, false, 0, 0);
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failed";
+        try {
+            int rows = jobs.get(job).get();
+            outcome = "success";
+            DistributionSummary.builder(ROWS).baseUnit("rows").tag("job", job).register(meterRegistry).record(rows);
+            long millis = Duration.between(startedAt, LocalDateTime.now()).toMillis();
+            if (rows > 0) {
+                log.info("Scheduled job {} processed {} rows in {} ms", job, rows, millis);
+            }
+            return new ScheduledJobResultDTO(job, true, rows, millis);
+        } finally {
+            sample.stop(meterRegistry.timer(DURATION, "job", job, "outcome", outcome));
+            lease.release(job, startedAt.plus(lockAtLeast));
+        }
+    }
+
+    // Đóng các hoạt động có endDate trước now. Trả về số hoạt động đã đóng
+    public int closeEndedActivities(LocalDateTime now) {
+        LocalDateTime afterEnd = KEYSET_START;
+        String afterId = "";
+        int total = 0;
+        while (true) {
+            List<Object[]> chunk = activityRepository.findEndedChunk(now, afterEnd, afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                return total;
+            }
+            List<String> ids = chunk.stream().map(row -> (String) row[0]).toList();
+            total += transactionTemplate.execute(status -> {
+                int closed = activityRepository.close(ids, now);
+                // client đang xem hoạt động (SSE) nhận trạng thái mới sau khi commit
+                ids.forEach(id -> eventPublisher.publishEvent(new ActivityChangedEvent(id)));
+                return closed;
+            });
+            Object[] last = chunk.get(chunk.size() - 1);
+            afterEnd = (LocalDateTime) last[1];
+            afterId = (String) last[0];
+            if (chunk.size() < chunkSize) {
+                return total;
+            }
+        }
+    }
+
+    // Chuyển bài đăng còn chờ duyệt, tạo trước cutoff, sang Expired. Bài cũ chưa có created_at (danh sách
+    // bài đăng vẫn liệt kê chúng ở cuối) không biết tuổi nên coi như tạo trước mọi cutoff. Trả về số bài đã chuyển
+    public int expireStalePosts(LocalDateTime cutoff) {
+        LocalDateTime afterCreated = KEYSET_START;
+        String afterId = "";
+        int total = 0;
+        while (true) {
+            List<Object[]> chunk = postRepository.findStaleChunk(cutoff, afterCreated, afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            total += expire(chunk.stream().map(row -> (String) row[0]).toList());
+            Object[] last = chunk.get(chunk.size() - 1);
+            afterCreated = (LocalDateTime) last[1];
+            afterId = (String) last[0];
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        String afterUndatedId = "";
+        while (true) {
+            List<String> ids = postRepository.findUndatedStaleChunk(afterUndatedId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return total;
+            }
+            total += expire(ids);
+            afterUndatedId = ids.get(ids.size() - 1);
+            if (ids.size() < chunkSize) {
+                return total;
+            }
+        }
+    }
+
+    private int expire(List<String> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            int expired = postRepository.expire(ids, now);
+            // index tìm kiếm và client đang theo dõi cập nhật sau khi commit
+            eventPublisher.publishEvent(new PostsStateChangedEvent(ids));
+            return expired;
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Lease theo tên job trong bảng scheduler_leases để chỉ một node chạy mỗi lượt (kiểu ShedLock).
+// Chiếm lease là một câu UPDATE có điều kiện locked_until đã qua, nên không cần khóa nào khác; node chết giữa chừng
+// thì lease tự hết hạn sau lockAtMost. Thời gian lấy theo đồng hồ của node, nên lockAtMost phải lớn hơn độ lệch giờ
+// giữa các node cộng thời gian chạy dài nhất của job
+@Component
+public class SchedulerLease {
+
+    private final JdbcTemplate jdbcTemplate;
+    // pid@hostname, chỉ để biết node nào đang giữ lease
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    public SchedulerLease(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // true nếu node này giữ lease của job tới now + lockAtMost
+    public boolean tryAcquire(String name, Duration lockAtMost) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp until = Timestamp.valueOf(now.plus(lockAtMost));
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_leases SET locked_until = ?, locked_at = ?, locked_by = ? " +
+                        "WHERE name = ? AND locked_until <= ?",
+                until, Timestamp.valueOf(now), owner, name, Timestamp.valueOf(now));
+        if (updated == 1) {
+            return true;
+        }
+        // lần đầu job chạy trên database này: node nào INSERT được trước thì giữ lease
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_leases (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                    name, until, Timestamp.valueOf(now), owner);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Trả lease; keepUntil ở tương lai giữ lease tới lúc đó để node khác không chạy lại ngay cùng một lượt
+    public void release(String name, LocalDateTime keepUntil) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE scheduler_leases SET locked_until = ? WHERE name = ? AND locked_by = ?",
+                Timestamp.valueOf(keepUntil.isAfter(now) ? keepUntil : now), name, owner);
+    }
+
+    String owner() {
+        return owner;
+    }
+}
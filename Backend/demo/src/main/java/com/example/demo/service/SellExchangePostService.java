@@ -1,28 +1,49 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.PostCursor;
 import com.example.demo.dto.PostDTO;
+import com.example.demo.dto.PostQueryFilter;
+import com.example.demo.dto.PostSummaryDTO;
 import com.example.demo.enumpack.PostStateType;
 import com.example.demo.enumpack.PostStatusType;
 import com.example.demo.enumpack.PostType;
+import com.example.demo.event.PostChangedEvent;
 import com.example.demo.model.Item;
 import com.example.demo.model.SellExchangePost;
 import com.example.demo.model.UserAccount;
 import com.example.demo.repository.ItemRepository;
 import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.SellExchangePostSpecifications;
 import com.example.demo.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class SellExchangePostService {
 
+    public static final int DEFAULT_PAGE_SIZE = CursorPage.DEFAULT_LIMIT;
+    public static final int MAX_PAGE_SIZE = CursorPage.MAX_LIMIT;
+    // Chỉ cho phép sắp xếp theo các cột có index (V2, V11), tránh ORDER BY trên cột không có index hoặc không tồn tại
+    public static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "updatedAt", "price", "title");
+
+    @Autowired
+    private IdGenerator idGenerator;
+
     @Autowired
     private SellExchangePostRepository postRepository;
 
@@ -32,10 +53,13 @@ public class SellExchangePostService {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public SellExchangePost createPost(PostDTO postDTO) {
         // Fetch related entities
-        String postId = UUID.randomUUID().toString();
+        String postId = idGenerator.next();
 
         // Fetch the seller (UserAccount)
         UserAccount seller = userAccountRepository.findById(postDTO.getSellerId())
@@ -59,19 +83,112 @@ public class SellExchangePostService {
         post.setUpdatedAt(LocalDateTime.now());
 
         // Save the post
-        return postRepository.save(post);
+        SellExchangePost saved = postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(saved, PostChangedEvent.ChangeType.CREATED));
+        return saved;
+    }
+
+    // Tra version (không nạp entity) để so với If-None-Match
+    public Optional<String> getPostVersionTag(String postId) {
+        return postRepository.findVersionTag(postId);
     }
 
     public Optional<SellExchangePost> getPostById(String postId) {
         return postRepository.findById(postId);
     }
 
+    // Kèm seller, item và category trong cùng câu SELECT
+    public List<SellExchangePost> getPostsByIds(Collection<String> postIds) {
+        return postRepository.findByPostIdIn(postIds);
+    }
+
     public List<SellExchangePost> getAllPosts() {
          return postRepository.findAll();
     }
 
+    // Lấy một trang bài đăng theo keyset cursor, các filter null sẽ bị bỏ qua
+    public CursorPage<SellExchangePost> getPostsPage(PostType type, PostStatusType status, PostStateType state,
+                                                     String categoryId, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<SellExchangePost> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = postRepository.findFirstPage(type, status, state, categoryId, pageable);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            rows = after.getCreatedAt() == null
+                    ? postRepository.findUndatedPageAfter(type, status, state, categoryId, after.getPostId(), pageable)
+                    : postRepository.findPageAfter(type, status, state, categoryId,
+                            after.getCreatedAt(), after.getPostId(), pageable);
+        }
+        return toPage(rows, pageSize, PostCursor::of);
+    }
+
+    // Giống getPostsPage nhưng trả về projection rút gọn (không load seller/item/category entity)
+    public CursorPage<PostSummaryDTO> getPostSummariesPage(PostType type, PostStatusType status, PostStateType state,
+                                                           String categoryId, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<PostSummaryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = postRepository.findSummaryFirstPage(type, status, state, categoryId, pageable);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            rows = after.getCreatedAt() == null
+                    ? postRepository.findSummaryUndatedPageAfter(type, status, state, categoryId,
+                            after.getPostId(), pageable)
+                    : postRepository.findSummaryPageAfter(type, status, state, categoryId,
+                            after.getCreatedAt(), after.getPostId(), pageable);
+        }
+        return toPage(rows, pageSize, summary -> new PostCursor(summary.getCreatedAt(), summary.getPostId()));
+    }
+
+    // Kết hợp mọi filter thành một câu SQL (Specification), phân trang và sắp xếp ở database.
+    // sort có dạng "field" hoặc "field,asc|desc", mặc định createdAt,desc; post_id luôn được thêm làm tiebreaker
+    public Page<SellExchangePost> queryPosts(PostQueryFilter filter, int page, Integer size, String sort) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && filter.getCreatedFrom().isAfter(filter.getCreatedTo())) {
+            throw new IllegalArgumentException("createdFrom must not be after createdTo");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        Pageable pageable = PageRequest.of(page, resolvePageSize(size), parseSort(sort));
+        return postRepository.findAll(SellExchangePostSpecifications.matching(filter), pageable);
+    }
+
+    private Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(Sort.Direction.DESC, "createdAt", "postId");
+        }
+        String[] parts = sort.split(",");
+        String field = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Cannot sort by " + field + ", allowed: " + SORTABLE_FIELDS);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.DESC;
+        return Sort.by(direction, field, "postId");
+    }
+
+    private int resolvePageSize(Integer limit) {
+        return CursorPage.resolveLimit(limit);
+    }
+
+    private <T> CursorPage<T> toPage(List<T> rows, int pageSize, Function<T, PostCursor> cursorOf) {
+        return CursorPage.of(rows, pageSize, row -> cursorOf.apply(row).encode());
+    }
+
     public List<SellExchangePost> getPostsBySellerId(String sellerId) {
-        return null;//postRepository.findBySellerUserId(sellerId);
+        return postRepository.findBySellerId(sellerId);
     }
 
     public List<SellExchangePost> getPostsByType(PostType type) {
@@ -103,6 +220,7 @@ public class SellExchangePostService {
         existingPost.setUpdatedAt(LocalDateTime.now());
 
         postRepository.save(existingPost);
+        eventPublisher.publishEvent(new PostChangedEvent(existingPost, PostChangedEvent.ChangeType.UPDATED));
         return Optional.of(existingPost);
     }
 
@@ -110,6 +228,7 @@ public class SellExchangePostService {
         Optional<SellExchangePost> existingPost = postRepository.findById(postId);
         if (existingPost.isPresent()) {
             postRepository.deleteById(postId);
+            eventPublisher.publishEvent(new PostChangedEvent(existingPost.get(), PostChangedEvent.ChangeType.DELETED));
             return true;
         }
         return false;
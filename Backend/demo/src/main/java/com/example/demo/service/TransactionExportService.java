@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TransactionExportRow;
+import com.example.demo.enumpack.TransactionStatus;
+import com.example.demo.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Export giao dịch cho dashboard admin: đọc bằng cursor (fetch size cố định) dưới dạng projection phẳng
+// và ghi thẳng ra response từng dòng, nên bộ nhớ dùng không phụ thuộc số dòng
+@Service
+public class TransactionExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] CSV_HEADER = {
+            "transactionId", "type", "status", "createdAt", "userId", "userName", "userEmail",
+            "postId", "postTitle", "postPrice", "activityId", "activityTitle", "itemId", "itemName"
+    };
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (expected csv or ndjson)");
+        }
+    }
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+    }
+
+    // null/rỗng là không lọc theo status
+    public TransactionStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        TransactionStatus parsed = TransactionStatus.fromString(status);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Unknown transaction status: " + status);
+        }
+        return parsed;
+    }
+
+    // Stream của Spring Data chỉ đọc được trong transaction, nên cả vòng ghi nằm trong một transaction chỉ đọc.
+    // Trả về số dòng đã ghi.
+    @Transactional(readOnly = true)
+    public long export(Format format, LocalDateTime from, LocalDateTime to, TransactionStatus statusFilter,
+                       OutputStream out) {
+        validateRange(from, to);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long count = 0;
+        try (Stream<TransactionExportRow> rows = transactionRepository.streamForExport(from, to, statusFilter)) {
+            Iterator<TransactionExportRow> iterator = rows.iterator();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, (Object[]) CSV_HEADER);
+                while (iterator.hasNext()) {
+                    TransactionExportRow row = iterator.next();
+                    writeCsvLine(writer, row.getTransactionId(), row.getType(), row.getStatus(), row.getCreatedAt(),
+                            row.getUserId(), row.getUserName(), row.getUserEmail(), row.getPostId(),
+                            row.getPostTitle(), row.getPostPrice(), row.getActivityId(), row.getActivityTitle(),
+                            row.getItemId(), row.getItemName());
+                    count++;
+                }
+            } else {
+                ObjectWriter rowWriter = objectMapper.writerFor(TransactionExportRow.class);
+                while (iterator.hasNext()) {
+                    writer.write(rowWriter.writeValueAsString(iterator.next()));
+                    writer.write('\n');
+                    count++;
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // thường do client ngắt kết nối giữa chừng: dừng đọc, cursor được đóng khi thoát try
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    public String fileName(Format format) {
+        return "transactions." + format.getExtension();
+    }
+
+    private static void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: bọc trong dấu nháy kép khi có dấu phẩy, nháy kép hoặc xuống dòng
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
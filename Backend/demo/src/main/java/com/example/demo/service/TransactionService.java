@@ -1,18 +1,28 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.TransitionResultDTO;
+import com.example.demo.enumpack.TransactionStatus;
 import com.example.demo.model.*;
 import com.example.demo.repository.*;
 import jakarta.transaction.Transactional;
+import com.example.demo.event.PostsStateChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class TransactionService {
+    @Autowired
+    private IdGenerator idGenerator;
     @Autowired
     private TransactionRepository transactionRepository;
     @Autowired
@@ -23,32 +33,81 @@ public class TransactionService {
     private ActivityRepository activityRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private TransactionStateService transactionStateService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Thời gian bài đăng được giữ cho một giao dịch còn Pending
+    @Value("${transactions.reservation-ttl-minutes:30}")
+    private long reservationTtlMinutes;
 
     public List<Transaction> getAll() {
         return transactionRepository.findAll();
     }
 
-    @Transactional
-    public Transaction createTransaction(String postId, String userId, String type) {
-        // Fetch related entities
-        SellExchangePost post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-        Item item = itemRepository.findById(post.getItem().getItemId())
-                .orElseThrow(() -> new RuntimeException("Item not found"));
+    // Tạo giao dịch mua và giữ bài đăng cho người mua: nhiều người bấm mua cùng lúc thì chỉ một người thắng, những
+    // người còn lại nhận 409. Cùng một user gửi lại cùng Idempotency-Key thì nhận lại giao dịch đã tạo
+    public Transaction createTransaction(String postId, String userId, String type, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<Transaction> existing = transactionRepository.findByUserUserIdAndIdempotencyKey(userId, idempotencyKey);
+            if (existing.isPresent()) {
+                return sameRequest(existing.get(), postId);
+            }
+        }
+        try {
+            return transactionTemplate.execute(status -> reserveAndCreate(postId, userId, type, idempotencyKey));
+        } catch (ResponseStatusException | DataIntegrityViolationException e) {
+            // request cùng key chạy song song đã commit trước (thắng giữ chỗ hoặc ghi key trước)
+            if (idempotencyKey != null) {
+                Optional<Transaction> existing =
+                        transactionRepository.findByUserUserIdAndIdempotencyKey(userId, idempotencyKey);
+                if (existing.isPresent()) {
+                    return sameRequest(existing.get(), postId);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Transaction reserveAndCreate(String postId, String userId, String type, String idempotencyKey) {
+        String transactionId = idGenerator.next();
+        LocalDateTime now = LocalDateTime.now();
+        if (postRepository.reserve(postId, transactionId, now.plusMinutes(reservationTtlMinutes), now) == 0) {
+            if (!postRepository.existsById(postId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Post is reserved, sold or not open for purchase");
+        }
+        SellExchangePost post = postRepository.findById(postId).orElseThrow();
         UserAccount user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        transactionRepository.cancelPendingForPost(postId);
 
-        // Create new transaction
         Transaction transaction = new Transaction();
-        transaction.setTransactionId(UUID.randomUUID().toString());
+        transaction.setTransactionId(transactionId);
         transaction.setPost(post);
-        transaction.setItem(item);
+        transaction.setItem(post.getItem());
         transaction.setUser(user);
         transaction.setType(type); // "Liquidation" or "Exchange"
-        transaction.setStatus("Pending"); // Initial status
-        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setStatus(TransactionStatus.Pending); // Initial status
+        transaction.setCreatedAt(now);
+        transaction.setIdempotencyKey(idempotencyKey);
 
-        return transactionRepository.save(transaction);
+        // flush ngay để trùng Idempotency-Key lỗi trong transaction này
+        Transaction saved = transactionRepository.saveAndFlush(transaction);
+        eventPublisher.publishEvent(new PostsStateChangedEvent(List.of(postId)));
+        return saved;
+    }
+
+    private static Transaction sameRequest(Transaction existing, String postId) {
+        if (existing.getPost() == null || !existing.getPost().getPostId().equals(postId)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        return existing;
     }
 
     @Transactional
@@ -62,16 +121,32 @@ public class TransactionService {
 
         // Create new transaction
         Transaction transaction = new Transaction();
-        transaction.setTransactionId(UUID.randomUUID().toString());
+        transaction.setTransactionId(idGenerator.next());
         transaction.setActivity(activity);
         transaction.setUser(user);
         transaction.setType(type); // "Liquidation" or "Exchange"
-        transaction.setStatus("PENDING"); // Initial status
+        transaction.setStatus(TransactionStatus.Pending); // Initial status
         transaction.setCreatedAt(LocalDateTime.now());
 
         return transactionRepository.save(transaction);
     }
 
+    // Hoàn tất giao dịch; sổ cái ví được ghi trong TransactionStateService. Gọi lại khi đã Completed thì không ghi thêm
+    public Transaction completeTransaction(String transactionId) {
+        return changeStatus(transactionId, TransactionStatus.Completed);
+    }
+
+    @Transactional
+    public Transaction changeStatus(String transactionId, TransactionStatus status) {
+        TransitionResultDTO result = transactionStateService.transition(List.of(transactionId), status);
+        if (!result.getErrors().isEmpty()) {
+            String message = result.getErrors().get(0).getMessage();
+            HttpStatus code = transactionRepository.existsById(transactionId) ? HttpStatus.CONFLICT : HttpStatus.NOT_FOUND;
+            throw new ResponseStatusException(code, message);
+        }
+        return transactionRepository.findById(transactionId).orElseThrow();
+    }
+
     public Optional<Transaction> getById(String id) {
         return transactionRepository.findById(id);
     }
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TransitionErrorDTO;
+import com.example.demo.dto.TransitionResultDTO;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.enumpack.TransactionStatus;
+import com.example.demo.enumpack.WalletEntryType;
+import com.example.demo.event.PostsStateChangedEvent;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Chuyển trạng thái giao dịch theo TransactionStatus.next(). Cả lô được xử lý bằng một câu SELECT ... FOR UPDATE,
+// một UPDATE trên transactions và một UPDATE trên bài đăng, thay vì load-sửa-save từng entity.
+@Service
+public class TransactionStateService {
+
+    public static final int MAX_BATCH = 500;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public TransitionResultDTO transition(Collection<String> transactionIds, TransactionStatus target) {
+        if (target == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+        if (transactionIds == null || transactionIds.isEmpty()) {
+            throw new IllegalArgumentException("transactionIds is required");
+        }
+        Set<String> ids = new LinkedHashSet<>(transactionIds);
+        if (ids.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH + " transactions per request");
+        }
+
+        // các dòng bị khóa tới khi commit nên kiểm tra bước chuyển ở đây không bị request khác chen vào
+        Map<String, Object[]> current = new HashMap<>();
+        for (Object[] row : transactionRepository.lockStatuses(ids)) {
+            current.put((String) row[0], row);
+        }
+
+        List<String> transitioned = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        List<TransitionErrorDTO> errors = new ArrayList<>();
+        Set<String> postIds = new LinkedHashSet<>();
+        for (String id : ids) {
+            Object[] row = current.get(id);
+            if (row == null) {
+                errors.add(new TransitionErrorDTO(id, "Transaction not found"));
+                continue;
+            }
+            TransactionStatus status = row[1] != null ? (TransactionStatus) row[1] : TransactionStatus.Pending;
+            if (status == target) {
+                unchanged.add(id);
+            } else if (!status.canMoveTo(target)) {
+                errors.add(new TransitionErrorDTO(id, "Cannot move from " + status + " to " + target));
+            } else {
+                transitioned.add(id);
+                if (row[2] != null) {
+                    postIds.add((String) row[2]);
+                }
+            }
+        }
+        if (transitioned.isEmpty()) {
+            return new TransitionResultDTO(target, transitioned, unchanged, errors);
+        }
+
+        transactionRepository.updateStatus(transitioned, target);
+        if (!postIds.isEmpty()) {
+            if (target == TransactionStatus.Cancelled) {
+                postRepository.release(postIds, transitioned, LocalDateTime.now());
+            } else {
+                postRepository.updateState(postIds, target.toPostState(),
+                        target == TransactionStatus.Completed ? PostStatusType.Completed : null, LocalDateTime.now());
+            }
+            eventPublisher.publishEvent(new PostsStateChangedEvent(new ArrayList<>(postIds)));
+        }
+        if (target == TransactionStatus.Completed) {
+            settle(transitioned);
+        }
+        return new TransitionResultDTO(target, transitioned, unchanged, errors);
+    }
+
+    // Hoàn tất giao dịch mua: cộng tiền người bán, trừ tiền người mua trong sổ cái ví (không áp dụng cho trao đổi)
+    private void settle(List<String> transactionIds) {
+        for (Object[] row : transactionRepository.findSettlements(transactionIds)) {
+            String transactionId = (String) row[0];
+            String sellerId = (String) row[1];
+            String buyerId = (String) row[2];
+            BigDecimal price = (BigDecimal) row[3];
+            if (row[4] == PostType.Exchange || price == null || price.signum() <= 0 || buyerId == null) {
+                continue;
+            }
+            walletService.record(sellerId, price, WalletEntryType.Sale, transactionId, null);
+            walletService.record(buyerId, price.negate(), WalletEntryType.Purchase, transactionId, null);
+        }
+    }
+}
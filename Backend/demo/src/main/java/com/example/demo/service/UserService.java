@@ -2,6 +2,7 @@ package com.example.demo.service;
 
 import com.example.demo.dto.UserDTO;
 import com.example.demo.enumpack.UserStatus;
+import com.example.demo.enumpack.WalletEntryType;
 import com.example.demo.model.Role;
 import com.example.demo.model.SellExchangePost;
 import com.example.demo.model.UserAccount;
@@ -16,11 +17,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
+    @Autowired
+    private IdGenerator idGenerator;
+
     @Autowired
     private RoleRepository roleRepository;
 
@@ -38,10 +41,19 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private WalletService walletService;
+
     public UserAccount createUser(UserDTO userDTO) {
         UserAccount user = toEntity(userDTO);
-        user.setPasswordHash(passwordEncoder.encode(userDTO.getPassword())); // encode here
-        return userRepository.save(user);
+        // encode here; PasswordEncoder tự chạy BCrypt trên pool có giới hạn
+        user.setPasswordHash(passwordEncoder.encode(userDTO.getPassword()));
+        UserAccount saved = userRepository.save(user);
+        // số dư ban đầu cũng phải có trong sổ cái, vì số dư ví được tính từ sổ cái
+        if (saved.getWalletBalance() != null && saved.getWalletBalance().signum() != 0) {
+            walletService.record(saved.getUserId(), saved.getWalletBalance(), WalletEntryType.Opening, null, null);
+        }
+        return saved;
     }
 
     public Optional<UserAccount> updateUser(String id, UserAccount updatedUser) {
@@ -82,7 +94,7 @@ public class UserService {
 
     private UserAccount toEntity(UserDTO dto) {
         UserAccount user = new UserAccount();
-        user.setUserId(dto.getUserId() != null ? dto.getUserId() : UUID.randomUUID().toString());
+        user.setUserId(dto.getUserId() != null ? dto.getUserId() : idGenerator.next());
         user.setName(dto.getName());
         user.setEmail(dto.getEmail());
         user.setRoles(convertListStringToSetRole(dto.getRoles()));
@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.WalletAdjustmentDTO;
+import com.example.demo.dto.WalletDTO;
+import com.example.demo.dto.WalletEntryDTO;
+import com.example.demo.enumpack.WalletEntryType;
+import com.example.demo.model.WalletLedgerEntry;
+import com.example.demo.model.WalletSnapshot;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.WalletLedgerRepository;
+import com.example.demo.repository.WalletSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Ví của người dùng dựa trên sổ cái chỉ thêm mới (wallet_ledger): ghi tiền là INSERT một dòng, không đọc-sửa-ghi
+// dòng users nên nhiều người mua cùng lúc từ một người bán không tranh nhau một row lock.
+// Số dư = snapshot + tổng các dòng sau snapshot. Một tác vụ định kỳ (@Scheduled) cộng dồn các dòng mới vào
+// wallet_snapshots (và bản sao users.wallet_balance) theo lô, nên phần phải cộng khi đọc luôn nhỏ.
+@Service
+public class WalletService {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletService.class);
+    private static final int AMOUNT_SCALE = 2; // amount là decimal(38,2)
+    private static final int MAX_ENTRIES_PAGE = 200;
+    private static final int BATCH_SIZE = 500;
+
+    private final WalletLedgerRepository ledgerRepository;
+    private final WalletSnapshotRepository snapshotRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long materializeGraceMillis;
+
+    public WalletService(WalletLedgerRepository ledgerRepository,
+                         WalletSnapshotRepository snapshotRepository,
+                         UserRepository userRepository,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${wallet.materialize-grace-ms:300000}") long materializeGraceMillis) {
+        this.ledgerRepository = ledgerRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.materializeGraceMillis = materializeGraceMillis;
+    }
+
+    // Thêm một dòng vào sổ cái, tham gia transaction của nơi gọi (ví dụ hoàn tất giao dịch)
+    @Transactional
+    public WalletLedgerEntry record(String userId, BigDecimal amount, WalletEntryType type, String transactionId, String note) {
+        WalletLedgerEntry entry = new WalletLedgerEntry();
+        entry.setUserId(userId);
+        entry.setAmount(amount.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY));
+        entry.setEntryType(type);
+        entry.setTransactionId(transactionId);
+        entry.setNote(note);
+        entry.setCreatedAt(LocalDateTime.now());
+        return ledgerRepository.save(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public WalletDTO getWallet(String userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return new WalletDTO(userId, getBalance(userId));
+    }
+
+    // Hai câu đọc theo khóa: snapshot của user và tổng các dòng sau nó
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(String userId) {
+        WalletSnapshot snapshot = snapshotRepository.findById(userId).orElse(null);
+        BigDecimal base = snapshot != null ? snapshot.getBalance() : BigDecimal.ZERO;
+        long after = snapshot != null ? snapshot.getLastEntryId() : 0L;
+        return base.add(ledgerRepository.sumAfter(userId, after)).setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY);
+    }
+
+    public List<WalletEntryDTO> getEntries(String userId, int limit) {
+        if (limit < 1 || limit > MAX_ENTRIES_PAGE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_ENTRIES_PAGE);
+        }
+        return ledgerRepository.findByUserIdOrderByEntryIdDesc(userId, PageRequest.of(0, limit)).stream()
+                .map(entry -> new WalletEntryDTO(entry.getEntryId(), entry.getAmount(), entry.getEntryType(),
+                        entry.getTransactionId(), entry.getNote(), entry.getCreatedAt()))
+                .toList();
+    }
+
+    @Transactional
+    public WalletDTO adjust(String userId, WalletAdjustmentDTO adjustment) {
+        if (adjustment.getAmount() == null || adjustment.getAmount().signum() == 0) {
+            throw new IllegalArgumentException("amount must be non-zero");
+        }
+        if (adjustment.getAmount().scale() > AMOUNT_SCALE) {
+            throw new IllegalArgumentException("amount must have at most " + AMOUNT_SCALE + " decimal places");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        record(userId, adjustment.getAmount(), WalletEntryType.Adjustment, null, adjustment.getNote());
+        return new WalletDTO(userId, getBalance(userId));
+    }
+
+    public long latestEntryId() {
+        Long latest = ledgerRepository.findLatestEntryId();
+        return latest != null ? latest : 0L;
+    }
+
+    // Cộng các dòng trong (mốc hiện tại, upToEntryId] vào snapshot của từng user và cập nhật users.wallet_balance,
+    // tất cả trong một transaction. Trả về số user được cập nhật
+    public int materialize(long upToEntryId) {
+        Integer updated = transactionTemplate.execute(status -> {
+            long watermark = snapshotRepository.findWatermark();
+            if (upToEntryId <= watermark) {
+                return 0;
+            }
+            Map<String, BigDecimal> deltas = new HashMap<>();
+            for (Object[] row : ledgerRepository.sumByUserBetween(watermark, upToEntryId)) {
+                deltas.put((String) row[0], (BigDecimal) row[1]);
+            }
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+
+            Map<String, WalletSnapshot> snapshots = snapshotRepository.findAllById(deltas.keySet()).stream()
+                    .collect(Collectors.toMap(WalletSnapshot::getUserId, Function.identity()));
+            LocalDateTime now = LocalDateTime.now();
+            List<WalletSnapshot> changed = new ArrayList<>(deltas.size());
+            deltas.forEach((userId, delta) -> {
+                WalletSnapshot snapshot = snapshots.get(userId);
+                if (snapshot == null) {
+                    snapshot = new WalletSnapshot();
+                    snapshot.setUserId(userId);
+                    snapshot.setBalance(BigDecimal.ZERO);
+                }
+                snapshot.setBalance(snapshot.getBalance().add(delta));
+                snapshot.setLastEntryId(upToEntryId);
+                snapshot.setUpdatedAt(now);
+                changed.add(snapshot);
+            });
+            snapshotRepository.saveAll(changed);
+            // users.wallet_balance chỉ là bản sao để các API cũ vẫn thấy số dư (trễ khoảng grace cộng một chu kỳ)
+            jdbcTemplate.batchUpdate("UPDATE users SET wallet_balance = ? WHERE user_id = ?", changed, BATCH_SIZE,
+                    (ps, snapshot) -> {
+                        ps.setBigDecimal(1, snapshot.getBalance());
+                        ps.setString(2, snapshot.getUserId());
+                    });
+            return changed.size();
+        });
+        return updated != null ? updated : 0;
+    }
+
+    // Mốc chỉ được tiến tới dòng mới nhất tạo trước (now - grace). entry_id cấp lúc INSERT, nên mọi dòng có id nhỏ hơn
+    // thuộc transaction đã bắt đầu trước thời điểm đó; grace lớn hơn transaction dài nhất thì các dòng này đều đã
+    // commit (hoặc rollback) và không bị mốc vượt qua rồi bỏ sót. Trả về số user được cập nhật
+    public int materializeSettled() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(materializeGraceMillis));
+        return ledgerRepository.findFirstByCreatedAtBeforeOrderByEntryIdDesc(cutoff)
+                .map(entry -> materialize(entry.getEntryId()))
+                .orElse(0);
+    }
+
+    // Chạy trên TaskScheduler chung (SchedulingConfig)
+    @Scheduled(initialDelayString = "${wallet.snapshot-interval-ms:30000}", fixedDelayString = "${wallet.snapshot-interval-ms:30000}")
+    void materializeQuietly() {
+        try {
+            int users = materializeSettled();
+            if (users > 0) {
+                log.debug("Wallet snapshots updated for {} users", users);
+            }
+        } catch (RuntimeException e) {
+            // ví dụ optimistic lock khi instance khác đang cộng cùng khoảng; lần sau sẽ thử lại
+            log.warn("Wallet snapshot update failed: {}", e.getMessage());
+        }
+    }
+}
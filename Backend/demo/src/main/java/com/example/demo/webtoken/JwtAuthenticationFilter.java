@@ -0,0 +1,73 @@
+package com.example.demo.webtoken;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Đọc "Authorization: Bearer <jwt>", parse token đúng một lần và đặt Authentication vào SecurityContext.
+// Token không hợp lệ thì bỏ qua, để các rule trong SecurityConfig quyết định.
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache tokenCache;
+
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                   VerifiedTokenCache tokenCache) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        UserDetails user = tokenCache.get(token);
+        if (user == null) {
+            try {
+                Claims claims = jwtService.parseClaims(token);
+                UserDetails loaded = userDetailsService.loadUserByUsername(claims.getSubject());
+                // Không giữ password hash trong cache
+                user = new User(loaded.getUsername(), "", loaded.isEnabled(), loaded.isAccountNonExpired(),
+                        loaded.isCredentialsNonExpired(), loaded.isAccountNonLocked(), loaded.getAuthorities());
+                tokenCache.put(token, user, claims.getExpiration());
+            } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        filterChain.doFilter(request, response);
+    }
+}
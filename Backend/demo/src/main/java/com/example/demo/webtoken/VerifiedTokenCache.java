@@ -0,0 +1,72 @@
+package com.example.demo.webtoken;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+// Cache token đã xác thực -> principal, để các request lặp lại không phải verify HMAC
+// và load user từ DB. Mỗi entry sống tối đa ttl-seconds và không bao giờ quá hạn của token.
+@Component
+public class VerifiedTokenCache {
+
+    private record VerifiedToken(UserDetails user, Instant expiresAt) {}
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.cache.ttl-seconds:300}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long untilExpiry = Duration.between(Instant.now(), verified.expiresAt()).toNanos();
+                        return Math.min(untilExpiry, ttlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(token, verified, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            // Cùng bộ tag với các cache của Spring (cache, cache.manager, name): Prometheus bỏ qua meter cùng tên
+            // nhưng khác tập tag, nếu lệch thì các cache category/role sẽ không có metrics
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtTokens",
+                    "cache.manager", "verifiedTokenCache", "name", "jwtTokens");
+        }
+    }
+
+    public UserDetails get(String token) {
+        VerifiedToken verified = cache.getIfPresent(token);
+        return verified != null ? verified.user() : null;
+    }
+
+    public void put(String token, UserDetails user, Date expiresAt) {
+        cache.put(token, new VerifiedToken(user, expiresAt.toInstant()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,16 @@
+-- Lease cho job định kỳ (ScheduledJobService): node nào UPDATE được dòng của job (locked_until đã qua) thì chạy,
+-- các node khác bỏ qua lượt đó
+create table scheduler_leases (
+    name varchar(64) not null,
+    locked_until datetime(6) not null,
+    locked_at datetime(6) not null,
+    locked_by varchar(255) not null,
+    primary key (name)
+);
+
+-- Hoạt động đã kết thúc được đóng bởi job close-ended-activities
+alter table activities add column closed_at datetime(6);
+create index idx_activities_closed_end on activities (closed_at, end_date);
+
+-- Bài đăng chờ duyệt quá lâu được job expire-stale-posts chuyển sang Expired
+alter table sell_exchange_posts modify column status enum ('Approved','Completed','Expired','Pending','Rejected') not null;
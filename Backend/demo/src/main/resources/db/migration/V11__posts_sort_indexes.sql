@@ -0,0 +1,5 @@
+-- Các cột sắp xếp được của GET /api/posts/query (SellExchangePostService.SORTABLE_FIELDS), để ORDER BY ... LIMIT
+-- đọc theo index thay vì filesort. post_id (khóa phụ của ORDER BY) đã có sẵn ở cuối mọi index phụ của InnoDB
+create index idx_posts_price on sell_exchange_posts (price);
+create index idx_posts_title on sell_exchange_posts (title);
+create index idx_posts_updated on sell_exchange_posts (updated_at);
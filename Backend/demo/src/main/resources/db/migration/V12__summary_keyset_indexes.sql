@@ -0,0 +1,4 @@
+-- Keyset pagination của GET /api/items/summary (created_at DESC, item_id DESC) và GET /api/activities/summary
+-- (end_date DESC, activity_id DESC): đọc theo index, khóa chính đã có sẵn ở cuối index phụ của InnoDB
+create index idx_items_created on items (created_at);
+create index idx_activities_end on activities (end_date);
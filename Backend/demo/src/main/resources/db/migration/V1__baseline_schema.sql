@@ -0,0 +1,119 @@
+-- Schema gốc, đúng như Hibernate đã tạo bằng ddl-auto=update.
+-- Database đang chạy sẵn được baseline ở version 1 (spring.flyway.baseline-on-migrate) nên file này không chạy lại.
+
+create table users (
+    rating decimal(38,2) not null,
+    reputation_score integer not null,
+    violation_count integer not null,
+    wallet_balance decimal(38,2) not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    avatar varchar(255),
+    class_name varchar(255),
+    email varchar(255) not null,
+    name varchar(255) not null,
+    password_hash varchar(255) not null,
+    th_class varchar(255),
+    user_id varchar(255) not null,
+    status enum ('Active','Banned') not null,
+    primary key (user_id),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table roles (
+    role_id integer not null auto_increment,
+    role_name varchar(255) not null,
+    primary key (role_id),
+    constraint uk_roles_role_name unique (role_name)
+) engine=InnoDB;
+
+create table user_role (
+    role_id integer not null,
+    user_id varchar(255) not null,
+    assigned_at varbinary(255),
+    primary key (role_id, user_id),
+    constraint fk_user_role_role foreign key (role_id) references roles (role_id),
+    constraint fk_user_role_user foreign key (user_id) references users (user_id)
+) engine=InnoDB;
+
+create table categories (
+    created_at datetime(6),
+    category_id varchar(36) not null,
+    description varchar(255),
+    name varchar(255) not null,
+    primary key (category_id),
+    constraint uk_categories_name unique (name)
+) engine=InnoDB;
+
+create table items (
+    created_at datetime(6),
+    category_id varchar(36),
+    item_id varchar(36) not null,
+    description varchar(255),
+    image_url varchar(255),
+    item_name varchar(255) not null,
+    owner_id varchar(255),
+    primary key (item_id),
+    constraint fk_items_category foreign key (category_id) references categories (category_id),
+    constraint fk_items_owner foreign key (owner_id) references users (user_id)
+) engine=InnoDB;
+
+create table sell_exchange_posts (
+    price decimal(10,2) not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    item_id varchar(36) not null,
+    description varchar(255) not null,
+    post_id varchar(255) not null,
+    product_type varchar(255) not null,
+    seller_id varchar(255) not null,
+    title varchar(255) not null,
+    state enum ('BothSent','BuyerReceived','BuyerSent','Completed','Pending','SellerReceived','SellerSent') not null,
+    status enum ('Approved','Completed','Pending','Rejected') not null,
+    type enum ('Exchange','Fundraiser','Liquidation') not null,
+    primary key (post_id),
+    constraint fk_posts_item foreign key (item_id) references items (item_id),
+    constraint fk_posts_seller foreign key (seller_id) references users (user_id)
+) engine=InnoDB;
+
+create table activities (
+    amount_raised decimal(38,2) not null,
+    goal_amount decimal(38,2) not null,
+    created_at datetime(6),
+    end_date datetime(6) not null,
+    start_date datetime(6),
+    updated_at datetime(6),
+    activity_id varchar(36) not null,
+    description varchar(255) not null,
+    image varchar(255) not null,
+    organizer_id varchar(255) not null,
+    title varchar(255) not null,
+    activity_type enum ('Donation','Fundraiser') not null,
+    primary key (activity_id),
+    constraint fk_activities_organizer foreign key (organizer_id) references users (user_id)
+) engine=InnoDB;
+
+create table activity_post (
+    quantity integer,
+    activity_id varchar(255) not null,
+    post_id varchar(255) not null,
+    primary key (activity_id, post_id),
+    constraint fk_activity_post_activity foreign key (activity_id) references activities (activity_id),
+    constraint fk_activity_post_post foreign key (post_id) references sell_exchange_posts (post_id)
+) engine=InnoDB;
+
+create table transactions (
+    created_at datetime(6),
+    activity_id varchar(36),
+    item_id varchar(36),
+    post_id varchar(255),
+    status varchar(255),
+    transaction_id varchar(255) not null,
+    type varchar(255),
+    user_id varchar(255),
+    primary key (transaction_id),
+    constraint fk_transactions_activity foreign key (activity_id) references activities (activity_id),
+    constraint fk_transactions_item foreign key (item_id) references items (item_id),
+    constraint fk_transactions_post foreign key (post_id) references sell_exchange_posts (post_id),
+    constraint fk_transactions_user foreign key (user_id) references users (user_id)
+) engine=InnoDB;
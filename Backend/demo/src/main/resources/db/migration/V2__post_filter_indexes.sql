@@ -0,0 +1,10 @@
+-- Index cho các endpoint filter: mỗi filter đi kèm created_at để dùng luôn cho ORDER BY của keyset pagination
+create index idx_posts_status_created on sell_exchange_posts (status, created_at);
+create index idx_posts_state_created on sell_exchange_posts (state, created_at);
+create index idx_posts_type_created on sell_exchange_posts (type, created_at);
+create index idx_posts_created on sell_exchange_posts (created_at);
+
+create index idx_items_category on items (category_id);
+create index idx_items_owner on items (owner_id);
+
+create index idx_transactions_user_created on transactions (user_id, created_at);
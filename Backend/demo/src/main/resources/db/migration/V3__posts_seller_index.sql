@@ -0,0 +1,2 @@
+-- Danh sách bài của một người bán (GET /api/posts/seller/{id}, /api/posts/query?sellerId=), mới nhất trước
+create index idx_posts_seller_created on sell_exchange_posts (seller_id, created_at);
@@ -0,0 +1,2 @@
+-- Export giao dịch theo khoảng ngày (GET /api/admin/transactions/export), đọc tuần tự theo created_at
+create index idx_transactions_created on transactions (created_at);
@@ -0,0 +1,5 @@
+-- Cột version (optimistic locking) dùng làm ETag cho GET bài đăng/item/hoạt động/danh mục; dòng cũ bắt đầu từ 0
+alter table sell_exchange_posts add column version bigint default 0 not null;
+alter table items add column version bigint default 0 not null;
+alter table activities add column version bigint default 0 not null;
+alter table categories add column version bigint default 0 not null;
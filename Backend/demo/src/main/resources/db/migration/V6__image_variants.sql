@@ -0,0 +1,16 @@
+-- Ảnh thu nhỏ do ImageThumbnailService sinh bất đồng bộ sau khi item/hoạt động được tạo hoặc đổi ảnh.
+-- thumbnail_url là bản dùng cho trang danh sách; image_variants giữ mọi kích thước (srcset)
+alter table items add column thumbnail_url varchar(512);
+alter table activities add column thumbnail_url varchar(512);
+
+create table image_variants (
+    owner_type varchar(20) not null,
+    owner_id varchar(36) not null,
+    width integer not null,
+    height integer not null,
+    bytes integer not null,
+    url varchar(512) not null,
+    source_url varchar(512) not null,
+    created_at datetime(6),
+    primary key (owner_type, owner_id, width)
+);
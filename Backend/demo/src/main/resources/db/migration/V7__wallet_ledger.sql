@@ -0,0 +1,34 @@
+-- Sổ cái ví: mỗi thay đổi số dư là một dòng mới (không sửa/xóa). Số dư = wallet_snapshots.balance
+-- + tổng các dòng có entry_id > last_entry_id; snapshot được WalletService cộng dồn định kỳ theo lô
+create table wallet_ledger (
+    entry_id bigint not null auto_increment,
+    user_id varchar(255) not null,
+    amount decimal(38,2) not null,
+    entry_type varchar(20) not null,
+    transaction_id varchar(36),
+    note varchar(255),
+    created_at datetime(6) not null,
+    primary key (entry_id),
+    -- hoàn tất một giao dịch hai lần không ghi thêm tiền
+    constraint uk_wallet_ledger_transaction unique (transaction_id, user_id, entry_type)
+);
+
+create index idx_wallet_ledger_user_entry on wallet_ledger (user_id, entry_id);
+
+create table wallet_snapshots (
+    user_id varchar(255) not null,
+    balance decimal(38,2) not null,
+    last_entry_id bigint not null,
+    updated_at datetime(6),
+    version bigint not null,
+    primary key (user_id)
+);
+
+-- Số dư hiện có trở thành dòng mở đầu của sổ cái
+insert into wallet_ledger (user_id, amount, entry_type, created_at)
+select user_id, wallet_balance, 'Opening', current_timestamp
+from users
+where wallet_balance <> 0;
+
+-- MAX(last_entry_id) là mốc đã cộng dồn tới
+create index idx_wallet_snapshots_last_entry on wallet_snapshots (last_entry_id);
@@ -0,0 +1,16 @@
+-- Transaction.status chuyển sang enum TransactionStatus: chuẩn hóa các giá trị cũ ("PENDING", "pending"...)
+-- về đúng tên enum; giá trị không nhận ra được coi là Pending
+update transactions
+set status = case upper(status)
+    when 'PENDING' then 'Pending'
+    when 'SELLERSENT' then 'SellerSent'
+    when 'BUYERSENT' then 'BuyerSent'
+    when 'BOTHSENT' then 'BothSent'
+    when 'SELLERRECEIVED' then 'SellerReceived'
+    when 'BUYERRECEIVED' then 'BuyerReceived'
+    when 'COMPLETED' then 'Completed'
+    when 'CANCELLED' then 'Cancelled'
+    when 'CANCELED' then 'Cancelled'
+    else 'Pending'
+end
+where status is not null;
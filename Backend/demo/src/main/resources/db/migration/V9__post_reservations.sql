@@ -0,0 +1,8 @@
+-- Giữ chỗ bài đăng cho một giao dịch mua: đặt bằng một UPDATE có điều kiện trên đúng dòng bài đăng,
+-- hết hạn sau reserved_until nếu giao dịch vẫn Pending
+alter table sell_exchange_posts add column reserved_transaction_id varchar(36);
+alter table sell_exchange_posts add column reserved_until datetime(6);
+
+-- Idempotency-Key của POST /api/transactions/create, duy nhất theo từng user (NULL không bị ràng buộc)
+alter table transactions add column idempotency_key varchar(64);
+create unique index uk_transactions_user_idempotency on transactions (user_id, idempotency_key);
@@ -0,0 +1,136 @@
+package com.example.demo.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load test đơn giản cho một endpoint của backend đang chạy: N client đồng thời gửi request liên tục
+// trong một khoảng thời gian, in ra throughput, phân bố status code và latency p50/p95/p99.
+//
+// Ví dụ đo throughput login (server chạy ở localhost:8080, user đã tồn tại):
+//   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//     "-Dexec.args=-cp %classpath com.example.demo.benchmark.HttpLoadHarness \
+//       --url=http://localhost:8080/api/auth/login --method=POST \
+//       --body={\"email\":\"student@example.com\",\"password\":\"secret\"} \
+//       --concurrency=64 --duration=30"
+// So sánh số 200 và 429 khi đổi security.password.hashing-threads / bcrypt-strength.
+public class HttpLoadHarness {
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final List<Samples> latencies = new ArrayList<>();
+
+    // Latency (ns) của một worker; chỉ giữ tối đa MAX_SAMPLES mẫu đầu tiên.
+    // Mảng tăng dần theo nhu cầu để chạy được hàng trăm worker mà không cấp phát trước 8 MB cho mỗi worker
+    private static final class Samples {
+        private static final int MAX_SAMPLES = 1 << 20;
+        private long[] values = new long[1024];
+        private int count;
+
+        void add(long nanos) {
+            if (count == values.length && count < MAX_SAMPLES) {
+                values = Arrays.copyOf(values, Math.min(count * 2, MAX_SAMPLES));
+            }
+            if (count < values.length) {
+                values[count++] = nanos;
+            }
+        }
+    }
+
+    public Result run(HttpRequest request, int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Samples samples = new Samples();
+            latencies.add(samples);
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        statusCounts.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+                    } catch (Exception e) {
+                        errors.increment();
+                    }
+                    samples.add(System.nanoTime() - start);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        return summarize(duration);
+    }
+
+    private Result summarize(Duration duration) {
+        long[] sorted = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples.values, 0, samples.count))
+                .sorted()
+                .toArray();
+
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        long total = statuses.values().stream().mapToLong(Long::longValue).sum() + errors.sum();
+        return new Result(total, total / (double) duration.toSeconds(), statuses, errors.sum(),
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int idx = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(idx, 0)] / 1_000_000.0;
+    }
+
+    public record Result(long requests, double requestsPerSecond, Map<Integer, Long> statuses, long errors,
+                         double p50Millis, double p95Millis, double p99Millis) {
+        @Override
+        public String toString() {
+            return String.format("requests=%d throughput=%.1f req/s statuses=%s errors=%d p50=%.2fms p95=%.2fms p99=%.2fms",
+                    requests, requestsPerSecond, statuses, errors, p50Millis, p95Millis, p99Millis);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int idx = arg.indexOf('=');
+            if (arg.startsWith("--") && idx > 0) {
+                options.put(arg.substring(2, idx), arg.substring(idx + 1));
+            }
+        }
+        String url = options.getOrDefault("url", "http://localhost:8080/api/posts");
+        String method = options.getOrDefault("method", "GET");
+        String body = options.get("body");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30));
+        if (options.containsKey("token")) {
+            request.header("Authorization", "Bearer " + options.get("token"));
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        System.out.printf("%s %s concurrency=%d duration=%ds%n", method, url, concurrency, duration.toSeconds());
+        System.out.println(new HttpLoadHarness().run(request.build(), concurrency, duration));
+    }
+}
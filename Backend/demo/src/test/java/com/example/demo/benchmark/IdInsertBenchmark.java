@@ -0,0 +1,99 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.enumpack.IdStrategy;
+import com.example.demo.service.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+// So sánh tốc độ INSERT vào bảng có khóa chính VARCHAR theo từng IdStrategy, khi bảng đã có sẵn nhiều dòng.
+// Mặc định chạy trên H2 trong bộ nhớ; muốn thấy ảnh hưởng của clustered index InnoDB thì trỏ vào MySQL:
+//   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//     "-Dexec.args=-Dbench.jdbc.url=jdbc:mysql://localhost:3306/bench?rewriteBatchedStatements=true \
+//       -Dbench.jdbc.user=root -Dbench.jdbc.password=... -cp %classpath com.example.demo.benchmark.IdInsertBenchmark"
+// Mỗi lần gọi chèn một lô BATCH dòng rồi commit; kết quả là số lô mỗi giây.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class IdInsertBenchmark {
+
+    private static final int BATCH = 100;
+    private static final String PAYLOAD = "x".repeat(200);
+
+    @Param({"Random", "Uuid7", "Snowflake"})
+    private IdStrategy strategy;
+
+    @Param({"500000"})
+    private int existingRows;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private IdGenerator ids;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:h2:mem:id-bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        connection = DriverManager.getConnection(url, System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS id_bench");
+            statement.execute("CREATE TABLE id_bench (id varchar(36) NOT NULL, payload varchar(255), PRIMARY KEY (id))");
+        }
+        connection.commit();
+        ids = new IdGenerator(strategy.name(), 1);
+        insert = connection.prepareStatement("INSERT INTO id_bench (id, payload) VALUES (?, ?)");
+        for (int i = 0; i < existingRows; i += BATCH) {
+            insertBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS id_bench");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH; i++) {
+            insert.setString(1, ids.next());
+            insert.setString(2, PAYLOAD);
+            insert.addBatch();
+        }
+        int inserted = insert.executeBatch().length;
+        connection.commit();
+        return inserted;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
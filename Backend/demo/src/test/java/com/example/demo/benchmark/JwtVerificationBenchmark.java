@@ -0,0 +1,75 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.webtoken.JwtService;
+import com.example.demo.webtoken.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// So sánh xác thực JWT lần đầu (verify HMAC + dựng principal) với lần đã có trong VerifiedTokenCache.
+// Chạy: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//         "-Dexec.args=-cp %classpath com.example.demo.benchmark.JwtVerificationBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtService jwtService;
+    private VerifiedTokenCache tokenCache;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        tokenCache = new VerifiedTokenCache(10_000, 300, null);
+        user = new User("student@example.com", "", List.of(new SimpleGrantedAuthority("Member")));
+        token = jwtService.generateToken(user);
+        tokenCache.put(token, user, jwtService.parseClaims(token).getExpiration());
+    }
+
+    // Đường cũ của isTokenValid: parse và verify chữ ký hai lần
+    @Benchmark
+    public boolean coldDoubleParse() {
+        return jwtService.extractUsername(token).equals(user.getUsername())
+                && jwtService.parseClaims(token).getExpiration().getTime() > System.currentTimeMillis();
+    }
+
+    // Cache miss trong filter: parse đúng một lần
+    @Benchmark
+    public Claims coldSingleParse() {
+        return jwtService.parseClaims(token);
+    }
+
+    // Cache hit trong filter: không verify HMAC, không load user
+    @Benchmark
+    public UserDetails cached() {
+        return tokenCache.get(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Chạy lần lượt các kịch bản tải cố định trên endpoint tạo/liệt kê bài đăng bằng HttpLoadHarness,
+// ghi kết quả (kèm nhãn) vào một file CSV để so sánh giữa các lần chạy.
+//
+// So sánh cấu hình mặc định với profile prod trên cùng một database MySQL:
+//   1. mvn spring-boot:run                                          rồi chạy lệnh dưới với --label=default
+//   2. mvn spring-boot:run -Dspring-boot.run.profiles=prod          rồi chạy lệnh dưới với --label=prod
+//
+//   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//     "-Dexec.args=-cp %classpath com.example.demo.benchmark.PostEndpointsLoadScenario \
+//       --seller-id=<user_id có sẵn> --category-id=<category_id có sẵn> --label=prod \
+//       --concurrency=32 --warmup=10 --duration=30 --out=target/post-load.csv"
+//
+// Mỗi kịch bản được warm-up trước (kết quả warm-up bỏ đi), thứ tự và tham số luôn giống nhau giữa các lần chạy.
+public class PostEndpointsLoadScenario {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String sellerId = options.get("seller-id");
+        String categoryId = options.get("category-id");
+        if (sellerId == null || categoryId == null) {
+            throw new IllegalArgumentException("--seller-id and --category-id are required for the create scenario");
+        }
+        String label = options.getOrDefault("label", "default");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        Path out = Path.of(options.getOrDefault("out", "target/post-load.csv"));
+
+        String createBody = String.format(
+                "{\"title\":\"Load test post\",\"description\":\"Created by PostEndpointsLoadScenario\","
+                        + "\"imageUrl\":\"https://img.example/load.jpg\",\"sellerId\":\"%s\",\"categoryId\":\"%s\","
+                        + "\"price\":100000,\"type\":\"Liquidation\",\"status\":\"Pending\",\"state\":\"Pending\"}",
+                sellerId, categoryId);
+
+        Map<String, HttpRequest> scenarios = new LinkedHashMap<>();
+        scenarios.put("list-posts", get(baseUrl + "/api/posts?limit=50"));
+        scenarios.put("list-summaries", get(baseUrl + "/api/posts/summary?limit=50"));
+        scenarios.put("create-post", HttpRequest.newBuilder(URI.create(baseUrl + "/api/posts"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(createBody))
+                .build());
+
+        for (Map.Entry<String, HttpRequest> scenario : scenarios.entrySet()) {
+            new HttpLoadHarness().run(scenario.getValue(), concurrency, warmup);
+            HttpLoadHarness.Result result = new HttpLoadHarness().run(scenario.getValue(), concurrency, duration);
+            System.out.printf("[%s] %-15s %s%n", label, scenario.getKey(), result);
+            append(out, label, scenario.getKey(), concurrency, result);
+        }
+        System.out.println("Results appended to " + out.toAbsolutePath());
+    }
+
+    // --key=value
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int idx = arg.indexOf('=');
+            if (arg.startsWith("--") && idx > 0) {
+                options.put(arg.substring(2, idx), arg.substring(idx + 1));
+            }
+        }
+        return options;
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    static void append(Path out, String label, String scenario, int concurrency,
+                               HttpLoadHarness.Result result) throws IOException {
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        if (!Files.exists(out)) {
+            Files.writeString(out, "label,scenario,concurrency,requests,req_per_sec,errors,non_2xx,p50_ms,p95_ms,p99_ms\n");
+        }
+        long non2xx = result.statuses().entrySet().stream()
+                .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 300)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        String row = String.format(Locale.ROOT, "%s,%s,%d,%d,%.1f,%d,%d,%.2f,%.2f,%.2f%n",
+                label, scenario, concurrency, result.requests(), result.requestsPerSecond(), result.errors(), non2xx,
+                result.p50Millis(), result.p95Millis(), result.p99Millis());
+        Files.writeString(out, row, StandardOpenOption.APPEND);
+    }
+}
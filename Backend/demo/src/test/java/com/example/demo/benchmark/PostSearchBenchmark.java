@@ -0,0 +1,127 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.PostSearchResultDTO;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.service.PostSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Đo latency của PostSearchService.search trên index 100k bài đăng.
+// Chạy: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//         "-Dexec.args=-cp %classpath com.example.demo.benchmark.PostSearchBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "giáo", "trình", "sách", "máy", "tính", "casio", "tai", "nghe", "bàn", "ghế", "áo", "đồng", "phục",
+            "giải", "tích", "vật", "lý", "hóa", "học", "tiếng", "anh", "laptop", "chuột", "bút", "vở", "balo"
+    };
+    private static final int RARE_WORDS = 5000;
+    private static final String[] CATEGORIES = {"Sách", "Điện tử", "Đồ dùng học tập", "Quần áo", "Nội thất"};
+
+    @Param({"100000"})
+    private int posts;
+
+    private PostSearchService searchService;
+
+    @Setup
+    public void setUp() throws Exception {
+        searchService = new PostSearchService(null);
+        Random random = new Random(42);
+        UserAccount seller = new UserAccount();
+        seller.setName("Seller");
+        List<SellExchangePost> batch = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            Category category = new Category();
+            category.setCategoryId("c" + (i % CATEGORIES.length));
+            category.setName(CATEGORIES[i % CATEGORIES.length]);
+
+            Item item = new Item();
+            item.setItemName(words(random, 3));
+            item.setDescription(words(random, 12));
+            item.setCategory(category);
+
+            SellExchangePost post = new SellExchangePost();
+            post.setPostId("post-" + i);
+            post.setTitle(words(random, 4));
+            post.setDescription(words(random, 20));
+            post.setType(i % 2 == 0 ? PostType.Liquidation : PostType.Exchange);
+            post.setPrice(BigDecimal.valueOf(random.nextInt(500) * 1000L));
+            post.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            post.setSeller(seller);
+            post.setItem(item);
+            batch.add(post);
+        }
+        searchService.indexPosts(batch);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        searchService.close();
+    }
+
+    @Benchmark
+    public PostSearchResultDTO keywordSearch() {
+        return searchService.search("giao trinh giai tich", null, null, null, null, null, 20);
+    }
+
+    @Benchmark
+    public PostSearchResultDTO keywordWithFilters() {
+        return searchService.search("may tinh", PostType.Liquidation, null, "c1",
+                BigDecimal.valueOf(50_000), BigDecimal.valueOf(300_000), 20);
+    }
+
+    @Benchmark
+    public PostSearchResultDTO browseNewestWithFacets() {
+        return searchService.search(null, null, null, null, null, null, 20);
+    }
+
+    // Trộn từ phổ biến với một "đuôi dài" từ hiếm để phân phối giống dữ liệu thật
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(5) == 0) {
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            } else {
+                sb.append("tu").append(random.nextInt(RARE_WORDS));
+            }
+            sb.append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PostSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.RecommendationModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Đo latency chấm điểm của RecommendationModel.recommend (top 20) và thời gian dựng mô hình, với 20k user,
+// 200k giao dịch mua trên 60 danh mục (mỗi user thiên về vài danh mục liền kề) và số bài đang mở theo tham số.
+// Chạy: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//         "-Dexec.args=-cp %classpath com.example.demo.benchmark.RecommendationBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationBenchmark {
+
+    private static final int USERS = 20_000;
+    private static final int PURCHASES = 200_000;
+    private static final int CATEGORIES = 60;
+    private static final int LIMIT = 20;
+
+    @Param({"1000", "10000", "50000"})
+    private int candidates;
+
+    private RecommendationModel model;
+    private List<RecommendationModel.Purchase> purchases;
+    private List<RecommendationModel.Candidate> posts;
+    private LocalDateTime now;
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() {
+        now = LocalDateTime.now();
+        purchases = new ArrayList<>(PURCHASES);
+        for (int i = 0; i < PURCHASES; i++) {
+            int user = random.nextInt(USERS);
+            // danh mục "chính" của user cộng lệch nhỏ để có đồng xuất hiện giữa các danh mục gần nhau
+            int category = Math.floorMod(user % CATEGORIES + (int) Math.round(random.nextGaussian() * 2), CATEGORIES);
+            purchases.add(new RecommendationModel.Purchase("user-" + user, "category-" + category,
+                    now.minusDays(random.nextInt(365))));
+        }
+        posts = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            posts.add(new RecommendationModel.Candidate("post-" + i, "user-" + random.nextInt(USERS),
+                    "category-" + random.nextInt(CATEGORIES), now.minusHours(random.nextInt(24 * 60))));
+        }
+        model = RecommendationModel.build(purchases.stream(), posts, now);
+    }
+
+    @Benchmark
+    public List<RecommendationModel.Scored> recommendKnownUser() {
+        return model.recommend("user-" + random.nextInt(USERS), LIMIT);
+    }
+
+    @Benchmark
+    public List<RecommendationModel.Scored> recommendNewUser() {
+        return model.recommend("new-user", LIMIT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public RecommendationModel rebuild() {
+        return RecommendationModel.build(purchases.stream(), posts, now);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecommendationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
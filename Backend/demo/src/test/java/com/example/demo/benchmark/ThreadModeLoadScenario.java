@@ -0,0 +1,61 @@
+package com.example.demo.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// So sánh platform thread (mặc định, Tomcat 200 worker) với virtual thread (profile "virtual") trên endpoint
+// danh sách bài đăng (chờ MySQL) và login (chờ pool BCrypt), ở nhiều mức đồng thời. Kết quả ghi cùng định dạng CSV
+// với PostEndpointsLoadScenario.
+//
+// Trên cùng một database:
+//   1. mvn spring-boot:run -Dspring-boot.run.profiles=prod            rồi chạy lệnh dưới với --label=platform
+//   2. mvn spring-boot:run -Dspring-boot.run.profiles=prod,virtual    rồi chạy lệnh dưới với --label=virtual
+//
+//   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//     "-Dexec.args=-cp %classpath com.example.demo.benchmark.ThreadModeLoadScenario \
+//       --email=<email có sẵn> --password=<mật khẩu> --label=virtual \
+//       --concurrency=50,200,800 --warmup=10 --duration=30 --out=target/thread-mode-load.csv"
+public class ThreadModeLoadScenario {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = PostEndpointsLoadScenario.parseOptions(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String email = options.get("email");
+        String password = options.get("password");
+        if (email == null || password == null) {
+            throw new IllegalArgumentException("--email and --password are required for the login scenario");
+        }
+        String label = options.getOrDefault("label", "platform");
+        String[] concurrencyLevels = options.getOrDefault("concurrency", "50,200,800").split(",");
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        Path out = Path.of(options.getOrDefault("out", "target/thread-mode-load.csv"));
+
+        Map<String, HttpRequest> scenarios = new LinkedHashMap<>();
+        scenarios.put("list-posts", HttpRequest.newBuilder(URI.create(baseUrl + "/api/posts?limit=50"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build());
+        scenarios.put("login", HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        String.format("{\"email\":\"%s\",\"password\":\"%s\"}", email, password)))
+                .build());
+
+        for (String level : concurrencyLevels) {
+            int concurrency = Integer.parseInt(level.trim());
+            for (Map.Entry<String, HttpRequest> scenario : scenarios.entrySet()) {
+                new HttpLoadHarness().run(scenario.getValue(), concurrency, warmup);
+                HttpLoadHarness.Result result = new HttpLoadHarness().run(scenario.getValue(), concurrency, duration);
+                System.out.printf("[%s] %-10s c=%-4d %s%n", label, scenario.getKey(), concurrency, result);
+                PostEndpointsLoadScenario.append(out, label, scenario.getKey(), concurrency, result);
+            }
+        }
+        System.out.println("Results appended to " + out.toAbsolutePath());
+    }
+}
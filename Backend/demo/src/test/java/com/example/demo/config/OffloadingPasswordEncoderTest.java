@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import com.example.demo.service.PasswordHashingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffloadingPasswordEncoderTest {
+
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1);
+    // thread đã chạy từng thao tác của encoder gốc
+    private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+    private final PasswordEncoder encoder = new OffloadingPasswordEncoder(new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            threads.add("encode:" + Thread.currentThread().getName());
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            threads.add("matches:" + Thread.currentThread().getName());
+            return encodedPassword.equals("hash-" + rawPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            threads.add("upgrade:" + Thread.currentThread().getName());
+            return true;
+        }
+    }, hashingExecutor);
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void hashesOnPoolAndEverythingElseOnCaller() {
+        String caller = Thread.currentThread().getName();
+
+        assertThat(encoder.encode("secret")).isEqualTo("hash-secret");
+        assertThat(encoder.matches("secret", "hash-secret")).isTrue();
+        assertThat(encoder.matches("wrong", "hash-secret")).isFalse();
+        assertThat(encoder.upgradeEncoding("hash-secret")).isTrue();
+
+        assertThat(threads).containsExactly("encode:password-hashing-1", "matches:password-hashing-1",
+                "matches:password-hashing-1", "upgrade:" + caller);
+    }
+}
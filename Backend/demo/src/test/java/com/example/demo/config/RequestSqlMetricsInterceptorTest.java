@@ -0,0 +1,77 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestSqlMetricsInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestSqlMetricsInterceptor interceptor = new RequestSqlMetricsInterceptor(meterRegistry, 5, 3);
+    private final SqlStatementListener listener = new SqlStatementListener();
+
+    @Test
+    void flagsRequestOverStatementBudget() {
+        MockHttpServletRequest request = request();
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        for (int i = 0; i < 6; i++) {
+            execute("select * from sell_exchange_posts where post_id=?" + i);
+        }
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(request.getAttribute(RequestSqlMetricsInterceptor.STATEMENTS_ATTRIBUTE)).isEqualTo(6);
+        assertThat(violations("budget")).isEqualTo(1.0);
+        assertThat(violations("repeated")).isZero();
+        assertThat(meterRegistry.get(RequestSqlMetricsInterceptor.STATEMENTS).tag("uri", "/api/posts/{postId}")
+                .summary().totalAmount()).isEqualTo(6.0);
+    }
+
+    @Test
+    void flagsSameStatementRepeatedAsNPlusOne() {
+        MockHttpServletRequest request = request();
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        execute("select * from sell_exchange_posts");
+        for (int i = 0; i < 3; i++) {
+            execute("select * from users where user_id=?");
+        }
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(request.getAttribute(RequestSqlMetricsInterceptor.MAX_REPEATS_ATTRIBUTE)).isEqualTo(3);
+        assertThat(violations("repeated")).isEqualTo(1.0);
+        assertThat(violations("budget")).isZero();
+    }
+
+    @Test
+    void ignoresStatementsOutsideRequests() {
+        execute("select 1");
+
+        MockHttpServletRequest request = request();
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(request.getAttribute(RequestSqlMetricsInterceptor.STATEMENTS_ATTRIBUTE)).isEqualTo(0);
+    }
+
+    // Giống thứ tự Hibernate gọi: inspector khi chuẩn bị câu lệnh, rồi listener quanh lúc thực thi
+    private void execute(String sql) {
+        new SqlStatementInspector(null).inspect(sql);
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+    }
+
+    private double violations(String type) {
+        var counter = meterRegistry.find(RequestSqlMetricsInterceptor.VIOLATIONS).tag("type", type).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/p1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/posts/{postId}");
+        return request;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.webtoken.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    private static final String EMAIL = "login-user@example.com";
+    private static final String PASSWORD = "secret";
+    private static final String ADMIN_ROUTE = "/api/admin/recommendations/model";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount user = new UserAccount();
+        user.setUserId("login-user");
+        user.setName("Login User");
+        user.setEmail(EMAIL);
+        // Hash kiểu cũ: BCrypt không có prefix {bcrypt}, cost thấp
+        user.setPasswordHash(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        user.setRoles(new HashSet<>());
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void loginReturnsTokenAndUpgradesLegacyHash() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.userId").value("login-user"));
+
+        String upgraded = userRepository.findByEmail(EMAIL).orElseThrow().getPasswordHash();
+        assertThat(upgraded).startsWith("{bcrypt}$2a$10$");
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"wrong\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // Route quản trị chỉ dựa vào JwtAuthenticationFilter: token của Admin qua được, token của member, token bị sửa
+    // hoặc không có token thì không
+    @Test
+    void bearerTokenGuardsAdminRoutes() throws Exception {
+        Role adminRole = new Role();
+        adminRole.setRoleName("Admin");
+        roleRepository.save(adminRole);
+        UserAccount admin = new UserAccount();
+        admin.setUserId("login-admin");
+        admin.setName("Login Admin");
+        admin.setEmail("login-admin@example.com");
+        admin.setPasswordHash("hash");
+        admin.setRoles(new HashSet<>(Set.of(adminRole)));
+        userRepository.save(admin);
+
+        String adminToken = jwtService.generateToken(admin);
+        String memberToken = jwtService.generateToken(userRepository.findByEmail(EMAIL).orElseThrow());
+        int signatureStart = adminToken.lastIndexOf('.') + 1;
+        String tampered = adminToken.substring(0, signatureStart)
+                + (adminToken.charAt(signatureStart) == 'A' ? 'B' : 'A') + adminToken.substring(signatureStart + 1);
+
+        mockMvc.perform(get(ADMIN_ROUTE).header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(ADMIN_ROUTE).header(HttpHeaders.AUTHORIZATION, "Bearer " + memberToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(ADMIN_ROUTE).header(HttpHeaders.AUTHORIZATION, "Bearer " + tampered))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(ADMIN_ROUTE)).andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Category;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.PostSearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BulkImportTest {
+
+    private static final int POSTS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount staff = new UserAccount();
+        staff.setUserId("bulk-staff");
+        staff.setName("Union Staff");
+        staff.setEmail("bulk-staff@example.com");
+        staff.setPasswordHash("hash");
+        staff.setRoles(new HashSet<>());
+        userRepository.save(staff);
+
+        Category category = new Category();
+        category.setCategoryId("bulk-books");
+        category.setName("Bulk Books");
+        categoryRepository.save(category);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Xóa bằng SQL, deleteAll() sẽ load từng entity của 10k dòng
+        jdbcTemplate.update("DELETE FROM sell_exchange_posts");
+        jdbcTemplate.update("DELETE FROM items");
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importsTenThousandPostsFromNdjsonAndReportsBadRows() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < POSTS; i++) {
+            String seller = i == 3 ? "missing-seller" : "bulk-staff";
+            String price = i == 7 ? "-1" : "15000";
+            body.append(String.format(
+                    "{\"title\":\"Donated textbook %d\",\"description\":\"Giáo trình số %d\",\"sellerId\":\"%s\","
+                            + "\"categoryId\":\"bulk-books\",\"price\":%s,\"type\":\"Liquidation\"}%n",
+                    i, i, seller, price));
+        }
+
+        mockMvc.perform(post("/api/posts/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(POSTS))
+                .andExpect(jsonPath("$.imported").value(POSTS - 2))
+                .andExpect(jsonPath("$.ids", hasSize(POSTS - 2)))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("sellerId not found: missing-seller"))
+                .andExpect(jsonPath("$.errors[1].row").value(7));
+
+        assertThat(postRepository.count()).isEqualTo(POSTS - 2);
+        assertThat(itemRepository.count()).isEqualTo(POSTS - 2);
+        // như bài tạo qua JPA: updated_at bắt đầu bằng created_at
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sell_exchange_posts WHERE updated_at IS NULL OR updated_at <> created_at",
+                Long.class)).isZero();
+        // index tìm kiếm được cập nhật bất đồng bộ sau commit
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(postSearchService.search("textbook 9999", null, null, "bulk-books", null, null, 1).getHits())
+                        .extracting("title").containsExactly("Donated textbook 9999"));
+    }
+
+    @Test
+    void importsItemsFromJsonArray() throws Exception {
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"itemName":"Calculator","owner_id":"bulk-staff","category_id":"bulk-books"},
+                                 {"itemName":"","owner_id":"bulk-staff","category_id":"bulk-books"},
+                                 {"itemName":"Lamp","owner_id":"bulk-staff","category_id":"missing"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("itemName is required"))
+                .andExpect(jsonPath("$.errors[1].message").value("category_id not found: missing"));
+
+        assertThat(itemRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsMalformedBody() throws Exception {
+        mockMvc.perform(post("/api/posts/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"ok\"}\n{not json"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.PostDTO;
+import com.example.demo.enumpack.ActivityType;
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Activity;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.Role;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CategoryService;
+import com.example.demo.service.DonationService;
+import com.example.demo.service.ItemService;
+import com.example.demo.service.SellExchangePostService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SellExchangePostService postService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount user = new UserAccount();
+        user.setUserId("etag-user");
+        user.setName("ETag User");
+        user.setEmail("etag-user@example.com");
+        user.setPasswordHash("hash");
+        user.setRoles(new HashSet<>());
+        userRepository.save(user);
+
+        Category category = new Category();
+        category.setCategoryId("etag-category");
+        category.setName("ETag Books");
+        categoryRepository.save(category);
+
+        Item item = new Item();
+        item.setItemId("etag-item");
+        item.setItemName("Textbook");
+        item.setOwner(user);
+        item.setCategory(category);
+        itemRepository.save(item);
+
+        SellExchangePost post = new SellExchangePost();
+        post.setPostId("etag-post");
+        post.setSeller(user);
+        post.setItem(item);
+        post.setTitle("Textbook for sale");
+        post.setDescription("Like new");
+        post.setPrice(BigDecimal.TEN);
+        post.setProductType("Books");
+        post.setType(PostType.Liquidation);
+        post.setStatus(PostStatusType.Approved);
+        post.setState(PostStateType.Pending);
+        post.setCreatedAt(LocalDateTime.now());
+        postRepository.save(post);
+
+        Activity activity = new Activity();
+        activity.setActivityId("etag-activity");
+        activity.setOrganizer(user);
+        activity.setTitle("Book drive");
+        activity.setDescription("Collect textbooks");
+        activity.setGoalAmount(new BigDecimal("1000.00"));
+        activity.setAmountRaised(BigDecimal.ZERO);
+        activity.setImage("https://img.example/books.jpg");
+        activity.setActivityType(ActivityType.Donation);
+        activity.setEndDate(LocalDateTime.now().plusDays(10));
+        activity.setPosts(new HashSet<>(Set.of(post)));
+        activityRepository.save(activity);
+    }
+
+    @AfterEach
+    void tearDown() {
+        activityRepository.deleteAll();
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void unchangedPostIsAnswered304WithOneVersionLookup() throws Exception {
+        String etag = etagOf("/api/posts/etag-post");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/posts/etag-post").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(""));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        PostDTO update = new PostDTO();
+        update.setPrice(new BigDecimal("8.00"));
+        update.setType("Liquidation");
+        update.setStatus("Approved");
+        update.setState("SellerSent");
+        postService.updatePost("etag-post", update);
+
+        mockMvc.perform(get("/api/posts/etag-post").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void itemTagFollowsItemAndCategoryVersions() throws Exception {
+        String etag = etagOf("/api/items/etag-item");
+        mockMvc.perform(get("/api/items/etag-item").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        Category renamed = new Category();
+        renamed.setName("ETag Textbooks");
+        categoryService.updateCategory("etag-category", renamed);
+
+        mockMvc.perform(get("/api/items/etag-item").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        String itemTag = etagOf("/api/items/etag-item");
+
+        Item update = itemRepository.findById("etag-item").orElseThrow();
+        update.setItemName("Textbook (2nd edition)");
+        itemService.updateItem("etag-item", update);
+
+        mockMvc.perform(get("/api/items/etag-item").header(HttpHeaders.IF_NONE_MATCH, itemTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void activityTagChangesWithDonations() throws Exception {
+        String etag = etagOf("/api/activities/etag-activity");
+        mockMvc.perform(get("/api/activities/etag-activity").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        donationService.donateNow("etag-activity", new BigDecimal("25.00"));
+
+        mockMvc.perform(get("/api/activities/etag-activity").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    // Chi tiết hoạt động trả kèm posts.item, nên sửa item cũng phải đổi ETag
+    @Test
+    void activityTagFollowsNestedItemVersions() throws Exception {
+        String etag = etagOf("/api/activities/etag-activity");
+
+        Item update = itemRepository.findById("etag-item").orElseThrow();
+        update.setItemName("Textbook (2nd edition)");
+        itemService.updateItem("etag-item", update);
+
+        mockMvc.perform(get("/api/activities/etag-activity").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts[0].item.itemName").value("Textbook (2nd edition)"));
+    }
+
+    @Test
+    void categoryListIsCacheableAndRevalidatedFromCache() throws Exception {
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        Category renamed = new Category();
+        renamed.setName("ETag Novels");
+        categoryService.updateCategory("etag-category", renamed);
+
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    // Lần tra hụt không được cache: danh mục/role tạo sau đó phải thấy ngay
+    @Test
+    void missesAreNotCached() throws Exception {
+        mockMvc.perform(get("/api/categories/late-category")).andExpect(status().isNotFound());
+        assertThat(roleRepository.findByRoleName("Late Role")).isEmpty();
+
+        Category category = new Category();
+        category.setCategoryId("late-category");
+        category.setName("Late Category");
+        categoryRepository.save(category);
+        Role role = new Role();
+        role.setRoleName("Late Role");
+        roleRepository.save(role);
+
+        mockMvc.perform(get("/api/categories/late-category"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Late Category"));
+        assertThat(roleRepository.findByRoleName("Late Role")).isPresent();
+    }
+
+    @Test
+    void unknownIdIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/posts/missing").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+
+    private String etagOf(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+        return etag;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.ActivityType;
+import com.example.demo.model.Activity;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.DonationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bộ đếm được flush mỗi 20ms để các lượt ghi xuống database chạy xen với các lượt quyên góp
+@SpringBootTest(properties = "donations.flush-interval-ms=20")
+@AutoConfigureMockMvc
+class DonationConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int DONATIONS_PER_THREAD = 1_000;
+    private static final int IMMEDIATE_PER_THREAD = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount organizer = new UserAccount();
+        organizer.setUserId("donation-organizer");
+        organizer.setName("Organizer");
+        organizer.setEmail("donation-organizer@example.com");
+        organizer.setPasswordHash("hash");
+        organizer.setRoles(new HashSet<>());
+        userRepository.save(organizer);
+
+        Activity activity = new Activity();
+        activity.setActivityId("donation-activity");
+        activity.setOrganizer(organizer);
+        activity.setTitle("Quỹ học bổng");
+        activity.setDescription("Fundraiser push");
+        activity.setGoalAmount(new BigDecimal("1000000.00"));
+        activity.setAmountRaised(BigDecimal.ZERO);
+        activity.setImage("https://img.example/fund.jpg");
+        activity.setActivityType(ActivityType.Fundraiser);
+        activity.setEndDate(LocalDateTime.now().plusDays(30));
+        activityRepository.save(activity);
+    }
+
+    @AfterEach
+    void tearDown() {
+        donationService.flush();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBufferedDonationsAreNeverLost() throws Exception {
+        long begin = System.nanoTime();
+        BigDecimal expected = donateConcurrently(false, DONATIONS_PER_THREAD);
+        // đường gom trong bộ nhớ phải chịu được hàng nghìn lượt mỗi giây
+        assertThat(THREADS * DONATIONS_PER_THREAD / ((System.nanoTime() - begin) / 1e9)).isGreaterThan(5_000);
+
+        donationService.flush();
+        assertThat(donationService.getPendingAmount("donation-activity")).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(activityRepository.findAmountRaised("donation-activity")).get().isEqualTo(expected);
+    }
+
+    // Mỗi khoản là một UPDATE trên cùng một dòng nên các lượt nối đuôi nhau theo khóa dòng: đúng nhưng chậm
+    @Test
+    void concurrentImmediateDonationsAreNeverLost() throws Exception {
+        BigDecimal expected = donateConcurrently(true, IMMEDIATE_PER_THREAD);
+
+        assertThat(activityRepository.findAmountRaised("donation-activity")).get().isEqualTo(expected);
+    }
+
+    @Test
+    void donationEndpointValidatesAmountAndActivity() throws Exception {
+        mockMvc.perform(post("/api/activities/donation-activity/donations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":25000.50}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.pending").value(true));
+        mockMvc.perform(post("/api/activities/donation-activity/donations")
+                        .param("immediate", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":100}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pending").value(false));
+
+        mockMvc.perform(post("/api/activities/donation-activity/donations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":-5}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/activities/donation-activity/donations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":1.005}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/activities/missing/donations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":10}"))
+                .andExpect(status().isNotFound());
+
+        donationService.flush();
+        assertThat(activityRepository.findAmountRaised("donation-activity")).get()
+                .isEqualTo(new BigDecimal("25100.50"));
+    }
+
+    // Mỗi thread gửi perThread khoản cùng lúc; trả về tổng số tiền đã gửi
+    private BigDecimal donateConcurrently(boolean immediate, int perThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                BigDecimal sent = BigDecimal.ZERO;
+                for (int i = 0; i < perThread; i++) {
+                    // số tiền khác nhau (có phần lẻ) để tổng sai lệch là thấy ngay
+                    BigDecimal amount = BigDecimal.valueOf(100 + (thread * 7L + i) % 900, 2);
+                    if (immediate) {
+                        donationService.donateNow("donation-activity", amount);
+                    } else {
+                        donationService.donate("donation-activity", amount);
+                    }
+                    sent = sent.add(amount);
+                }
+                return sent;
+            }));
+        }
+        start.countDown();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (Future<BigDecimal> future : futures) {
+            expected = expected.add(future.get());
+        }
+        pool.shutdown();
+        return expected;
+    }
+}
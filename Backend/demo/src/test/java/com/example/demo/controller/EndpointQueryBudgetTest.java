@@ -0,0 +1,186 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.ActivityType;
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Activity;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ngân sách số câu SQL cho từng endpoint đọc. Dữ liệu có nhiều seller, category, post và giao dịch nên
+// một quan hệ bị load từng dòng (N+1) sẽ làm số câu vượt ngân sách và test fail.
+// Khi sửa query làm số câu giảm, hạ ngân sách xuống theo; chỉ tăng khi có lý do rõ ràng
+@SpringBootTest
+@AutoConfigureMockMvc
+// gọi /api/admin/** với role Admin
+@WithMockUser(roles = "Admin")
+class EndpointQueryBudgetTest {
+
+    private static final int SELLERS = 5;
+    private static final int CATEGORIES = 3;
+    private static final int POSTS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int s = 0; s < SELLERS; s++) {
+            UserAccount seller = new UserAccount();
+            seller.setUserId("budget-seller-" + s);
+            seller.setName("Seller " + s);
+            seller.setEmail("budget-seller-" + s + "@example.com");
+            seller.setPasswordHash("hash");
+            seller.setRoles(new HashSet<>());
+            userRepository.save(seller);
+        }
+        for (int c = 0; c < CATEGORIES; c++) {
+            Category category = new Category();
+            category.setCategoryId("budget-category-" + c);
+            category.setName("Budget Category " + c);
+            categoryRepository.save(category);
+        }
+
+        Set<SellExchangePost> posts = new HashSet<>();
+        for (int i = 0; i < POSTS; i++) {
+            UserAccount seller = userRepository.findById("budget-seller-" + (i % SELLERS)).orElseThrow();
+
+            Item item = new Item();
+            item.setItemId("budget-item-" + i);
+            item.setItemName("Item " + i);
+            item.setOwner(seller);
+            item.setCategory(categoryRepository.findById("budget-category-" + (i % CATEGORIES)).orElseThrow());
+            item.setCreatedAt(LocalDateTime.now());
+            itemRepository.save(item);
+
+            SellExchangePost post = new SellExchangePost();
+            post.setPostId("budget-post-" + i);
+            post.setSeller(seller);
+            post.setItem(item);
+            post.setTitle("Post " + i);
+            post.setDescription("Description " + i);
+            post.setPrice(BigDecimal.TEN);
+            post.setProductType("Books");
+            post.setType(PostType.Liquidation);
+            post.setStatus(PostStatusType.Approved);
+            post.setState(PostStateType.Pending);
+            post.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            posts.add(postRepository.save(post));
+
+            Transaction transaction = new Transaction();
+            transaction.setTransactionId("budget-transaction-" + i);
+            transaction.setUser(userRepository.findById("budget-seller-" + ((i + 1) % SELLERS)).orElseThrow());
+            transaction.setItem(item);
+            transaction.setPost(post);
+            transaction.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            transactionRepository.save(transaction);
+        }
+
+        Activity activity = new Activity();
+        activity.setActivityId("budget-activity");
+        activity.setOrganizer(userRepository.findById("budget-seller-0").orElseThrow());
+        activity.setTitle("Fundraiser");
+        activity.setDescription("Description");
+        activity.setGoalAmount(BigDecimal.valueOf(1000));
+        activity.setAmountRaised(BigDecimal.ZERO);
+        activity.setImage("https://img.example/activity.jpg");
+        activity.setActivityType(ActivityType.Fundraiser);
+        activity.setEndDate(LocalDateTime.now().plusDays(7));
+        activity.setPosts(posts);
+        activityRepository.save(activity);
+
+        // category/role đọc từ cache sẽ không chạy SQL, xóa cache để đo trường hợp xấu nhất
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        activityRepository.deleteAll();
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @ParameterizedTest(name = "GET {0} runs at most {1} statements")
+    @CsvSource({
+            "/api/posts, 2",
+            "/api/posts/summary, 1",
+            "/api/posts/query?categoryId=budget-category-1, 2",
+            "/api/posts/budget-post-3, 2",
+            "/api/posts/seller/budget-seller-1, 2",
+            "/api/posts/type/Liquidation, 2",
+            "/api/posts/status/Approved, 2",
+            "/api/posts/states/Pending, 2",
+            "/api/posts/category/budget-category-2, 2",
+            "/api/items, 3",
+            "/api/items/summary, 1",
+            "/api/items/budget-item-4, 2",
+            "/api/activities, 4",
+            "/api/activities/summary, 1",
+            "/api/activities/budget-activity, 4",
+            "/api/categories, 1",
+            "/api/categories/budget-category-0, 1",
+            "/api/users, 2",
+            "/api/users/budget-seller-2, 1",
+            "/api/users/budget-seller-2/transactions, 4",
+            "/api/admin/users, 2",
+            "/api/admin/transactions, 3",
+    })
+    void readEndpointsStayWithinStatementBudget(String url, int maxStatements) throws Exception {
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatements.atMost(maxStatements))
+                .andExpect(SqlStatements.noRepeatsOver(1));
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.SellExchangePostService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Chạy EXPLAIN trên đúng câu SQL mà các endpoint filter/sắp xếp sinh ra để chắc chắn chúng dùng index của
+// V2__post_filter_indexes và V11__posts_sort_indexes
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.demo.controller.FilterIndexUsageTest$SqlRecorder")
+@AutoConfigureMockMvc
+class FilterIndexUsageTest {
+
+    private static final int POSTS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount seller = new UserAccount();
+        seller.setUserId("index-seller");
+        seller.setName("Seller");
+        seller.setEmail("index-seller@example.com");
+        seller.setPasswordHash("hash");
+        seller.setRoles(new HashSet<>());
+        userRepository.save(seller);
+
+        for (int c = 0; c < 3; c++) {
+            Category category = new Category();
+            category.setCategoryId("index-category-" + c);
+            category.setName("Index Category " + c);
+            categoryRepository.save(category);
+        }
+
+        PostType[] types = PostType.values();
+        PostStatusType[] statuses = PostStatusType.values();
+        PostStateType[] states = PostStateType.values();
+        for (int i = 0; i < POSTS; i++) {
+            Item item = new Item();
+            item.setItemId("index-item-" + i);
+            item.setItemName("Item " + i);
+            item.setOwner(seller);
+            item.setCategory(categoryRepository.findById("index-category-" + (i % 3)).orElseThrow());
+            itemRepository.save(item);
+
+            SellExchangePost post = new SellExchangePost();
+            post.setPostId("index-post-" + i);
+            post.setSeller(seller);
+            post.setItem(item);
+            post.setTitle("Post " + i);
+            post.setDescription("Description " + i);
+            post.setPrice(BigDecimal.TEN);
+            post.setProductType("Books");
+            post.setType(types[i % types.length]);
+            post.setStatus(statuses[i % statuses.length]);
+            post.setState(states[i % states.length]);
+            post.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            postRepository.save(post);
+
+            Transaction transaction = new Transaction();
+            transaction.setTransactionId("index-transaction-" + i);
+            transaction.setUser(seller);
+            transaction.setItem(item);
+            transaction.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            transactionRepository.save(transaction);
+        }
+        jdbcTemplate.execute("ANALYZE");
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void typeFilterUsesTypeIndex() throws Exception {
+        mockMvc.perform(get("/api/posts/type/Liquidation")).andExpect(status().isOk());
+
+        assertThat(explainFirst("sell_exchange_posts", "Liquidation")).contains("idx_posts_type_created");
+    }
+
+    @Test
+    void statusFilterUsesStatusIndex() throws Exception {
+        mockMvc.perform(get("/api/posts/status/Approved")).andExpect(status().isOk());
+
+        assertThat(explainFirst("sell_exchange_posts", "Approved")).contains("idx_posts_status_created");
+    }
+
+    @Test
+    void stateFilterUsesStateIndex() throws Exception {
+        mockMvc.perform(get("/api/posts/states/Completed")).andExpect(status().isOk());
+
+        assertThat(explainFirst("sell_exchange_posts", "Completed")).contains("idx_posts_state_created");
+    }
+
+    // Mọi cột trong SORTABLE_FIELDS đều phải có index để ORDER BY ... LIMIT không phải sắp xếp cả bảng
+    @Test
+    void sortableFieldsReadInIndexOrder() throws Exception {
+        Map<String, String> indexes = Map.of("createdAt", "idx_posts_created", "updatedAt", "idx_posts_updated",
+                "price", "idx_posts_price", "title", "idx_posts_title");
+        assertThat(indexes.keySet()).isEqualTo(SellExchangePostService.SORTABLE_FIELDS);
+
+        for (Map.Entry<String, String> sortable : indexes.entrySet()) {
+            SqlRecorder.STATEMENTS.clear();
+            mockMvc.perform(get("/api/posts/query").param("sort", sortable.getKey() + ",asc").param("size", "10"))
+                    .andExpect(status().isOk());
+
+            assertThat(explainFirst("sell_exchange_posts", 10)).as(sortable.getKey())
+                    .contains("public." + sortable.getValue()).contains("index sorted");
+        }
+    }
+
+    @Test
+    void categoryFilterUsesItemCategoryIndex() throws Exception {
+        mockMvc.perform(get("/api/posts/category/index-category-1")).andExpect(status().isOk());
+
+        assertIndexLookup(explainFirst("sell_exchange_posts", "index-category-1"), "category_id");
+    }
+
+    @Test
+    void userTransactionsUseUserIndex() {
+        transactionRepository.findByUserUserId("index-seller");
+
+        assertIndexLookup(explainFirst("transactions", "index-seller"), "user_id");
+    }
+
+    // EXPLAIN câu SELECT đầu tiên trên bảng chính, bind tham số filter vào vị trí "?"
+    private String explainFirst(String table, Object parameter) {
+        String sql = SqlRecorder.STATEMENTS.stream()
+                .filter(statement -> statement.startsWith("select") && statement.contains(" from " + table + " "))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No select on " + table + " in " + SqlRecorder.STATEMENTS));
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameter);
+        return plan.toLowerCase();
+    }
+
+    // Cột khóa ngoại có thể được phục vụ bởi index tự tạo cùng constraint (H2, InnoDB) hoặc index của V2,
+    // nên chỉ kiểm tra là tra cứu bằng index trên đúng cột chứ không quét bảng
+    private static void assertIndexLookup(String plan, String column) {
+        assertThat(plan).doesNotContain(".tablescan").containsPattern("/\\* public\\.\\w+: " + column + " = \\?1 \\*/");
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.ImageOwnerType;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ImageVariantRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.ImageThumbnailService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ảnh gốc được phục vụ bởi một HTTP server nhỏ trên localhost; thumbnail ghi vào thư mục local (images.storage=local)
+@SpringBootTest(properties = "images.allowed-hosts=localhost")
+@AutoConfigureMockMvc
+class ImageThumbnailTest {
+
+    private static HttpServer server;
+    private static byte[] photo;
+    private static byte[] smallPhoto;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImageThumbnailService imageThumbnailService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @BeforeAll
+    static void startImageServer() throws IOException {
+        photo = jpeg(2400, 1600);
+        smallPhoto = jpeg(120, 80);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/photo.jpg", exchange -> respond(exchange, photo));
+        server.createContext("/other.jpg", exchange -> respond(exchange, photo));
+        server.createContext("/small.jpg", exchange -> respond(exchange, smallPhoto));
+        server.start();
+    }
+
+    @AfterAll
+    static void stopImageServer() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        UserAccount owner = new UserAccount();
+        owner.setUserId("thumb-owner");
+        owner.setName("Owner");
+        owner.setEmail("thumb-owner@example.com");
+        owner.setPasswordHash("hash");
+        owner.setRoles(new HashSet<>());
+        userRepository.save(owner);
+
+        Category category = new Category();
+        category.setCategoryId("thumb-category");
+        category.setName("Thumb Category");
+        categoryRepository.save(category);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantRepository.deleteAll();
+        activityRepository.deleteAll();
+        itemRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createdItemGetsThumbnailsAndListReturnsSmallVariant() throws Exception {
+        String itemId = json(mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"Desk lamp\",\"imageUrl\":\"" + url("/photo.jpg") + "\","
+                                + "\"owner_id\":\"thumb-owner\",\"category_id\":\"thumb-category\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("itemId").asText();
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(itemRepository.findById(itemId).orElseThrow().getThumbnailUrl()).isNotNull());
+
+        JsonNode summary = json(mockMvc.perform(get("/api/items/summary"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get(0);
+        assertThat(summary.get("imageUrl").asText()).isEqualTo(url("/photo.jpg"));
+        String thumbnailUrl = summary.get("thumbnailUrl").asText();
+        assertThat(thumbnailUrl).startsWith("/images/item/" + itemId + "/w320-");
+
+        JsonNode variants = json(mockMvc.perform(get("/api/cloudinary/variants/Item/" + itemId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(variants.findValuesAsText("width")).containsExactly("160", "320", "640");
+        assertThat(variants.get(1).get("height").asInt()).isEqualTo(213);
+
+        // bản cho danh sách nhỏ hơn ảnh gốc ít nhất 10 lần
+        byte[] thumbnail = mockMvc.perform(get(thumbnailUrl))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(ImageIO.read(new ByteArrayInputStream(thumbnail)).getWidth()).isEqualTo(320);
+        assertThat(thumbnail.length * 10L).isLessThan(photo.length);
+    }
+
+    @Test
+    void createdActivityGetsThumbnail() throws Exception {
+        String activityId = json(mockMvc.perform(post("/api/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"organizerId\":\"thumb-owner\",\"title\":\"Book drive\",\"description\":\"Sách cũ\","
+                                + "\"goalAmount\":1000,\"amountRaised\":0,\"image\":\"" + url("/photo.jpg") + "\","
+                                + "\"activityType\":\"Fundraiser\",\"endDate\":\"2030-01-01T00:00:00\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("activityId").asText();
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(json(mockMvc.perform(get("/api/activities/summary"))
+                        .andReturn().getResponse().getContentAsString()).get(0).get("thumbnailUrl").asText())
+                        .startsWith("/images/activity/" + activityId + "/w320-"));
+    }
+
+    @Test
+    void smallImagesAreNotUpscaled() throws Exception {
+        Item item = item("thumb-small", url("/small.jpg"));
+
+        assertThat(imageThumbnailService.generate(ImageOwnerType.Item, item.getItemId(), item.getImageUrl())).isEmpty();
+        assertThat(itemRepository.findById(item.getItemId()).orElseThrow().getThumbnailUrl()).isNull();
+    }
+
+    @Test
+    void resultForReplacedImageIsDiscarded() throws Exception {
+        Item item = item("thumb-replaced", url("/other.jpg"));
+
+        assertThat(imageThumbnailService.generate(ImageOwnerType.Item, item.getItemId(), url("/photo.jpg"))).isEmpty();
+        assertThat(imageVariantRepository.findByOwnerTypeAndOwnerIdOrderByWidth(ImageOwnerType.Item, item.getItemId()))
+                .isEmpty();
+    }
+
+    @Test
+    void onlyAllowedHostsAreFetched() {
+        Item item = item("thumb-remote", "http://169.254.169.254/latest/meta-data");
+
+        assertThatThrownBy(() -> imageThumbnailService.generate(ImageOwnerType.Item, item.getItemId(), item.getImageUrl()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("not allowed");
+    }
+
+    private Item item(String itemId, String imageUrl) {
+        Item item = new Item();
+        item.setItemId(itemId);
+        item.setItemName("Item");
+        item.setImageUrl(imageUrl);
+        item.setOwner(userRepository.findById("thumb-owner").orElseThrow());
+        return itemRepository.save(item);
+    }
+
+    private JsonNode json(String body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+
+    private static String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Ảnh "chụp" giả: gradient cộng nhiễu, nén JPEG chất lượng mặc định giống ảnh điện thoại
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(40);
+                int r = Math.min(255, x * 200 / width + noise);
+                int g = Math.min(255, y * 200 / height + noise);
+                int b = Math.min(255, 120 + noise);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.ActivityType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Activity;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ListEndpointsQueryCountTest {
+
+    private static final int SELLERS = 5;
+    private static final int POSTS = 20;
+    private static final int MAX_ACTIVITY_QUERIES = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Category category = new Category();
+        category.setCategoryId("summary-category");
+        category.setName("Summary Books");
+        categoryRepository.save(category);
+
+        Set<SellExchangePost> posts = new HashSet<>();
+        for (int i = 0; i < POSTS; i++) {
+            String sellerId = "summary-seller-" + (i % SELLERS);
+            UserAccount seller = userRepository.findById(sellerId).orElseGet(() -> newUser(sellerId));
+
+            Item item = new Item();
+            item.setItemId("summary-item-" + i);
+            item.setItemName("Item " + i);
+            item.setImageUrl("https://img.example/" + i + ".jpg");
+            item.setOwner(seller);
+            item.setCategory(category);
+            item.setCreatedAt(LocalDateTime.now());
+            itemRepository.save(item);
+
+            SellExchangePost post = new SellExchangePost();
+            post.setPostId("summary-post-" + i);
+            post.setSeller(seller);
+            post.setItem(item);
+            post.setTitle("Post " + i);
+            post.setDescription("Description " + i);
+            post.setPrice(BigDecimal.TEN);
+            post.setType(PostType.Liquidation);
+            post.setProductType(category.getName());
+            post.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            posts.add(postRepository.save(post));
+        }
+
+        Activity activity = new Activity();
+        activity.setActivityId("summary-activity");
+        activity.setOrganizer(userRepository.findById("summary-seller-0").orElseThrow());
+        activity.setTitle("Fundraiser");
+        activity.setDescription("Description");
+        activity.setGoalAmount(BigDecimal.valueOf(1000));
+        activity.setAmountRaised(BigDecimal.ZERO);
+        activity.setImage("https://img.example/activity.jpg");
+        activity.setActivityType(ActivityType.Fundraiser);
+        activity.setEndDate(LocalDateTime.now().plusDays(7));
+        activity.setPosts(posts);
+        activityRepository.save(activity);
+
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        activityRepository.deleteAll();
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void postSummariesUseSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/posts/summary").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(POSTS)))
+                .andExpect(jsonPath("$[0].sellerName").exists())
+                .andExpect(jsonPath("$[0].categoryName").value("Summary Books"))
+                .andExpect(jsonPath("$[0].thumbnailUrl").exists());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void itemSummariesUseSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/items/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(POSTS)));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void activitySummariesUseSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/activities/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].postCount").value(POSTS));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // Danh sách rút gọn luôn phân trang: đi hết các trang theo X-Next-Cursor, mỗi trang một câu query, không trùng dòng
+    @Test
+    void itemSummariesPageByCursor() throws Exception {
+        assertThat(pageThrough("/api/items/summary", "itemId", 7)).hasSize(POSTS).doesNotHaveDuplicates();
+
+        mockMvc.perform(get("/api/items/summary").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void activitySummariesPageByCursor() throws Exception {
+        Activity template = activityRepository.findById("summary-activity").orElseThrow();
+        for (int i = 0; i < 4; i++) {
+            Activity activity = new Activity();
+            activity.setActivityId("summary-activity-" + i);
+            activity.setOrganizer(template.getOrganizer());
+            activity.setTitle("Fundraiser " + i);
+            activity.setDescription("Description");
+            activity.setGoalAmount(BigDecimal.valueOf(1000));
+            activity.setAmountRaised(BigDecimal.ZERO);
+            activity.setImage("https://img.example/activity.jpg");
+            activity.setActivityType(ActivityType.Fundraiser);
+            // hai hoạt động cùng end_date để keyset phải so tiếp theo id
+            activity.setEndDate(template.getEndDate().minusDays(i / 2));
+            activityRepository.save(activity);
+        }
+        statistics.clear();
+
+        assertThat(pageThrough("/api/activities/summary", "activityId", 2)).hasSize(5).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void activityListRunsBoundedQueries() throws Exception {
+        mockMvc.perform(get("/api/activities"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].organizer.name").exists())
+                .andExpect(jsonPath("$[0].posts", hasSize(POSTS)));
+
+        // activities + organizer, posts theo lô, rồi các quan hệ còn lại được batch bằng IN (...)
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_ACTIVITY_QUERIES);
+    }
+
+    @Test
+    void activityDetailRunsBoundedQueries() throws Exception {
+        mockMvc.perform(get("/api/activities/summary-activity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts", hasSize(POSTS)));
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_ACTIVITY_QUERIES);
+    }
+
+    // Đọc lần lượt các trang với limit cho trước, trả về id của mọi dòng theo thứ tự
+    private List<String> pageThrough(String url, String idField, int limit) throws Exception {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            MockHttpServletRequestBuilder request = get(url).param("limit", String.valueOf(limit));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MockHttpServletResponse response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            JsonNode page = objectMapper.readTree(response.getContentAsString());
+            assertThat(page.size()).isLessThanOrEqualTo(limit);
+            page.forEach(row -> ids.add(row.get(idField).asText()));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            cursor = response.getHeader(PostController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return ids;
+    }
+
+    private UserAccount newUser(String userId) {
+        UserAccount user = new UserAccount();
+        user.setUserId(userId);
+        user.setName("Seller " + userId);
+        user.setEmail(userId + "@example.com");
+        user.setPasswordHash("hash");
+        user.setRoles(new HashSet<>());
+        return userRepository.save(user);
+    }
+}
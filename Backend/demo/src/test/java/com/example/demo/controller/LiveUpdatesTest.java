@@ -0,0 +1,162 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.PostDTO;
+import com.example.demo.enumpack.ActivityType;
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Activity;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.DonationService;
+import com.example.demo.service.SellExchangePostService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LiveUpdatesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private SellExchangePostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount user = new UserAccount();
+        user.setUserId("live-user");
+        user.setName("Live User");
+        user.setEmail("live-user@example.com");
+        user.setPasswordHash("hash");
+        user.setRoles(new HashSet<>());
+        userRepository.save(user);
+
+        Activity activity = new Activity();
+        activity.setActivityId("live-activity");
+        activity.setOrganizer(user);
+        activity.setTitle("Quỹ áo ấm");
+        activity.setDescription("Winter drive");
+        activity.setGoalAmount(new BigDecimal("5000.00"));
+        activity.setAmountRaised(BigDecimal.ZERO);
+        activity.setImage("https://img.example/warm.jpg");
+        activity.setActivityType(ActivityType.Donation);
+        activity.setEndDate(LocalDateTime.now().plusDays(7));
+        activityRepository.save(activity);
+
+        Item item = new Item();
+        item.setItemId("live-item");
+        item.setItemName("Jacket");
+        item.setOwner(user);
+        itemRepository.save(item);
+
+        SellExchangePost post = new SellExchangePost();
+        post.setPostId("live-post");
+        post.setSeller(user);
+        post.setItem(item);
+        post.setTitle("Jacket for exchange");
+        post.setDescription("Size M");
+        post.setPrice(BigDecimal.TEN);
+        post.setProductType("Clothes");
+        post.setType(PostType.Exchange);
+        post.setStatus(PostStatusType.Approved);
+        post.setState(PostStateType.Pending);
+        post.setCreatedAt(LocalDateTime.now());
+        postRepository.save(post);
+    }
+
+    @AfterEach
+    void tearDown() {
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        activityRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void pushesFundraisingProgressAfterDonations() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/activities/live-activity/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(stream.getContentAsString())
+                .contains("event:progress").contains("\"amountRaised\":0.00"));
+
+        donationService.donateNow("live-activity", new BigDecimal("120.50"));
+        donationService.donate("live-activity", new BigDecimal("79.50"));
+        donationService.flush();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(stream.getContentAsString())
+                .contains("\"amountRaised\":120.50").contains("\"amountRaised\":200.00"));
+    }
+
+    @Test
+    void pushesTradeHandshakeStateChanges() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/posts/live-post/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+
+        for (String state : new String[]{"SellerSent", "BothSent"}) {
+            PostDTO update = new PostDTO();
+            update.setPrice(BigDecimal.TEN);
+            update.setType("Exchange");
+            update.setStatus("Approved");
+            update.setState(state);
+            postService.updatePost("live-post", update);
+        }
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            String content = stream.getContentAsString();
+            assertThat(content).contains("\"state\":\"Pending\"");
+            assertThat(content.indexOf("\"state\":\"SellerSent\""))
+                    .isPositive()
+                    .isLessThan(content.indexOf("\"state\":\"BothSent\""));
+        });
+    }
+
+    @Test
+    void unknownIdsReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/activities/missing/events")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/posts/missing/events")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.enumpack.TransactionStatus;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.stereotype.Component;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+// Dữ liệu mẫu dùng chung cho các test mua bán: user, danh mục, item, bài đăng, giao dịch và dọn dẹp sau test.
+// Id do test tự đặt (thường có prefix riêng của test) để các test không đụng dữ liệu của nhau
+@Component
+class MarketplaceFixture {
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ItemRepository itemRepository;
+    private final SellExchangePostRepository postRepository;
+    private final TransactionRepository transactionRepository;
+
+    MarketplaceFixture(UserRepository userRepository, CategoryRepository categoryRepository,
+                       ItemRepository itemRepository, SellExchangePostRepository postRepository,
+                       TransactionRepository transactionRepository) {
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.itemRepository = itemRepository;
+        this.postRepository = postRepository;
+        this.transactionRepository = transactionRepository;
+    }
+
+    // Email là userId@example.com, khớp với member(userId)
+    UserAccount user(String userId) {
+        UserAccount user = new UserAccount();
+        user.setUserId(userId);
+        user.setName(userId);
+        user.setEmail(userId + "@example.com");
+        user.setPasswordHash("hash");
+        user.setRoles(new HashSet<>());
+        return userRepository.save(user);
+    }
+
+    // Principal như JwtAuthenticationFilter đặt cho user(userId): username là email
+    static RequestPostProcessor member(String userId) {
+        return SecurityMockMvcRequestPostProcessors.user(userId + "@example.com").roles("Member");
+    }
+
+    Category category(String categoryId, String name) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+        category.setName(name);
+        return categoryRepository.save(category);
+    }
+
+    Item item(String itemId, String itemName, UserAccount owner, Category category) {
+        Item item = new Item();
+        item.setItemId(itemId);
+        item.setItemName(itemName);
+        item.setOwner(owner);
+        item.setCategory(category);
+        return itemRepository.save(item);
+    }
+
+    // Bài thanh lý đã duyệt, tiêu đề là tên item
+    SellExchangePost approvedPost(String postId, UserAccount seller, Item item, BigDecimal price) {
+        SellExchangePost post = new SellExchangePost();
+        post.setPostId(postId);
+        post.setSeller(seller);
+        post.setItem(item);
+        post.setTitle(item.getItemName());
+        post.setDescription("Description of " + item.getItemName());
+        post.setPrice(price);
+        post.setProductType(item.getCategory() != null ? item.getCategory().getName() : "Misc");
+        post.setType(PostType.Liquidation);
+        post.setStatus(PostStatusType.Approved);
+        post.setCreatedAt(LocalDateTime.now());
+        return postRepository.save(post);
+    }
+
+    // Giao dịch mua bài post của buyer
+    Transaction purchase(String transactionId, SellExchangePost post, UserAccount buyer, TransactionStatus status) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setPost(post);
+        transaction.setItem(post.getItem());
+        transaction.setUser(buyer);
+        transaction.setType("Liquidation");
+        transaction.setStatus(status);
+        transaction.setCreatedAt(LocalDateTime.now());
+        return transactionRepository.save(transaction);
+    }
+
+    // Xóa theo thứ tự khóa ngoại; bảng riêng của từng test (sổ cái ví, snapshot...) do test tự dọn trước
+    void deleteAll() {
+        transactionRepository.deleteAll();
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
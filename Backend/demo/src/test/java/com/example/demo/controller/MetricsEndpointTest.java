@@ -0,0 +1,114 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.RequestSqlMetricsInterceptor;
+import com.example.demo.model.Category;
+import com.example.demo.repository.CategoryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setCategoryId("metrics-category");
+        category.setName("Metrics Category");
+        categoryRepository.save(category);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void exposesEndpointRepositoryPoolAndCacheMetrics() throws Exception {
+        mockMvc.perform(get("/api/categories/metrics-category")).andExpect(status().isOk());
+
+        assertThat(scrape())
+                .containsPattern("http_server_requests_seconds_bucket\\{[^}]*uri=\"/api/categories/\\{categoryId\\}\"")
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{[^}]*method=\"findById\""
+                        + "[^}]*repository=\"CategoryRepository\"")
+                .contains("hikaricp_connections_active")
+                .containsPattern("cache_gets_total\\{cache=\"categoryById\"[^}]*result=\"miss\"")
+                .containsPattern("cache_gets_total\\{cache=\"jwtTokens\"[^}]*result=\"miss\"")
+                .containsPattern("http_server_requests_sql_statements_bucket\\{[^}]*uri=\"/api/categories/\\{categoryId\\}\"")
+                .containsPattern("http_server_requests_sql_duration_seconds_bucket\\{[^}]*"
+                        + "uri=\"/api/categories/\\{categoryId\\}\"");
+    }
+
+    @Test
+    void recordsSqlStatementsPerRequestAndCacheHits() throws Exception {
+        long requestsBefore = sqlStatements().map(DistributionSummary::count).orElse(0L);
+        double statementsBefore = sqlStatements().map(DistributionSummary::totalAmount).orElse(0.0);
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+
+        // lần đầu miss cache và chạy một câu SELECT, lần sau lấy từ cache không cần query
+        mockMvc.perform(get("/api/categories/metrics-category")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/categories/metrics-category")).andExpect(status().isOk());
+
+        DistributionSummary statements = sqlStatements().orElseThrow();
+        assertThat(statements.count() - requestsBefore).isEqualTo(2);
+        assertThat(statements.totalAmount() - statementsBefore).isEqualTo(1.0);
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(1.0);
+        assertThat(cacheGets("miss") - missesBefore).isEqualTo(1.0);
+    }
+
+    @Test
+    void prometheusRequiresAdminRole() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").with(user("metrics-member").roles("Member")))
+                .andExpect(status().isForbidden());
+    }
+
+    private Optional<DistributionSummary> sqlStatements() {
+        return Optional.ofNullable(meterRegistry.find(RequestSqlMetricsInterceptor.STATEMENTS)
+                .tags("method", "GET", "uri", "/api/categories/{categoryId}")
+                .summary());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", CacheConfig.CATEGORY_BY_ID, "result", result)
+                .functionCounter().count();
+    }
+
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/actuator/prometheus").with(user("metrics-admin").roles("Admin")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
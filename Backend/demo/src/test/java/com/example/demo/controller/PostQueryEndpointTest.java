@@ -0,0 +1,174 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PostQueryEndpointTest {
+
+    private static final int POSTS = 12;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 5, 1, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    private Statistics statistics;
+
+    // post-i: seller-(i % 2), category-(i % 3), Liquidation khi i chẵn, Approved khi i % 3 == 0, giá 10 * (i + 1),
+    // tạo cách NOW i ngày
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int s = 0; s < 2; s++) {
+            UserAccount seller = new UserAccount();
+            seller.setUserId("query-seller-" + s);
+            seller.setName("Seller " + s);
+            seller.setEmail("query-seller-" + s + "@example.com");
+            seller.setPasswordHash("hash");
+            seller.setRoles(new HashSet<>());
+            userRepository.save(seller);
+        }
+        for (int c = 0; c < 3; c++) {
+            Category category = new Category();
+            category.setCategoryId("query-category-" + c);
+            category.setName("Query Category " + c);
+            categoryRepository.save(category);
+        }
+        for (int i = 0; i < POSTS; i++) {
+            UserAccount seller = userRepository.findById("query-seller-" + (i % 2)).orElseThrow();
+
+            Item item = new Item();
+            item.setItemId("query-item-" + i);
+            item.setItemName("Item " + i);
+            item.setOwner(seller);
+            item.setCategory(categoryRepository.findById("query-category-" + (i % 3)).orElseThrow());
+            itemRepository.save(item);
+
+            SellExchangePost post = new SellExchangePost();
+            post.setPostId("query-post-" + i);
+            post.setSeller(seller);
+            post.setItem(item);
+            post.setTitle("Post " + i);
+            post.setDescription("Description " + i);
+            post.setPrice(BigDecimal.valueOf(10L * (i + 1)));
+            post.setProductType("Books");
+            post.setType(i % 2 == 0 ? PostType.Liquidation : PostType.Exchange);
+            post.setStatus(i % 3 == 0 ? PostStatusType.Approved : PostStatusType.Pending);
+            post.setCreatedAt(NOW.minusDays(i));
+            postRepository.save(post);
+        }
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void combinesFiltersInOneQuery() throws Exception {
+        // seller-0 + Liquidation + Approved => bài 0 và 6 (giá 10 và 70, đều nằm trong khoảng 5..70)
+        mockMvc.perform(get("/api/posts/query")
+                        .param("sellerId", "query-seller-0")
+                        .param("type", "Liquidation")
+                        .param("status", "Approved")
+                        .param("minPrice", "5")
+                        .param("maxPrice", "70"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PostController.TOTAL_COUNT_HEADER, "2"))
+                .andExpect(jsonPath("$[*].postId", contains("query-post-0", "query-post-6")))
+                .andExpect(jsonPath("$[0].item.category.name").value("Query Category 0"));
+
+        // một câu SELECT (kèm seller/item/category) và một câu COUNT
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void filtersByCategoryAndDateRange() throws Exception {
+        mockMvc.perform(get("/api/posts/query")
+                        .param("categoryId", "query-category-1")
+                        .param("createdFrom", NOW.minusDays(7).toString())
+                        .param("createdTo", NOW.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].postId", contains("query-post-1", "query-post-4", "query-post-7")));
+    }
+
+    @Test
+    void sortsAndPagesServerSide() throws Exception {
+        mockMvc.perform(get("/api/posts/query")
+                        .param("sort", "price,asc")
+                        .param("page", "1")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PostController.TOTAL_COUNT_HEADER, String.valueOf(POSTS)))
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[0].postId").value("query-post-5"))
+                .andExpect(jsonPath("$[4].postId").value("query-post-9"));
+    }
+
+    @Test
+    void rejectsUnknownSortFieldAndInvertedRanges() throws Exception {
+        mockMvc.perform(get("/api/posts/query").param("sort", "description"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/posts/query").param("minPrice", "50").param("maxPrice", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void sellerPostsAreReturnedNewestFirst() throws Exception {
+        mockMvc.perform(get("/api/posts/seller/query-seller-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(POSTS / 2)))
+                .andExpect(jsonPath("$[0].postId").value("query-post-1"))
+                .andExpect(jsonPath("$[5].postId").value("query-post-11"));
+    }
+}
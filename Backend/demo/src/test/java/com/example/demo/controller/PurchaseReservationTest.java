@@ -0,0 +1,176 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.TransactionStatus;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PurchaseReservationTest {
+
+    private static final int BUYERS = 40;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MarketplaceFixture fixture;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // reserve-post: bài thanh lý đã duyệt của reserve-seller; reserve-buyer-0..BUYERS-1 cùng muốn mua
+    @BeforeEach
+    void setUp() {
+        UserAccount seller = fixture.user("reserve-seller");
+        for (int i = 0; i < BUYERS; i++) {
+            fixture.user("reserve-buyer-" + i);
+        }
+        Category category = fixture.category("reserve-category", "Reserve Category");
+        Item item = fixture.item("reserve-item", "Desk lamp", seller, category);
+        fixture.approvedPost("reserve-post", seller, item, new BigDecimal("80.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.deleteAll();
+    }
+
+    @Test
+    void concurrentBuyersResolveToExactlyOneWinner() throws Exception {
+        List<MvcResult> results = race(i -> buy("reserve-buyer-" + i, null));
+
+        List<MvcResult> winners = results.stream().filter(r -> r.getResponse().getStatus() == 200).toList();
+        assertThat(winners).hasSize(1);
+        assertThat(results).extracting(r -> r.getResponse().getStatus()).containsOnly(200, 409);
+
+        String winnerId = transactionId(winners.get(0));
+        assertThat(transactionRepository.count()).isEqualTo(1);
+        assertThat(postRepository.findById("reserve-post").orElseThrow().getReservedTransactionId()).isEqualTo(winnerId);
+    }
+
+    @Test
+    void retriesWithSameIdempotencyKeyReturnTheSameTransaction() throws Exception {
+        List<MvcResult> results = race(i -> buy("reserve-buyer-0", "click-1"));
+
+        assertThat(results).extracting(r -> r.getResponse().getStatus()).containsOnly(200);
+        assertThat(results).extracting(this::transactionId).hasSize(BUYERS).containsOnly(
+                transactionRepository.findAll().get(0).getTransactionId());
+        assertThat(transactionRepository.count()).isEqualTo(1);
+
+        // cùng key nhưng bài khác
+        mockMvc.perform(post("/api/transactions/create")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, "click-1")
+                        .param("postId", "other-post")
+                        .param("userId", "reserve-buyer-0")
+                        .param("type", "Liquidation"))
+                .andExpect(status().isUnprocessableEntity());
+        // người khác bấm mua vẫn bị từ chối
+        mockMvc.perform(buy("reserve-buyer-1", "click-1")).andExpect(status().isConflict());
+    }
+
+    @Test
+    void expiredReservationIsTakenOverAndCancelReleasesThePost() throws Exception {
+        String first = transactionId(mockMvc.perform(buy("reserve-buyer-0", null)).andExpect(status().isOk()).andReturn());
+        mockMvc.perform(buy("reserve-buyer-1", null)).andExpect(status().isConflict());
+
+        // giữ chỗ hết hạn: người mua sau lấy được bài, giao dịch của người trước bị hủy
+        jdbcTemplate.update("UPDATE sell_exchange_posts SET reserved_until = ? WHERE post_id = 'reserve-post'",
+                LocalDateTime.now().minusMinutes(1));
+        String second = transactionId(mockMvc.perform(buy("reserve-buyer-1", null)).andExpect(status().isOk()).andReturn());
+        assertThat(transactionRepository.findById(first).orElseThrow().getStatus()).isEqualTo(TransactionStatus.Cancelled);
+
+        // hủy giao dịch đang giữ thì người khác mua được ngay
+        mockMvc.perform(patch("/api/transactions/" + second + "/status").param("status", "Cancelled")
+                        .with(SecurityMockMvcRequestPostProcessors.user("warehouse@example.com").roles("Warehouse Manager")))
+                .andExpect(status().isOk());
+        assertThat(postRepository.findById("reserve-post").orElseThrow().getReservedTransactionId()).isNull();
+        mockMvc.perform(buy("reserve-buyer-2", null)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/transactions/create")
+                        .param("postId", "missing-post")
+                        .param("userId", "reserve-buyer-3")
+                        .param("type", "Liquidation"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Tất cả request được thả cùng lúc sau một latch
+    private List<MvcResult> race(IntFunction<MockHttpServletRequestBuilder> request) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(BUYERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<MvcResult>> futures = new ArrayList<>();
+            for (int i = 0; i < BUYERS; i++) {
+                MockHttpServletRequestBuilder builder = request.apply(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(builder).andReturn();
+                }));
+            }
+            start.countDown();
+            List<MvcResult> results = new ArrayList<>();
+            for (Future<MvcResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private MockHttpServletRequestBuilder buy(String userId, String idempotencyKey) {
+        MockHttpServletRequestBuilder builder = post("/api/transactions/create")
+                .param("postId", "reserve-post")
+                .param("userId", userId)
+                .param("type", "Liquidation");
+        return idempotencyKey == null ? builder : builder.header(TransactionController.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+    }
+
+    private String transactionId(MvcResult result) {
+        try {
+            return objectMapper.readValue(result.getResponse().getContentAsString(), Transaction.class).getTransactionId();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
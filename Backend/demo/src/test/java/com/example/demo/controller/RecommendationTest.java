@@ -0,0 +1,173 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.TransactionStatus;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+// gọi /api/admin/** với role Admin
+@WithMockUser(roles = "Admin")
+class RecommendationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MarketplaceFixture fixture;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private int itemCounter;
+
+    // Lịch sử: alice mua sách; bob và carol mua sách + máy tính; eve mua quần áo; một giao dịch đã hủy ở nội thất.
+    // Đang bán (của rec-seller): mỗi danh mục một bài, cộng thêm bài sách của alice, một bài chưa duyệt và một
+    // bài đang giao nhận
+    @BeforeEach
+    void setUp() throws Exception {
+        for (String user : new String[]{"rec-alice", "rec-bob", "rec-carol", "rec-dave", "rec-eve", "rec-seller"}) {
+            fixture.user(user);
+        }
+        for (String category : new String[]{"books", "calculators", "clothes", "furniture"}) {
+            fixture.category("rec-" + category, category);
+        }
+
+        purchase("rec-alice", "rec-books", TransactionStatus.Completed);
+        purchase("rec-bob", "rec-books", TransactionStatus.Completed);
+        purchase("rec-bob", "rec-calculators", TransactionStatus.Completed);
+        purchase("rec-carol", "rec-books", TransactionStatus.Pending);
+        purchase("rec-carol", "rec-calculators", TransactionStatus.Completed);
+        purchase("rec-eve", "rec-clothes", TransactionStatus.Completed);
+        purchase("rec-eve", "rec-furniture", TransactionStatus.Cancelled);
+
+        listing("rec-post-books", "rec-seller", "rec-books", PostStatusType.Approved, PostStateType.Pending);
+        listing("rec-post-calculators", "rec-seller", "rec-calculators", PostStatusType.Approved, PostStateType.Pending);
+        listing("rec-post-clothes", "rec-seller", "rec-clothes", PostStatusType.Approved, PostStateType.Pending);
+        listing("rec-post-furniture", "rec-seller", "rec-furniture", PostStatusType.Approved, PostStateType.Pending);
+        listing("rec-post-own", "rec-alice", "rec-books", PostStatusType.Approved, PostStateType.Pending);
+        listing("rec-post-unapproved", "rec-seller", "rec-books", PostStatusType.Pending, PostStateType.Pending);
+        listing("rec-post-handover", "rec-seller", "rec-books", PostStatusType.Approved, PostStateType.SellerSent);
+
+        mockMvc.perform(post("/api/admin/recommendations/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.candidates").value(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.deleteAll();
+    }
+
+    @Test
+    void ranksOwnAndCoPurchasedCategoriesFirst() throws Exception {
+        // sách (đã mua), máy tính (hay được mua cùng sách), rồi tới danh mục chỉ có độ phổ biến; không có bài của
+        // chính alice, bài chưa duyệt hay đang giao nhận
+        mockMvc.perform(get("/api/users/rec-alice/recommendations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].post.postId", contains(
+                        "rec-post-books", "rec-post-calculators", "rec-post-clothes", "rec-post-furniture")))
+                .andExpect(jsonPath("$[0].post.categoryName").value("books"));
+
+        mockMvc.perform(get("/api/users/rec-eve/recommendations").param("limit", "1"))
+                .andExpect(jsonPath("$[*].post.postId", contains("rec-post-clothes")));
+    }
+
+    @Test
+    void newUserGetsPopularCategoriesAndStaleEntriesAreDropped() throws Exception {
+        // hai bài sách (danh mục được mua nhiều nhất) bằng điểm nhau, sau đó tới máy tính
+        mockMvc.perform(get("/api/users/rec-dave/recommendations").param("limit", "3"))
+                .andExpect(jsonPath("$[*].post.postId",
+                        containsInAnyOrder("rec-post-books", "rec-post-own", "rec-post-calculators")))
+                .andExpect(jsonPath("$[2].post.postId").value("rec-post-calculators"));
+
+        // bài chuyển sang giao nhận hoặc đang được giữ chỗ sau lần dựng mô hình không còn được gợi ý, không cần dựng
+        // lại; giữ chỗ đã hết hạn thì bài được gợi ý trở lại
+        jdbcTemplate.update("UPDATE sell_exchange_posts SET state = 'SellerSent' WHERE post_id = 'rec-post-books'");
+        jdbcTemplate.update("UPDATE sell_exchange_posts SET reserved_until = ? WHERE post_id = 'rec-post-calculators'",
+                LocalDateTime.now().plusMinutes(10));
+        jdbcTemplate.update("UPDATE sell_exchange_posts SET reserved_until = ? WHERE post_id = 'rec-post-clothes'",
+                LocalDateTime.now().minusMinutes(1));
+        mockMvc.perform(get("/api/users/rec-dave/recommendations"))
+                .andExpect(jsonPath("$[*].post.postId", not(hasItem("rec-post-books"))))
+                .andExpect(jsonPath("$[*].post.postId", not(hasItem("rec-post-calculators"))))
+                .andExpect(jsonPath("$[*].post.postId", hasItem("rec-post-clothes")));
+    }
+
+    @Test
+    void validatesUserAndLimit() throws Exception {
+        mockMvc.perform(get("/api/users/rec-missing/recommendations")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/rec-alice/recommendations").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/rec-alice/recommendations").param("limit", "51"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void purchase(String buyerId, String categoryId, TransactionStatus status) {
+        Item item = item(buyerId, categoryId);
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId("rec-tx-" + item.getItemId());
+        transaction.setUser(userRepository.findById(buyerId).orElseThrow());
+        transaction.setItem(item);
+        transaction.setType("Liquidation");
+        transaction.setStatus(status);
+        transaction.setCreatedAt(LocalDateTime.now().minusDays(3));
+        transactionRepository.save(transaction);
+    }
+
+    private void listing(String postId, String sellerId, String categoryId, PostStatusType status, PostStateType state) {
+        UserAccount seller = userRepository.findById(sellerId).orElseThrow();
+        SellExchangePost post = fixture.approvedPost(postId, seller, item(sellerId, categoryId), BigDecimal.TEN);
+        post.setStatus(status);
+        post.setState(state);
+        post.setCreatedAt(LocalDateTime.now().minusDays(1));
+        postRepository.save(post);
+    }
+
+    private Item item(String ownerId, String categoryId) {
+        int index = itemCounter++;
+        return fixture.item("rec-item-" + index, "Item " + index, userRepository.findById(ownerId).orElseThrow(),
+                categoryRepository.findById(categoryId).orElseThrow());
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.ActivityType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Activity;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ActivityRepository;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.DonationService;
+import com.example.demo.service.ScheduledJobService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// chunk nhỏ để mỗi job phải đi qua nhiều chunk keyset
+@SpringBootTest(properties = {"scheduler.chunk-size=3", "posts.stale-after-days=30"})
+@AutoConfigureMockMvc
+// gọi /api/admin/** với role Admin
+@WithMockUser(roles = "Admin")
+class ScheduledJobsTest {
+
+    private static final int ENDED = 7;
+    private static final int STALE = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    // job-activity-i đã kết thúc (i < ENDED) hoặc còn hạn; job-post-i chờ duyệt từ 40 ngày trước (i < STALE),
+    // cộng thêm một bài chờ duyệt mới và một bài cũ đã duyệt
+    @BeforeEach
+    void setUp() {
+        UserAccount user = new UserAccount();
+        user.setUserId("job-user");
+        user.setName("Organizer");
+        user.setEmail("job-user@example.com");
+        user.setPasswordHash("hash");
+        user.setRoles(new HashSet<>());
+        userRepository.save(user);
+
+        Category category = new Category();
+        category.setCategoryId("job-category");
+        category.setName("Job Category");
+        categoryRepository.save(category);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ENDED + 2; i++) {
+            Activity activity = new Activity();
+            activity.setActivityId("job-activity-" + i);
+            activity.setOrganizer(user);
+            activity.setTitle("Activity " + i);
+            activity.setDescription("Description " + i);
+            activity.setGoalAmount(new BigDecimal("1000.00"));
+            activity.setAmountRaised(BigDecimal.ZERO);
+            activity.setImage("https://img.example/activity.jpg");
+            activity.setActivityType(ActivityType.Fundraiser);
+            // hai hoạt động cùng endDate để keyset phải so tiếp theo id
+            activity.setEndDate(i < ENDED ? now.minusDays(1 + i / 2) : now.plusDays(5));
+            activityRepository.save(activity);
+        }
+
+        for (int i = 0; i < STALE + 2; i++) {
+            Item item = new Item();
+            item.setItemId("job-item-" + i);
+            item.setItemName("Item " + i);
+            item.setOwner(user);
+            item.setCategory(category);
+            itemRepository.save(item);
+
+            SellExchangePost post = new SellExchangePost();
+            post.setPostId("job-post-" + i);
+            post.setSeller(user);
+            post.setItem(item);
+            post.setTitle("Post " + i);
+            post.setDescription("Description " + i);
+            post.setPrice(BigDecimal.TEN);
+            post.setProductType("Books");
+            post.setType(PostType.Liquidation);
+            post.setStatus(i == STALE + 1 ? PostStatusType.Approved : PostStatusType.Pending);
+            post.setCreatedAt(i == STALE ? now.minusDays(1) : now.minusDays(40).plusMinutes(i / 2));
+            postRepository.save(post);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        donationService.flush();
+        jdbcTemplate.update("DELETE FROM scheduler_leases");
+        postRepository.deleteAll();
+        itemRepository.deleteAll();
+        activityRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void closesEndedActivitiesInChunksAndRejectsDonations() throws Exception {
+        mockMvc.perform(post("/api/admin/jobs/" + ScheduledJobService.CLOSE_ENDED_ACTIVITIES + "/run"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ran").value(true))
+                .andExpect(jsonPath("$.rows").value(ENDED));
+
+        assertThat(activityRepository.findById("job-activity-0").orElseThrow().getClosedAt()).isNotNull();
+        assertThat(activityRepository.findById("job-activity-" + (ENDED - 1)).orElseThrow().getClosedAt()).isNotNull();
+        assertThat(activityRepository.findById("job-activity-" + ENDED).orElseThrow().getClosedAt()).isNull();
+        mockMvc.perform(post("/api/activities/job-activity-0/donations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":100}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/api/activities/job-activity-0/donations")
+                        .param("immediate", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":100}"))
+                .andExpect(status().isConflict());
+
+        // lượt sau không còn gì để làm
+        mockMvc.perform(post("/api/admin/jobs/" + ScheduledJobService.CLOSE_ENDED_ACTIVITIES + "/run"))
+                .andExpect(jsonPath("$.rows").value(0));
+        assertThat(meterRegistry.get(ScheduledJobService.ROWS)
+                .tag("job", ScheduledJobService.CLOSE_ENDED_ACTIVITIES).summary().totalAmount()).isGreaterThanOrEqualTo(ENDED);
+    }
+
+    // Hoạt động đã nhận quyên góp gom trong bộ nhớ trước khi đóng vẫn phải từ chối các khoản sau đó
+    @Test
+    void rejectsBufferedDonationsAfterClose() throws Exception {
+        String activityId = "job-activity-" + (ENDED + 1);
+        mockMvc.perform(post("/api/activities/" + activityId + "/donations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":100}"))
+                .andExpect(status().isAccepted());
+        jdbcTemplate.update("UPDATE activities SET end_date = ? WHERE activity_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)), activityId);
+        mockMvc.perform(post("/api/admin/jobs/" + ScheduledJobService.CLOSE_ENDED_ACTIVITIES + "/run"))
+                .andExpect(jsonPath("$.rows").value(ENDED + 1));
+
+        mockMvc.perform(post("/api/activities/" + activityId + "/donations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":50}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void expiresOnlyStalePendingPosts() throws Exception {
+        mockMvc.perform(post("/api/admin/jobs/" + ScheduledJobService.EXPIRE_STALE_POSTS + "/run"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(STALE));
+
+        assertThat(postRepository.findById("job-post-0").orElseThrow().getStatus()).isEqualTo(PostStatusType.Expired);
+        assertThat(postRepository.findById("job-post-" + (STALE - 1)).orElseThrow().getStatus())
+                .isEqualTo(PostStatusType.Expired);
+        assertThat(postRepository.findById("job-post-" + STALE).orElseThrow().getStatus())
+                .isEqualTo(PostStatusType.Pending);
+        assertThat(postRepository.findById("job-post-" + (STALE + 1)).orElseThrow().getStatus())
+                .isEqualTo(PostStatusType.Approved);
+
+        // bài hết hạn không mua được
+        mockMvc.perform(post("/api/transactions/create")
+                        .param("postId", "job-post-0")
+                        .param("userId", "job-user")
+                        .param("type", "Liquidation"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/api/admin/jobs/missing-job/run")).andExpect(status().isNotFound());
+    }
+
+    // Bài chưa có created_at không biết tuổi: coi như đã quá hạn nếu còn chờ duyệt, đi qua nhiều chunk riêng
+    @Test
+    void expiresUndatedPendingPosts() throws Exception {
+        jdbcTemplate.update("UPDATE sell_exchange_posts SET created_at = NULL WHERE post_id IN (?, ?, ?, ?, ?)",
+                "job-post-0", "job-post-1", "job-post-2", "job-post-" + STALE, "job-post-" + (STALE + 1));
+
+        mockMvc.perform(post("/api/admin/jobs/" + ScheduledJobService.EXPIRE_STALE_POSTS + "/run"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(STALE + 1));
+
+        assertThat(postRepository.findById("job-post-0").orElseThrow().getStatus()).isEqualTo(PostStatusType.Expired);
+        assertThat(postRepository.findById("job-post-" + STALE).orElseThrow().getStatus())
+                .isEqualTo(PostStatusType.Expired);
+        assertThat(postRepository.findById("job-post-" + (STALE + 1)).orElseThrow().getStatus())
+                .isEqualTo(PostStatusType.Approved);
+    }
+
+    @Test
+    void skipsRunWhileAnotherNodeHoldsTheLease() throws Exception {
+        jdbcTemplate.update("INSERT INTO scheduler_leases (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                ScheduledJobService.EXPIRE_STALE_POSTS, Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)),
+                Timestamp.valueOf(LocalDateTime.now()), "other-node");
+
+        mockMvc.perform(post("/api/admin/jobs/" + ScheduledJobService.EXPIRE_STALE_POSTS + "/run"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ran").value(false));
+        assertThat(postRepository.findById("job-post-0").orElseThrow().getStatus()).isEqualTo(PostStatusType.Pending);
+
+        // lease của node kia hết hạn (node chết giữa chừng) thì node này chạy được
+        jdbcTemplate.update("UPDATE scheduler_leases SET locked_until = ? WHERE name = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), ScheduledJobService.EXPIRE_STALE_POSTS);
+        mockMvc.perform(post("/api/admin/jobs/" + ScheduledJobService.EXPIRE_STALE_POSTS + "/run"))
+                .andExpect(jsonPath("$.ran").value(true))
+                .andExpect(jsonPath("$.rows").value(STALE));
+    }
+}
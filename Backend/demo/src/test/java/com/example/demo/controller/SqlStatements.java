@@ -0,0 +1,32 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.RequestSqlMetricsInterceptor;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ResultMatcher cho MockMvc đọc số câu SQL mà RequestSqlMetricsInterceptor đếm cho đúng request đó:
+//   mockMvc.perform(get("/api/posts")).andExpect(SqlStatements.atMost(3)).andExpect(SqlStatements.noRepeatsOver(2));
+final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    static ResultMatcher atMost(int max) {
+        return result -> assertThat(count(result.getRequest().getAttribute(RequestSqlMetricsInterceptor.STATEMENTS_ATTRIBUTE)))
+                .as("SQL statements for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(max);
+    }
+
+    // Số lần tối đa một câu SQL (cùng text) được chạy lại trong request, để bắt N+1
+    static ResultMatcher noRepeatsOver(int max) {
+        return result -> assertThat(count(result.getRequest().getAttribute(RequestSqlMetricsInterceptor.MAX_REPEATS_ATTRIBUTE)))
+                .as("repeats of one SQL statement for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(max);
+    }
+
+    private static int count(Object attribute) {
+        assertThat(attribute).as("request was not counted by RequestSqlMetricsInterceptor").isInstanceOf(Integer.class);
+        return (Integer) attribute;
+    }
+}
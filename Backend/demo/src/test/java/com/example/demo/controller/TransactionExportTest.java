@@ -0,0 +1,157 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Item;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.ItemRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+// gọi /api/admin/** với role Admin
+@WithMockUser(roles = "Admin")
+class TransactionExportTest {
+
+    private static final int TRANSACTIONS = 2_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    // export-i: tạo lúc START + i giờ, Completed khi i chẵn, Pending khi lẻ; tên item có dấu phẩy và nháy kép
+    @BeforeEach
+    void setUp() {
+        UserAccount user = new UserAccount();
+        user.setUserId("export-user");
+        user.setName("Nguyễn Văn A");
+        user.setEmail("export-user@example.com");
+        user.setPasswordHash("hash");
+        user.setRoles(new HashSet<>());
+        userRepository.save(user);
+
+        Item item = new Item();
+        item.setItemId("export-item");
+        item.setItemName("Sách \"Giải tích\", tập 1");
+        item.setOwner(user);
+        itemRepository.save(item);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            rows.add(new Object[]{String.format("export-%05d", i), "export-item", "export-user", "Liquidation",
+                    i % 2 == 0 ? "Completed" : "Pending", Timestamp.valueOf(START.plusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (transaction_id, item_id, user_id, type, status, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transactions");
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void streamsAllRowsAsCsvWithOneQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MvcResult result = export(get("/api/admin/transactions/export"));
+
+        assertThat(result.getResponse().getContentType()).startsWith("text/csv");
+        assertThat(result.getResponse().getHeader("Content-Disposition"))
+                .isEqualTo("attachment; filename=\"transactions.csv\"");
+        String[] lines = result.getResponse().getContentAsString().split("\r\n");
+        assertThat(lines).hasSize(TRANSACTIONS + 1);
+        assertThat(lines[0]).startsWith("transactionId,type,status,createdAt,userId");
+        assertThat(lines[1]).isEqualTo("export-00000,Liquidation,Completed,2024-01-01T08:00,export-user,"
+                + "Nguyễn Văn A,export-user@example.com,,,,,,export-item,\"Sách \"\"Giải tích\"\", tập 1\"");
+        assertThat(lines[TRANSACTIONS]).startsWith("export-01999,");
+        // một câu SELECT projection, không load entity liên quan theo từng dòng
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void filtersByDateRangeAndStatusAsNdjson() throws Exception {
+        MvcResult result = export(get("/api/admin/transactions/export")
+                .param("format", "ndjson")
+                .param("from", START.plusHours(10).toString())
+                .param("to", START.plusHours(20).toString())
+                .param("status", "Pending"));
+
+        assertThat(result.getResponse().getContentType()).isEqualTo("application/x-ndjson");
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(5);
+        List<String> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertThat(row.get("status").asText()).isEqualTo("Pending");
+            ids.add(row.get("transactionId").asText());
+        }
+        assertThat(ids).containsExactly("export-00011", "export-00013", "export-00015", "export-00017", "export-00019");
+    }
+
+    @Test
+    void rejectsUnknownFormatAndInvertedRange() throws Exception {
+        mockMvc.perform(get("/api/admin/transactions/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/transactions/export")
+                        .param("from", START.plusDays(2).toString())
+                        .param("to", START.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult export(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult started = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Disposition"))
+                .andReturn();
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.PostStateType;
+import com.example.demo.enumpack.PostStatusType;
+import com.example.demo.enumpack.TransactionStatus;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.Transaction;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.SellExchangePostRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.service.WalletService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.demo.controller.MarketplaceFixture.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "warehouse@example.com", roles = "Warehouse Manager")
+class TransactionStateTest {
+
+    private static final int HANDOVERS = 40;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private MarketplaceFixture fixture;
+
+    @Autowired
+    private SellExchangePostRepository postRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // state-tx-i: giao dịch Pending của state-buyer trên bài state-post-i (giá 50, thanh lý) của state-seller
+    @BeforeEach
+    void setUp() {
+        UserAccount seller = fixture.user("state-seller");
+        UserAccount buyer = fixture.user("state-buyer");
+        Category category = fixture.category("state-category", "State Category");
+
+        for (int i = 0; i < HANDOVERS; i++) {
+            Item item = fixture.item("state-item-" + i, "Item " + i, seller, category);
+            SellExchangePost post = fixture.approvedPost("state-post-" + i, seller, item, new BigDecimal("50.00"));
+            fixture.purchase("state-tx-" + i, post, buyer, TransactionStatus.Pending);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallet_ledger WHERE user_id LIKE 'state-%'");
+        fixture.deleteAll();
+    }
+
+    // Số câu SQL không phụ thuộc số giao dịch trong lô
+    @Test
+    void bulkTransitionUpdatesTransactionsAndPostsInConstantStatements() throws Exception {
+        // đặt thẳng bằng SQL: đi qua endpoint sẽ kéo theo một lần index lại bất đồng bộ có thể rơi vào khoảng đếm
+        jdbcTemplate.update("UPDATE transactions SET status = 'BuyerSent' WHERE transaction_id = 'state-tx-0'");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String ids = IntStream.range(0, HANDOVERS)
+                .mapToObj(i -> "\"state-tx-" + i + "\"")
+                .collect(Collectors.joining(","));
+        mockMvc.perform(post("/api/transactions/status/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"SellerSent\",\"transactionIds\":[" + ids + ",\"missing\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transitioned", hasSize(HANDOVERS - 1)))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[0].transactionId").value("state-tx-0"))
+                .andExpect(jsonPath("$.errors[0].message").value("Cannot move from BuyerSent to SellerSent"))
+                .andExpect(jsonPath("$.errors[1].message").value("Transaction not found"));
+
+        // SELECT ... FOR UPDATE, UPDATE transactions, UPDATE bài đăng, và một SELECT cả lô để index lại tìm kiếm
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(transactionRepository.findById("state-tx-7").orElseThrow().getStatus())
+                .isEqualTo(TransactionStatus.SellerSent);
+        SellExchangePost post = postRepository.findById("state-post-7").orElseThrow();
+        assertThat(post.getState()).isEqualTo(PostStateType.SellerSent);
+        assertThat(post.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void walksHandoverToCompletionAndSettlesWallet() throws Exception {
+        transition("state-tx-1", "SellerSent");
+        transition("state-tx-1", "BothSent");
+        // không được quay lại bước trước
+        mockMvc.perform(patch("/api/transactions/state-tx-1/status").param("status", "Pending"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/transactions/state-tx-1/status").param("status", "Shipped"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/transactions/missing/status").param("status", "Completed"))
+                .andExpect(status().isNotFound());
+
+        transition("state-tx-1", "Completed");
+        // gọi lại khi đã Completed: không lỗi, không ghi thêm sổ cái
+        transition("state-tx-1", "Completed");
+
+        SellExchangePost post = postRepository.findById("state-post-1").orElseThrow();
+        assertThat(post.getState()).isEqualTo(PostStateType.Completed);
+        assertThat(post.getStatus()).isEqualTo(PostStatusType.Completed);
+        assertThat(walletService.getBalance("state-seller")).isEqualByComparingTo("50.00");
+        assertThat(walletService.getBalance("state-buyer")).isEqualByComparingTo("-50.00");
+    }
+
+    @Test
+    void cancellingReturnsPostToPendingAndRejectsOversizedBatch() throws Exception {
+        transition("state-tx-2", "SellerSent");
+        transition("state-tx-2", "Cancelled");
+        assertThat(postRepository.findById("state-post-2").orElseThrow().getState()).isEqualTo(PostStateType.Pending);
+
+        String ids = IntStream.range(0, 501).mapToObj(i -> "\"x" + i + "\"").collect(Collectors.joining(","));
+        mockMvc.perform(post("/api/transactions/status/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"SellerSent\",\"transactionIds\":[" + ids + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Chuyển sang Completed ghi sổ cái ví: người chưa đăng nhập hay thành viên thường không được gọi
+    @Test
+    void transitionsRequireWarehouseRole() throws Exception {
+        for (RequestPostProcessor caller : new RequestPostProcessor[]{
+                anonymous(), member("state-buyer")}) {
+            mockMvc.perform(patch("/api/transactions/state-tx-3/status").param("status", "Completed").with(caller))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(post("/api/transactions/status/bulk").with(caller)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"status\":\"Completed\",\"transactionIds\":[\"state-tx-3\"]}"))
+                    .andExpect(status().isForbidden());
+        }
+        assertThat(transactionRepository.findById("state-tx-3").orElseThrow().getStatus())
+                .isEqualTo(TransactionStatus.Pending);
+        assertThat(walletService.getBalance("state-seller")).isEqualByComparingTo(BigDecimal.ZERO);
+
+        mockMvc.perform(patch("/api/transactions/state-tx-3/status").param("status", "SellerSent")
+                        .with(SecurityMockMvcRequestPostProcessors.user("admin@example.com").roles("Admin")))
+                .andExpect(status().isOk());
+    }
+
+    private void transition(String transactionId, String status) throws Exception {
+        mockMvc.perform(patch("/api/transactions/" + transactionId + "/status").param("status", status))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(status));
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.demo.controller;
+
+import com.example.demo.enumpack.TransactionStatus;
+import com.example.demo.enumpack.WalletEntryType;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.TransactionService;
+import com.example.demo.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.demo.controller.MarketplaceFixture.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Thread cộng dồn tự động được tắt (chu kỳ 1 giờ); test gọi materialize()/materializeSettled() trực tiếp
+@SpringBootTest(properties = {"wallet.snapshot-interval-ms=3600000", "wallet.materialize-grace-ms=" + WalletLedgerTest.GRACE_MS})
+@AutoConfigureMockMvc
+// gọi /api/admin/** với role Admin
+@WithMockUser(roles = "Admin")
+class WalletLedgerTest {
+
+    static final long GRACE_MS = 1000;
+    private static final int PURCHASES = 40;
+    private static final int THREADS = 8;
+    private static final BigDecimal PRICE = new BigDecimal("125.50");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MarketplaceFixture fixture;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // wallet-seller bán một bài giá PRICE; wallet-buyer-i có giao dịch Pending wallet-tx-i trên bài đó
+    @BeforeEach
+    void setUp() {
+        UserAccount seller = fixture.user("wallet-seller");
+        Category category = fixture.category("wallet-category", "Wallet Category");
+        Item item = fixture.item("wallet-item", "Casio fx-580", seller, category);
+        SellExchangePost post = fixture.approvedPost("wallet-post", seller, item, PRICE);
+
+        for (int i = 0; i < PURCHASES; i++) {
+            fixture.purchase("wallet-tx-" + i, post, fixture.user("wallet-buyer-" + i), TransactionStatus.Pending);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM wallet_ledger WHERE user_id LIKE 'wallet-%'");
+        jdbcTemplate.update("DELETE FROM wallet_snapshots WHERE user_id LIKE 'wallet-%'");
+        fixture.deleteAll();
+    }
+
+    @Test
+    void completingTwiceWritesLedgerEntriesOnce() throws Exception {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/transactions/wallet-tx-0/complete"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("Completed"));
+        }
+
+        mockMvc.perform(get("/api/users/wallet-seller/wallet"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(125.5));
+        mockMvc.perform(get("/api/users/wallet-buyer-0/wallet"))
+                .andExpect(jsonPath("$.balance").value(-125.5));
+        mockMvc.perform(get("/api/users/wallet-seller/wallet/entries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].entryType").value("Sale"))
+                .andExpect(jsonPath("$[0].transactionId").value("wallet-tx-0"));
+
+        mockMvc.perform(post("/api/transactions/missing/complete")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/missing/wallet")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/wallet-seller/wallet/entries").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Hoàn tất giao dịch ghi sổ cái, ví lộ số dư: người lạ (kể cả người mua giao dịch khác, người bán) bị chặn
+    @Test
+    void completionAndWalletRequireOwnerOrStaff() throws Exception {
+        mockMvc.perform(post("/api/transactions/wallet-tx-0/complete").with(anonymous()))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/wallet-seller/wallet").with(anonymous())).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/wallet-seller/wallet/entries").with(anonymous()))
+                .andExpect(status().isForbidden());
+        for (String other : new String[]{"wallet-buyer-1", "wallet-seller"}) {
+            mockMvc.perform(post("/api/transactions/wallet-tx-0/complete").with(member(other)))
+                    .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(get("/api/users/wallet-seller/wallet").with(member("wallet-buyer-0")))
+                .andExpect(status().isForbidden());
+        assertThat(transactionRepository.findById("wallet-tx-0").orElseThrow().getStatus())
+                .isEqualTo(TransactionStatus.Pending);
+        assertThat(walletService.getBalance("wallet-seller")).isEqualByComparingTo(BigDecimal.ZERO);
+
+        mockMvc.perform(post("/api/transactions/wallet-tx-0/complete").with(member("wallet-buyer-0")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/transactions/wallet-tx-1/complete")
+                        .with(SecurityMockMvcRequestPostProcessors.user("staff@example.com").roles("Warehouse Manager")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/wallet-seller/wallet").with(member("wallet-seller")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(251.0));
+        mockMvc.perform(get("/api/users/wallet-buyer-0/wallet/entries").with(member("wallet-buyer-0")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    // Mọi lượt mua cùng ghi tiền cho một người bán: chỉ INSERT vào sổ cái nên không mất lượt nào
+    @Test
+    void concurrentCompletionsForOneSellerAreNeverLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < PURCHASES; i++) {
+            String transactionId = "wallet-tx-" + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                return transactionService.completeTransaction(transactionId);
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertThat(walletService.getBalance("wallet-seller"))
+                .isEqualByComparingTo(PRICE.multiply(BigDecimal.valueOf(PURCHASES)));
+        assertThat(walletService.getBalance("wallet-buyer-7")).isEqualByComparingTo(PRICE.negate());
+    }
+
+    @Test
+    void materializeFoldsEntriesIntoSnapshotAndUsersRow() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            transactionService.completeTransaction("wallet-tx-" + i);
+        }
+        assertThat(walletService.materialize(walletService.latestEntryId())).isGreaterThanOrEqualTo(4);
+        // chạy lại trên cùng khoảng thì không cộng thêm
+        assertThat(walletService.materialize(walletService.latestEntryId())).isZero();
+
+        BigDecimal afterThree = PRICE.multiply(BigDecimal.valueOf(3));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT balance FROM wallet_snapshots WHERE user_id = 'wallet-seller'", BigDecimal.class))
+                .isEqualByComparingTo(afterThree);
+        assertThat(userRepository.findById("wallet-seller").orElseThrow().getWalletBalance())
+                .isEqualByComparingTo(afterThree);
+
+        // các dòng sau snapshot vẫn được cộng khi đọc
+        transactionService.completeTransaction("wallet-tx-3");
+        mockMvc.perform(post("/api/admin/users/wallet-seller/wallet/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":-0.50,\"note\":\"Phí giao dịch\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(501.5));
+        mockMvc.perform(post("/api/admin/users/wallet-seller/wallet/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":0}"))
+                .andExpect(status().isBadRequest());
+
+        // users.wallet_balance không bị save() ghi đè bằng giá trị cũ
+        UserAccount seller = userRepository.findById("wallet-seller").orElseThrow();
+        walletService.materialize(walletService.latestEntryId());
+        seller.setName("Renamed Seller");
+        userRepository.save(seller);
+        assertThat(userRepository.findById("wallet-seller").orElseThrow().getWalletBalance())
+                .isEqualByComparingTo("501.50");
+        assertThat(walletService.getBalance("wallet-seller")).isEqualByComparingTo("501.50");
+    }
+
+    // Dòng có id nhỏ hơn nhưng commit sau dòng đã commit: mốc không được vượt qua nó trước khi nó commit
+    @Test
+    void materializeSettledKeepsLateCommittingEntries() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> late = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                walletService.record("wallet-seller", new BigDecimal("7.00"), WalletEntryType.Adjustment, null, "late");
+                inserted.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            inserted.await();
+            walletService.record("wallet-seller", new BigDecimal("3.00"), WalletEntryType.Adjustment, null, "early");
+
+            // dòng đã commit còn mới hơn grace nên chưa được cộng
+            assertThat(walletService.materializeSettled()).isZero();
+            commit.countDown();
+            late.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(walletService.materializeSettled()).isZero();
+
+        Thread.sleep(GRACE_MS + 100);
+        assertThat(walletService.materializeSettled()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT balance FROM wallet_snapshots WHERE user_id = 'wallet-seller'", BigDecimal.class))
+                .isEqualByComparingTo("10.00");
+        assertThat(walletService.getBalance("wallet-seller")).isEqualByComparingTo("10.00");
+    }
+
+    // Điều chỉnh ví tạo ra tiền: không cho người chưa đăng nhập hoặc không phải Admin gọi
+    @Test
+    @WithAnonymousUser
+    void adjustmentsRequireAdminRole() throws Exception {
+        mockMvc.perform(post("/api/admin/users/wallet-seller/wallet/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":1000}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/users/wallet-seller/wallet/adjustments")
+                        .with(SecurityMockMvcRequestPostProcessors.user("wallet-buyer-0").roles("Member"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":1000}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/jobs/expire-stale-posts/run")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/recommendations/rebuild")).andExpect(status().isForbidden());
+
+        assertThat(walletService.getBalance("wallet-seller")).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.enumpack.IdStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdGeneratorTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    void uuid7IdsAreVersion7AndSortInGenerationOrder() {
+        IdGenerator generator = new IdGenerator(IdStrategy.Uuid7, 0, new AtomicLong(NOW)::getAndIncrement);
+
+        List<String> ids = generate(generator, 10_000);
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).allSatisfy(id -> {
+            assertThat(id).hasSize(36);
+            assertThat(id.charAt(14)).isEqualTo('7');
+            assertThat(id.charAt(19)).isIn('8', '9', 'a', 'b');
+        });
+    }
+
+    // Đồng hồ đứng yên (hơn 4096 id trong một ms) rồi lùi lại: id vẫn tăng dần và không trùng
+    @Test
+    void snowflakeIdsStayOrderedWhenClockStallsOrGoesBackwards() {
+        AtomicLong clock = new AtomicLong(NOW);
+        IdGenerator generator = new IdGenerator(IdStrategy.Snowflake, 5, clock::get);
+
+        List<String> ids = generate(generator, 10_000);
+        clock.set(NOW - 1_000);
+        ids.addAll(generate(generator, 100));
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).allSatisfy(id -> assertThat(id).hasSize(13).matches("[0-9A-HJKMNP-TV-Z]+"));
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        IdGenerator generator = new IdGenerator(IdStrategy.Snowflake, 1, System::currentTimeMillis);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> generate(generator, 20_000)));
+        }
+        Set<String> ids = new HashSet<>();
+        for (Future<List<String>> future : futures) {
+            List<String> batch = future.get();
+            // trong một thread các id luôn tăng dần
+            assertThat(batch).isSorted();
+            ids.addAll(batch);
+        }
+        pool.shutdown();
+
+        assertThat(ids).hasSize(8 * 20_000);
+    }
+
+    @Test
+    void rejectsUnknownStrategyAndNodeOutOfRange() {
+        assertThatThrownBy(() -> new IdGenerator("ulid", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IdGenerator("snowflake", IdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> generate(IdGenerator generator, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(generator.next());
+        }
+        return ids;
+    }
+}
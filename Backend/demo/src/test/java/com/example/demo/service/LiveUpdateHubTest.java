@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class LiveUpdateHubTest {
+
+    // hàng đợi 4 message mỗi subscriber, tối đa 3 subscriber, 2 thread gửi; ngoài Spring nên không có heartbeat
+    private final LiveUpdateHub hub = new LiveUpdateHub(4, 3, 60_000, 2, false);
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithoutHoldingBackOthers() {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingEmitter slow = new CountingEmitter(release);
+        CountingEmitter fast = new CountingEmitter(null);
+        hub.register("activity:a1", slow);
+        hub.register("activity:a1", fast);
+
+        // phát theo nhịp của subscriber nhanh; subscriber chậm đầy hàng đợi sau 1 + 4 message
+        for (int i = 0; i < 10; i++) {
+            hub.publish("activity:a1", "progress", i);
+            int expected = i + 1;
+            await().atMost(Duration.ofSeconds(5)).until(() -> fast.sent.get() == expected);
+        }
+
+        // subscriber chậm (đang kẹt ở lần gửi đầu) bị ngắt, subscriber còn lại vẫn nhận đủ
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(slow.completed).isTrue());
+        assertThat(slow.sent.get()).isLessThan(10);
+    }
+
+    @Test
+    void rejectsSubscribersOverTheLimit() {
+        for (int i = 0; i < 3; i++) {
+            hub.register("post:p" + i, new CountingEmitter(null));
+        }
+
+        assertThatThrownBy(() -> hub.register("post:p3", new CountingEmitter(null)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void publishingToTopicWithoutSubscribersIsANoOp() {
+        hub.publish("post:nobody", "status", "ignored");
+
+        assertThat(hub.hasSubscribers("post:nobody")).isFalse();
+        assertThat(hub.getSubscriberCount()).isZero();
+    }
+
+    // Emitter giả: đếm số lần gửi, có thể chặn lần gửi đầu tiên để mô phỏng client đọc chậm
+    private static class CountingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final AtomicInteger sent = new AtomicInteger();
+        private volatile boolean completed;
+
+        CountingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void rejectsWithTooManyRequestsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // 1 task đang chạy + 1 task trong hàng đợi = đầy
+        callers.submit(() -> hashingExecutor.execute(() -> release.await(5, TimeUnit.SECONDS)));
+        // Chờ task đầu chiếm thread rồi mới gửi task thứ hai, để task thứ hai chắc chắn nằm trong hàng đợi
+        while (hashingExecutor.getActiveCount() < 1) {
+            Thread.sleep(5);
+        }
+        callers.submit(() -> hashingExecutor.execute(() -> true));
+        while (hashingExecutor.getQueueSize() < 1) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> hashingExecutor.execute(() -> true))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        release.countDown();
+    }
+
+    @Test
+    void rethrowsTaskExceptionUnchanged() {
+        assertThatThrownBy(() -> hashingExecutor.execute(() -> {
+            throw new BadCredentialsException("bad");
+        })).isInstanceOf(BadCredentialsException.class);
+    }
+}
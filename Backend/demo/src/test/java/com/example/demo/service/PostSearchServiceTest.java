@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PostSearchHitDTO;
+import com.example.demo.dto.PostSearchResultDTO;
+import com.example.demo.enumpack.PostType;
+import com.example.demo.model.Category;
+import com.example.demo.model.Item;
+import com.example.demo.model.SellExchangePost;
+import com.example.demo.model.UserAccount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchServiceTest {
+
+    private PostSearchService searchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        searchService = new PostSearchService(null);
+        Category books = category("c-books", "Sách");
+        Category electronics = category("c-electronics", "Điện tử");
+        searchService.indexPost(post("p1", "Giáo trình Giải tích 1", "Sách còn mới", PostType.Liquidation, "50000", books));
+        searchService.indexPost(post("p2", "Máy tính Casio", "Dùng cho môn giải tích", PostType.Exchange, "200000", electronics));
+        searchService.indexPost(post("p3", "Tai nghe", "Âm thanh tốt", PostType.Liquidation, "150000", electronics));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        searchService.close();
+    }
+
+    @Test
+    void ranksTitleMatchesFirstAndIgnoresDiacritics() {
+        PostSearchResultDTO result = searchService.search("giai tich", null, null, null, null, null, null);
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getHits()).extracting(PostSearchHitDTO::getPostId).containsExactly("p1", "p2");
+        assertThat(result.getFacets().get("type")).containsEntry("Liquidation", 1).containsEntry("Exchange", 1);
+    }
+
+    @Test
+    void filtersByTypeAndPriceRange() {
+        PostSearchResultDTO result = searchService.search(null, PostType.Liquidation, null, null,
+                new BigDecimal("100000"), new BigDecimal("300000"), null);
+
+        assertThat(result.getHits()).extracting(PostSearchHitDTO::getPostId).containsExactly("p3");
+        assertThat(result.getFacets().get("category")).containsEntry("Điện tử", 1);
+    }
+
+    @Test
+    void removedPostsDisappearFromResults() {
+        searchService.removePost("p1");
+
+        assertThat(searchService.search("giáo trình", null, null, null, null, null, null).getTotal()).isZero();
+    }
+
+    private static Category category(String id, String name) {
+        Category category = new Category();
+        category.setCategoryId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static SellExchangePost post(String id, String title, String description, PostType type,
+                                         String price, Category category) {
+        UserAccount seller = new UserAccount();
+        seller.setUserId("seller");
+        seller.setName("Seller");
+
+        Item item = new Item();
+        item.setItemId("item-" + id);
+        item.setItemName(title);
+        item.setCategory(category);
+
+        SellExchangePost post = new SellExchangePost();
+        post.setPostId(id);
+        post.setTitle(title);
+        post.setDescription(description);
+        post.setType(type);
+        post.setPrice(new BigDecimal(price));
+        post.setSeller(seller);
+        post.setItem(item);
+        post.setCreatedAt(LocalDateTime.now());
+        return post;
+    }
+}
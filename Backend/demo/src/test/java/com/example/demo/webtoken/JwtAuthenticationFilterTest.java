@@ -0,0 +1,132 @@
+package com.example.demo.webtoken;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.UserAccount;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "jwt-user@example.com";
+    // Khóa ký của JwtService, để dựng token hết hạn hoặc cho user không tồn tại mà chữ ký vẫn hợp lệ
+    private static final Key SECRET_KEY = (Key) ReflectionTestUtils.getField(JwtService.class, "SECRET_KEY");
+
+    private final JwtService jwtService = new JwtService();
+    private final VerifiedTokenCache tokenCache = new VerifiedTokenCache(100, 300, null);
+    private final AtomicInteger userLoads = new AtomicInteger();
+    private final UserAccount account = account();
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, email -> {
+        userLoads.incrementAndGet();
+        if (!EMAIL.equals(email)) {
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        return account;
+    }, tokenCache);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticatesAndRepeatIsServedFromCache() throws Exception {
+        String token = jwtService.generateToken(account);
+
+        Authentication first = authenticate(token);
+        assertThat(first).isNotNull();
+        assertThat(first.getName()).isEqualTo(EMAIL);
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_Admin");
+
+        Authentication second = authenticate(token);
+        assertThat(second.getName()).isEqualTo(EMAIL);
+        assertThat(userLoads).hasValue(1);
+    }
+
+    // Principal nằm trong cache tới vài phút: không được mang theo password hash
+    @Test
+    void cachedPrincipalCarriesNoPassword() throws Exception {
+        String token = jwtService.generateToken(account);
+
+        Authentication authentication = authenticate(token);
+        assertThat(authentication.getCredentials()).isNull();
+        assertThat(((UserDetails) authentication.getPrincipal()).getPassword()).isEmpty();
+        assertThat(tokenCache.get(token).getPassword()).isEmpty();
+        assertThat(tokenCache.get(token)).isNotSameAs(account);
+    }
+
+    @Test
+    void tamperedExpiredAndUnknownSubjectTokensStayAnonymous() throws Exception {
+        String token = jwtService.generateToken(account);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        String tampered = token.substring(0, signatureStart)
+                + (token.charAt(signatureStart) == 'A' ? 'B' : 'A') + token.substring(signatureStart + 1);
+        String expired = signed(EMAIL, new Date(System.currentTimeMillis() - 1000));
+        String unknown = signed("ghost@example.com", new Date(System.currentTimeMillis() + 60_000));
+
+        for (String invalid : new String[]{tampered, expired, unknown, "not-a-jwt"}) {
+            assertThat(authenticate(invalid)).as(invalid).isNull();
+            assertThat(tokenCache.get(invalid)).isNull();
+        }
+    }
+
+    // TTL của cache (300 giây) dài hơn thời gian còn lại của token: entry phải hết hạn cùng token
+    @Test
+    void cacheEntryNeverOutlivesTokenExpiry() throws Exception {
+        String token = signed(EMAIL, new Date(System.currentTimeMillis() + 1500));
+        assertThat(authenticate(token)).isNotNull();
+        assertThat(tokenCache.get(token)).isNotNull();
+
+        Thread.sleep(2000);
+        assertThat(tokenCache.get(token)).isNull();
+        assertThat(authenticate(token)).isNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/recommendations/model");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static String signed(String subject, Date expiresAt) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(expiresAt)
+                .signWith(SECRET_KEY)
+                .compact();
+    }
+
+    private static UserAccount account() {
+        Role admin = new Role();
+        admin.setRoleName("Admin");
+        UserAccount account = new UserAccount();
+        account.setUserId("jwt-user");
+        account.setEmail(EMAIL);
+        account.setPasswordHash("{bcrypt}$2a$10$hash");
+        account.setRoles(Set.of(admin));
+        return account;
+    }
+}